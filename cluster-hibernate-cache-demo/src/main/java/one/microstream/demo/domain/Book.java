@@ -21,7 +21,7 @@ public class Book
 {
     @NonNull
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     private UUID id;
     @NaturalId
     @NonNull
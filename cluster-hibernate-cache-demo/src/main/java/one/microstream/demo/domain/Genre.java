@@ -22,7 +22,7 @@ public class Genre
     }
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     private UUID id;
     @NonNull
     @NotBlank
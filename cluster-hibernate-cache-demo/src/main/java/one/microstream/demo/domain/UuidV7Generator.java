@@ -0,0 +1,84 @@
+package one.microstream.demo.domain;
+
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.config.spi.StandardConverters;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.id.factory.spi.CustomIdGeneratorCreationContext;
+
+import java.lang.reflect.Member;
+import java.util.EnumSet;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates time-ordered version 7 UUIDs as specified by RFC 9562, so new rows are appended to the end of the primary
+ * key indices instead of splitting pages all over them like random UUIDs do. The 12 bits following the millisecond
+ * timestamp are a sequence which keeps the IDs monotonic within the same millisecond, the remaining 62 bits are taken
+ * from {@link ThreadLocalRandom}.
+ *
+ * <p>
+ * The storage demo generates its IDs with a copy of this class, <code>UuidV7IdGenerator</code>, because both demos are
+ * separate builds without a shared module. Changes to the bit layout have to be made in both.
+ *
+ * <p>
+ * Setting the Hibernate property <code>app.ids.generator</code> to <code>random</code> generates random version 4 UUIDs
+ * with {@link UUID#randomUUID()} instead, to compare the insert throughput of both, see <code>testing/inserts.sh</code>.
+ */
+public class UuidV7Generator implements BeforeExecutionGenerator
+{
+    private static final int SEQUENCE_BITS = 12;
+
+    // shared by all entities, millisecond timestamp shifted left by the sequence bits plus the sequence
+    private static final AtomicLong LAST_TIMESTAMP_AND_SEQUENCE = new AtomicLong();
+
+    private final boolean random;
+
+    public UuidV7Generator(
+        final UuidV7 config,
+        final Member member,
+        final CustomIdGeneratorCreationContext context
+    )
+    {
+        this.random = "random".equals(context.getServiceRegistry()
+            .requireService(ConfigurationService.class)
+            .getSetting("app.ids.generator", StandardConverters.STRING, "uuid-v7"));
+    }
+
+    public static UUID next()
+    {
+        return next(System.currentTimeMillis());
+    }
+
+    static UUID next(final long currentTimeMillis)
+    {
+        final long now = currentTimeMillis << SEQUENCE_BITS;
+        // an exhausted sequence or a clock going backwards borrows from the following milliseconds
+        final long timestampAndSequence = LAST_TIMESTAMP_AND_SEQUENCE.updateAndGet(last -> Math.max(now, last + 1));
+        final long mostSigBits = timestampAndSequence >>> SEQUENCE_BITS << 16
+            | 0x7000L
+            | timestampAndSequence & 0xFFFL;
+        final long leastSigBits = ThreadLocalRandom.current().nextLong() & 0x3FFF_FFFF_FFFF_FFFFL
+            | 0x8000_0000_0000_0000L;
+        return new UUID(mostSigBits, leastSigBits);
+    }
+
+    @Override
+    public Object generate(
+        final SharedSessionContractImplementor session,
+        final Object owner,
+        final Object currentValue,
+        final EventType eventType
+    )
+    {
+        return this.random ? UUID.randomUUID() : next();
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes()
+    {
+        return EnumSet.of(EventType.INSERT);
+    }
+}
@@ -0,0 +1,53 @@
+package one.microstream.demo.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UuidV7GeneratorTest
+{
+    // later than every other ID generated in this JVM, the sequence is shared by all entities
+    private static final long FUTURE = System.currentTimeMillis() + 3_600_000L;
+
+    @Test
+    void setsVersionAndVariant()
+    {
+        for (int i = 0; i < 10_000; i++)
+        {
+            var id = UuidV7Generator.next();
+            assertEquals(7, id.version());
+            assertEquals(2, id.variant());
+        }
+    }
+
+    @Test
+    void isMonotonicWithinOneMillisecond()
+    {
+        var previous = UuidV7Generator.next(FUTURE);
+        assertTrue(previous.getMostSignificantBits() >>> 16 >= FUTURE);
+        // more IDs than the 12-bit sequence holds, the following milliseconds are borrowed
+        for (int i = 0; i < 10_000; i++)
+        {
+            var id = UuidV7Generator.next(FUTURE);
+            assertTrue(Long.compareUnsigned(previous.getMostSignificantBits(), id.getMostSignificantBits()) < 0);
+            assertEquals(7, id.version());
+            assertEquals(2, id.variant());
+            previous = id;
+        }
+        // the clock going backwards does not break the order either
+        var id = UuidV7Generator.next(FUTURE - 1_000);
+        assertTrue(Long.compareUnsigned(previous.getMostSignificantBits(), id.getMostSignificantBits()) < 0);
+    }
+
+    @Test
+    void isUniqueAcrossThreads()
+    {
+        var ids = ConcurrentHashMap.<UUID>newKeySet();
+        IntStream.range(0, 100_000).parallel().forEach(i -> ids.add(UuidV7Generator.next()));
+        assertEquals(100_000, ids.size());
+    }
+}
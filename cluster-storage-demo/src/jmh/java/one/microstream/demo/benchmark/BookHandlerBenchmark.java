@@ -0,0 +1,236 @@
+package one.microstream.demo.benchmark;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.SequencedMap;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.eclipse.serializer.reference.Lazy;
+import org.eclipse.store.storage.embedded.types.EmbeddedStorage;
+import org.eclipse.store.storage.embedded.types.EmbeddedStorageFoundation;
+import org.eclipse.store.storage.embedded.types.EmbeddedStorageManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import one.microstream.demo.domain.Author;
+import one.microstream.demo.domain.Book;
+import one.microstream.demo.domain.CompressedText;
+import one.microstream.demo.domain.GenreDictionary;
+import one.microstream.demo.persistence.StorageFoundationCustomizer;
+
+/**
+ * Compares storing and loading books with compressed lazy descriptions with the generic type handler of EclipseStore
+ * and with the custom {@link CompressedText} handler registered by {@link StorageFoundationCustomizer}. Books and
+ * authors use the generic record handling in both cases. Every iteration stores all books into an empty storage or
+ * loads all books and their descriptions from a storage filled once per trial. The size of the storage files is
+ * printed when a trial ends.
+ *
+ * <p>
+ * Run with <code>mvn -Pbenchmark test-compile exec:exec</code>.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+public class BookHandlerBenchmark
+{
+    @State(Scope.Benchmark)
+    public static class Books
+    {
+        @Param({"generic", "custom"})
+        public String handlers;
+        @Param("100000")
+        public int count;
+
+        List<Book> books;
+
+        @Setup(Level.Trial)
+        public void generate()
+        {
+            final var random = new Random(42);
+            final var dictionary = new GenreDictionary();
+            final List<String> genres = List.of("crime", "fantasy", "history", "poetry", "romance", "science");
+            genres.forEach(dictionary::add);
+
+            final List<Author> authors = new ArrayList<>();
+            for (int i = 0; i < Math.max(1, this.count / 100); i++)
+            {
+                final Lazy<SequencedMap<UUID, Book>> books = Lazy.Reference(new LinkedHashMap<>());
+                authors.add(new Author(UUID.randomUUID(), i + 1, "Author " + i, "About author " + i, books));
+            }
+
+            this.books = new ArrayList<>(this.count);
+            for (int i = 0; i < this.count; i++)
+            {
+                final Author author = authors.get(random.nextInt(authors.size()));
+                final Book book = new Book(
+                    UUID.randomUUID(),
+                    i + 1,
+                    String.format("%010d", i),
+                    "Title " + i,
+                    CompressedText.compress(("Description of book " + i + ". ").repeat(20)),
+                    true,
+                    1 + random.nextInt(1000),
+                    dictionary.encode(genres.subList(0, 1 + random.nextInt(genres.size()))),
+                    LocalDate.ofEpochDay(random.nextInt(20_000)),
+                    author
+                );
+                author.books().get().put(book.id(), book);
+                this.books.add(book);
+            }
+        }
+
+        EmbeddedStorageManager start(final Path directory)
+        {
+            final EmbeddedStorageFoundation<?> foundation = EmbeddedStorage.Foundation(directory);
+            if ("custom".equals(this.handlers))
+            {
+                StorageFoundationCustomizer.registerTypeHandlers(foundation);
+            }
+            return foundation.start();
+        }
+
+        void store(final Path directory)
+        {
+            try (final EmbeddedStorageManager storage = this.start(directory))
+            {
+                storage.setRoot(new ArrayList<>(this.books));
+                storage.storeRoot();
+            }
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class EmptyStorage
+    {
+        Path directory;
+
+        @Setup(Level.Iteration)
+        public void create() throws IOException
+        {
+            this.directory = Files.createTempDirectory("book-handler-benchmark");
+        }
+
+        @TearDown(Level.Iteration)
+        public void delete()
+        {
+            deleteDirectory(this.directory);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class FilledStorage
+    {
+        Path directory;
+
+        @Setup(Level.Trial)
+        public void fill(final Books books) throws IOException
+        {
+            this.directory = Files.createTempDirectory("book-handler-benchmark");
+            books.store(this.directory);
+        }
+
+        @TearDown(Level.Trial)
+        public void delete(final Books books)
+        {
+            System.out.printf(
+                "%n%d books stored with the %s handlers take %d bytes%n",
+                books.count,
+                books.handlers,
+                directorySize(this.directory)
+            );
+            deleteDirectory(this.directory);
+        }
+    }
+
+    @Benchmark
+    public void store(final Books books, final EmptyStorage storage)
+    {
+        books.store(storage.directory);
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public long load(final Books books, final FilledStorage storage)
+    {
+        try (final EmbeddedStorageManager manager = books.start(storage.directory))
+        {
+            long checksum = 0;
+            for (final Book book : (List<Book>)manager.root())
+            {
+                checksum += book.id().getLeastSignificantBits()
+                    + book.publicationDate().toEpochDay()
+                    + book.title().length()
+                    + book.author().name().length()
+                    + book.description().length();
+            }
+            return checksum;
+        }
+    }
+
+    private static long directorySize(final Path directory)
+    {
+        try (final Stream<Path> files = Files.walk(directory))
+        {
+            return files.filter(Files::isRegularFile).mapToLong(file ->
+            {
+                try
+                {
+                    return Files.size(file);
+                }
+                catch (final IOException e)
+                {
+                    throw new UncheckedIOException(e);
+                }
+            }).sum();
+        }
+        catch (final IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void deleteDirectory(final Path directory)
+    {
+        try (final Stream<Path> files = Files.walk(directory))
+        {
+            files.sorted(Comparator.reverseOrder()).forEach(file ->
+            {
+                try
+                {
+                    Files.delete(file);
+                }
+                catch (final IOException e)
+                {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+        catch (final IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package one.microstream.demo.benchmark;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.eclipse.store.storage.embedded.types.EmbeddedStorage;
+import org.eclipse.store.storage.embedded.types.EmbeddedStorageManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import one.microstream.demo.domain.GenreDictionary;
+import one.microstream.demo.domain.GenreSet;
+
+/**
+ * Measures the heap and the storage size of the genres of many books with three layouts: a {@link HashSet} of names
+ * per book, a {@link GenreSet} per book and one canonical {@link GenreSet} per genre combination, shared by all books
+ * with these genres. Every book gets between one genre and all genres but one, chosen at random like the data
+ * generator chooses them.
+ *
+ * <p>
+ * The heap retained by the genres is printed when a trial is set up, as the used heap after {@link System#gc()}
+ * without the array holding one reference per book. Every iteration stores the genres into an empty storage, and the
+ * size of the storage files is printed after the iteration, again without the array of the books.
+ *
+ * <p>
+ * Run with <code>mvn -Pbenchmark test-compile exec:exec</code>.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-XX:+UseSerialGC")
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@State(Scope.Benchmark)
+public class GenreSetBenchmark
+{
+    @Param({"hashset", "genreset", "canonical"})
+    public String layout;
+    @Param({"10", "20"})
+    public int genres;
+    @Param("1000000")
+    public int count;
+
+    private GenreDictionary dictionary;
+    private Object[] books;
+    private Map<GenreSet, GenreSet> genreSets;
+    private Path directory;
+
+    @Setup(Level.Trial)
+    public void generate()
+    {
+        final long before = usedHeap();
+        this.fill();
+        final long retained = usedHeap() - before - arrayBytes(this.count);
+        System.out.printf(
+            "%n%s with %d genres: %d bytes of heap (%d bytes/book), %d distinct combinations%n",
+            this.layout,
+            this.genres,
+            retained,
+            retained / this.count,
+            this.genreSets.size()
+        );
+    }
+
+    void fill()
+    {
+        final List<String> names = new ArrayList<>(this.genres);
+        for (int i = 0; i < this.genres; i++)
+        {
+            names.add("genre-" + i);
+        }
+        this.dictionary = new GenreDictionary();
+        names.forEach(this.dictionary::add);
+
+        final var random = new Random(42);
+        this.books = new Object[this.count];
+        this.genreSets = new HashMap<>();
+        for (int i = 0; i < this.count; i++)
+        {
+            final List<String> bookGenres = new ArrayList<>(names);
+            final int genreCount = 1 + random.nextInt(this.genres - 1);
+            while (bookGenres.size() > genreCount)
+            {
+                bookGenres.remove(random.nextInt(bookGenres.size()));
+            }
+            this.books[i] = switch (this.layout)
+            {
+                case "hashset" -> new HashSet<>(bookGenres);
+                case "genreset" -> this.dictionary.encode(bookGenres);
+                default ->
+                {
+                    final GenreSet encoded = this.dictionary.encode(bookGenres);
+                    final GenreSet canonical = this.genreSets.putIfAbsent(encoded, encoded);
+                    yield canonical != null ? canonical : encoded;
+                }
+            };
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void createStorage() throws IOException
+    {
+        this.directory = Files.createTempDirectory("genre-set-benchmark");
+    }
+
+    @TearDown(Level.Iteration)
+    public void deleteStorage()
+    {
+        // the root array is stored with a header, the length of its elements, their count and one reference per book
+        final long stored = directorySize(this.directory) - (24L + 16L + 8L * this.count);
+        System.out.printf(
+            "%n%s with %d genres: %d bytes of storage (%d bytes/book)%n",
+            this.layout,
+            this.genres,
+            stored,
+            stored / this.count
+        );
+        deleteDirectory(this.directory);
+    }
+
+    @Benchmark
+    public void store()
+    {
+        try (final EmbeddedStorageManager storage = EmbeddedStorage.Foundation(this.directory).start())
+        {
+            storage.setRoot(new Object[] {this.books, this.dictionary, this.genreSets});
+            storage.storeRoot();
+        }
+    }
+
+    private static long arrayBytes(final int length)
+    {
+        return 16L + 4L * length;
+    }
+
+    private static long usedHeap()
+    {
+        for (int i = 0; i < 5; i++)
+        {
+            System.gc();
+        }
+        final Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static long directorySize(final Path directory)
+    {
+        try (final Stream<Path> files = Files.walk(directory))
+        {
+            return files.filter(Files::isRegularFile).mapToLong(file ->
+            {
+                try
+                {
+                    return Files.size(file);
+                }
+                catch (final IOException e)
+                {
+                    throw new UncheckedIOException(e);
+                }
+            }).sum();
+        }
+        catch (final IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void deleteDirectory(final Path directory)
+    {
+        try (final Stream<Path> files = Files.walk(directory))
+        {
+            files.sorted(Comparator.reverseOrder()).forEach(file ->
+            {
+                try
+                {
+                    Files.delete(file);
+                }
+                catch (final IOException e)
+                {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+        catch (final IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package one.microstream.demo.repository;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.serializer.reference.Lazy;
+import org.eclipse.store.gigamap.types.GigaMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import one.microstream.demo.domain.Author;
+import one.microstream.demo.domain.Book;
+import one.microstream.demo.gigamap.GigaMapBookIndices;
+
+/**
+ * Compares the {@link IdGenerator} implementations selected by <code>app.ids.generator</code>. {@link #insert()} adds
+ * books with IDs of the generator to an empty GigaMap with the ID index of the books, {@link #generate()} measures the
+ * throughput of the generator alone with four threads, as the repositories of several requests call it concurrently.
+ *
+ * <p>
+ * Run with <code>mvn -Pbenchmark test-compile exec:exec</code>.
+ */
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class InsertBenchmark
+{
+    @Param({"uuid-v7", "random"})
+    public String generator;
+    @Param("1000000")
+    public int count;
+
+    private IdGenerator ids;
+    private Author author;
+    private GigaMap<Book> books;
+
+    @Setup(Level.Trial)
+    public void createGenerator()
+    {
+        this.ids = "random".equals(this.generator) ? new RandomIdGenerator() : new UuidV7IdGenerator();
+        this.author = new Author(UUID.randomUUID(), 1, "Author", "About", Lazy.Reference(new LinkedHashMap<>()));
+    }
+
+    @Setup(Level.Iteration)
+    public void createBooks()
+    {
+        this.books = GigaMap.<Book>Builder().withBitmapIdentityIndex(GigaMapBookIndices.ID).build();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public long insert()
+    {
+        for (int i = 0; i < this.count; i++)
+        {
+            this.books.add(new Book(
+                this.ids.next(),
+                i + 1,
+                String.format("%010d", i),
+                "Title " + i,
+                "Description of book " + i,
+                null,
+                100,
+                Set.of(),
+                LocalDate.ofEpochDay(i % 20_000),
+                this.author
+            ));
+        }
+        return this.books.size();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Threads(4)
+    public UUID generate()
+    {
+        return this.ids.next();
+    }
+}
@@ -0,0 +1,132 @@
+package one.microstream.demo.repository;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.eclipse.serializer.reference.Lazy;
+import org.eclipse.store.gigamap.types.GigaMap;
+import org.eclipse.store.gigamap.types.IndexerLong;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import one.microstream.demo.domain.Author;
+import one.microstream.demo.domain.Book;
+import one.microstream.demo.gigamap.GigaMapBookIndices;
+
+/**
+ * Measures the latency of reading one page of books at different depths, with the per-entity sequence index the books
+ * were paged with before and with the sequence block index {@link Paging} uses now. The depth is the sequence number
+ * of the last book of the previous page, <code>0</code> reads the first page.
+ *
+ * <p>
+ * Run with <code>mvn -Pbenchmark test-compile exec:exec</code>.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class PagingBenchmark
+{
+    private static final int PAGE_SIZE = 20;
+
+    private static final IndexerLong<Book> SEQUENCE = new IndexerLong.Abstract<>()
+    {
+        @Override
+        public String name()
+        {
+            return "sequence";
+        }
+
+        @Override
+        protected Long getLong(final Book entity)
+        {
+            return entity.sequence();
+        }
+    };
+
+    @Param({"sequence", "sequenceBlock"})
+    public String index;
+    @Param("1000000")
+    public int count;
+    @Param({"0", "10000", "500000", "990000"})
+    public long depth;
+
+    private GigaMap<Book> books;
+    private String cursor;
+
+    @Setup(Level.Trial)
+    public void fill()
+    {
+        final GigaMap.Builder<Book> builder = GigaMap.<Book>Builder().withBitmapIdentityIndex(GigaMapBookIndices.ID);
+        this.books = ("sequence".equals(this.index)
+            ? builder.withBitmapIndex(SEQUENCE)
+            : builder.withBitmapIndex(GigaMapBookIndices.SEQUENCE_BLOCK)
+        ).build();
+
+        final Author author = new Author(UUID.randomUUID(), 1, "Author", "About", Lazy.Reference(new LinkedHashMap<>()));
+        for (int i = 0; i < this.count; i++)
+        {
+            this.books.add(new Book(
+                UUID.randomUUID(),
+                i + 1,
+                String.format("%010d", i),
+                "Title " + i,
+                "Description of book " + i,
+                null,
+                100,
+                Set.of(),
+                LocalDate.ofEpochDay(i % 20_000),
+                author
+            ));
+        }
+
+        this.cursor = this.depth == 0
+            ? null
+            : Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString(ByteBuffer.allocate(Long.BYTES).putLong(this.depth).array());
+    }
+
+    @Benchmark
+    public List<UUID> page() throws Exception
+    {
+        if ("sequenceBlock".equals(this.index))
+        {
+            return Paging.page(
+                after -> Paging.after(this.books.query(), after).stream(),
+                GigaMapBookIndices.SEQUENCE_BLOCK,
+                Book::sequence,
+                Book::id,
+                this.cursor,
+                PAGE_SIZE
+            ).items();
+        }
+        // the paging before the sequence block index, with a range condition over one key per book
+        try (final Stream<Book> stream = (this.depth == 0
+            ? this.books.query()
+            : this.books.query(SEQUENCE.greaterThan(this.depth))
+        ).stream())
+        {
+            return stream.limit(PAGE_SIZE).map(Book::id).toList();
+        }
+    }
+}
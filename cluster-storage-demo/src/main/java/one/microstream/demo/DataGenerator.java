@@ -2,11 +2,8 @@ package one.microstream.demo;
 
 import net.datafaker.Faker;
 import one.microstream.demo.dto.GenerateData.DataGenerationConfig;
-import one.microstream.demo.dto.GetAuthorById;
 import one.microstream.demo.dto.InsertAuthor;
 import one.microstream.demo.dto.InsertBook;
-import one.microstream.demo.exception.InvalidGenreException;
-import one.microstream.demo.exception.MissingBookException;
 import one.microstream.demo.repository.AuthorRepository;
 import one.microstream.demo.repository.BookRepository;
 import one.microstream.demo.repository.GenreRepository;
@@ -18,10 +15,18 @@ import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.ZoneOffset;
 import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 public class DataGenerator
 {
     private static final Logger LOG = LoggerFactory.getLogger(DataGenerator.class);
+    private static final int CHUNK_SIZE = 5_000;
 
     private final GenreRepository genres;
     private final AuthorRepository authors;
@@ -29,6 +34,7 @@ public class DataGenerator
     private final DataGenerationConfig genreConf;
     private final DataGenerationConfig authorConf;
     private final DataGenerationConfig bookConf;
+    private final Progress progress;
 
     public DataGenerator(
         GenreRepository genres,
@@ -38,6 +44,19 @@ public class DataGenerator
         DataGenerationConfig authorConf,
         DataGenerationConfig bookConf
     )
+    {
+        this(genres, authors, books, genreConf, authorConf, bookConf, Progress.NONE);
+    }
+
+    public DataGenerator(
+        GenreRepository genres,
+        AuthorRepository authors,
+        BookRepository books,
+        DataGenerationConfig genreConf,
+        DataGenerationConfig authorConf,
+        DataGenerationConfig bookConf,
+        Progress progress
+    )
     {
         this.genres = genres;
         this.authors = authors;
@@ -45,8 +64,14 @@ public class DataGenerator
         this.genreConf = genreConf;
         this.authorConf = authorConf;
         this.bookConf = bookConf;
+        this.progress = progress;
     }
 
+    /**
+     * Generates the configured genres, authors and books.
+     *
+     * @throws CancellationException if the progress has been cancelled, all chunks committed before stay stored
+     */
     public void generateData()
     {
         this.generateGenres();
@@ -56,66 +81,105 @@ public class DataGenerator
 
     /**
      * Tries to generate the specified amount of genres. Duplicates will be ignored, this means the resulting set might
-     * contain fewer genres than specified.
+     * contain fewer genres than specified. All genres are inserted and stored at once.
      */
     private void generateGenres()
     {
         final var seed = genreConf.seed();
         LOG.info("Generating {} genres with seed {}", genreConf.count(), seed);
         final var faker = createFaker(seed);
+        final var existingGenres = genres.list();
+        final var newGenres = new LinkedHashSet<String>();
         for (int i = 0; i < genreConf.count(); i++)
         {
-            try
+            int tryCount = 0;
+            for (; tryCount < 10; tryCount++)
             {
-                int tryCount = 0;
-                for (; tryCount < 10; tryCount++)
-                {
-                    try
-                    {
-                        genres.insert(faker.book().genre());
-                        break;
-                    }
-                    catch (final InvalidGenreException ignored)
-                    {
-                        // genre already exists, retry...
-                    }
-                }
-                if (tryCount == 10)
+                final var genre = faker.book().genre();
+                if (!existingGenres.contains(genre) && newGenres.add(genre))
                 {
-                    LOG.error("Failed to generate more genres at iteration {}", i);
                     break;
                 }
+                // genre already exists, retry...
             }
-            catch (InvalidGenreException e)
+            if (tryCount == 10)
             {
-                // ignore duplicates
+                LOG.error("Failed to generate more genres at iteration {}", i);
+                break;
             }
         }
+        genres.insertAll(newGenres);
+        progress.generated(newGenres.size());
     }
 
     private List<UUID> generateAuthors()
     {
         final var seed = authorConf.seed();
         LOG.info("Generating {} authors with seed {}", this.authorConf.count(), seed);
-        final var faker = createFaker(seed);
-        final var authors = new ArrayList<InsertAuthor>(authorConf.count());
-        for (int i = 0; i < authorConf.count(); i++)
-        {
-            authors.add(new InsertAuthor(faker.book().author(), faker.company().catchPhrase(), null));
-        }
-        final var insertedAuthors = this.authors.insert(authors);
-        return insertedAuthors.stream().map(GetAuthorById::id).toList();
+        final var authorIds = new ArrayList<UUID>(authorConf.count());
+        generateInChunks(
+            authorConf.count(),
+            seed,
+            (faker, size) ->
+            {
+                final var chunk = new ArrayList<InsertAuthor>(size);
+                for (int i = 0; i < size; i++)
+                {
+                    chunk.add(new InsertAuthor(faker.book().author(), faker.company().catchPhrase(), null));
+                }
+                return chunk;
+            },
+            chunk ->
+            {
+                this.authors.insert(chunk).forEach(author -> authorIds.add(author.id()));
+                progress.generated(chunk.size());
+                LOG.info("Generated {}/{} authors", authorIds.size(), authorConf.count());
+            }
+        );
+        return authorIds;
     }
 
     private void generateBooks(final List<UUID> authorIds)
     {
         final var seed = bookConf.seed();
         LOG.info("Generating {} books with seed {}", bookConf.count(), seed);
-        final var availableGenres = genres.list();
+        final var availableGenres = List.copyOf(genres.list());
+        if (bookConf.count() > 0 && (availableGenres.isEmpty() || authorIds.isEmpty()))
+        {
+            LOG.error("Failed to generate books, at least one genre and one author are required");
+            return;
+        }
 
-        final var faker = createFaker(seed);
-        final var newBooks = new ArrayList<InsertBook>(bookConf.count());
-        for (int i = 0; i < bookConf.count(); i++)
+        // replaces ISBNs which turn out to exist already, only used by the committing thread
+        final var isbnFaker = createFaker(chunkSeed(seed, -1));
+        final var generated = new AtomicLong();
+        generateInChunks(
+            bookConf.count(),
+            seed,
+            (faker, size) -> generateBookChunk(faker, size, availableGenres, authorIds),
+            chunk ->
+            {
+                this.replaceExistingIsbns(chunk, isbnFaker);
+                this.books.insert(chunk);
+                progress.generated(chunk.size());
+                LOG.info("Generated {}/{} books", generated.addAndGet(chunk.size()), bookConf.count());
+            }
+        );
+    }
+
+    /**
+     * Generates books with ISBNs that are unique within the chunk.
+     */
+    private static List<InsertBook> generateBookChunk(
+        final Faker faker,
+        final int size,
+        final List<String> availableGenres,
+        final List<UUID> authorIds
+    )
+    {
+        final var chunkIsbns = HashSet.<String>newHashSet(size);
+        final var chunk = new ArrayList<InsertBook>(size);
+        for (int i = 0; i < size; i++)
         {
             final var randomGenres = new ArrayList<>(availableGenres);
             final var genreCount = faker.number().numberBetween(1, availableGenres.size());
@@ -125,36 +189,120 @@ public class DataGenerator
                 randomGenres.remove(faker.number().numberBetween(0, randomGenres.size()));
             }
 
-            int tryCount = 0;
-            for (; tryCount < 10; tryCount++)
+            String isbn;
+            do
             {
-                final var newBook = new InsertBook(
-                    faker.code().isbn10(),
+                isbn = faker.code().isbn10();
+            }
+            while (!chunkIsbns.add(isbn));
+
+            chunk.add(
+                new InsertBook(
+                    isbn,
                     faker.book().title(),
                     faker.lorem().sentence(faker.number().numberBetween(50, 100)),
                     faker.number().numberBetween(1, 1000),
                     new HashSet<>(randomGenres),
                     randomDateBetween(faker, LocalDate.of(1900, 1, 1), LocalDate.now().minusDays(1)),
                     authorIds.get(faker.number().numberBetween(0, authorIds.size()))
-                );
-                try
+                )
+            );
+        }
+        return chunk;
+    }
+
+    /**
+     * Replaces every ISBN of the chunk which already belongs to a stored book, including the books of previously
+     * committed chunks. The stored ISBNs are looked up in bulk instead of once per book.
+     */
+    private void replaceExistingIsbns(final List<InsertBook> chunk, final Faker faker)
+    {
+        final var chunkIsbns = chunk.stream().map(InsertBook::isbn).collect(Collectors.toSet());
+        var existing = this.books.existingIsbns(chunkIsbns);
+        while (!existing.isEmpty())
+        {
+            final var replacements = new ArrayList<String>(existing.size());
+            for (int i = 0; i < chunk.size(); i++)
+            {
+                final var book = chunk.get(i);
+                if (!existing.contains(book.isbn()))
                 {
-                    // we expect this to throw as there should not be a book with identical ISBN
-                    this.books.getByISBN(newBook.isbn());
+                    continue;
                 }
-                catch (final MissingBookException ignored)
+                String isbn;
+                do
                 {
-                    newBooks.add(newBook);
-                    break;
+                    isbn = faker.code().isbn10();
                 }
+                while (!chunkIsbns.add(isbn));
+                replacements.add(isbn);
+                chunk.set(
+                    i,
+                    new InsertBook(
+                        isbn,
+                        book.title(),
+                        book.description(),
+                        book.pages(),
+                        book.genres(),
+                        book.publicationDate(),
+                        book.authorId()
+                    )
+                );
             }
-            if (tryCount == 10)
+            existing = this.books.existingIsbns(replacements);
+        }
+    }
+
+    /**
+     * Generates <code>count</code> entities in chunks of {@link #CHUNK_SIZE} on all cores and commits the chunks in
+     * order on the calling thread. Every chunk has its own {@link Faker} with a seed derived from the configured seed
+     * and the chunk index, so the generated data only depends on the seed and not on the amount of cores. Only a
+     * bounded amount of chunks is generated ahead of the committing thread, and every commit acquires the write lock
+     * on its own, so the lock is released between chunks. Cancellation is checked before every commit.
+     */
+    private <T> void generateInChunks(
+        final int count,
+        final Long seed,
+        final BiFunction<Faker, Integer, List<T>> generateChunk,
+        final Consumer<List<T>> commit
+    )
+    {
+        final int chunkCount = (count + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        final int maxChunksAhead = Math.max(2, 2 * ForkJoinPool.getCommonPoolParallelism());
+        final var pending = new ArrayDeque<CompletableFuture<List<T>>>(maxChunksAhead);
+        int nextChunk = 0;
+        try
+        {
+            for (int committed = 0; committed < chunkCount; committed++)
             {
-                LOG.error("Failed to generate more books at iteration {}", i);
-                break;
+                while (nextChunk < chunkCount && pending.size() < maxChunksAhead)
+                {
+                    final int chunk = nextChunk++;
+                    final int size = Math.min(CHUNK_SIZE, count - chunk * CHUNK_SIZE);
+                    pending.add(
+                        CompletableFuture.supplyAsync(
+                            () -> generateChunk.apply(createFaker(chunkSeed(seed, chunk)), size)
+                        )
+                    );
+                }
+                final List<T> generated = pending.remove().join();
+                if (progress.isCancelled())
+                {
+                    throw new CancellationException("Data generation has been cancelled");
+                }
+                commit.accept(generated);
             }
         }
-        this.books.insert(newBooks);
+        finally
+        {
+            pending.forEach(future -> future.cancel(false));
+        }
+    }
+
+    private static Long chunkSeed(final Long seed, final int chunk)
+    {
+        // spread the chunk seeds with the golden ratio increment used by SplittableRandom
+        return seed == null ? null : seed + (chunk + 1) * 0x9E3779B97F4A7C15L;
     }
 
     private static Faker createFaker(Long seed)
@@ -177,4 +325,36 @@ public class DataGenerator
         final Instant between = faker.timeAndDate().between(convertedStart, convertedEnd);
         return LocalDate.ofInstant(between, zone);
     }
+
+    /**
+     * Receives the progress of a data generation and can cancel it.
+     */
+    public interface Progress
+    {
+        Progress NONE = new Progress()
+        {
+            @Override
+            public void generated(final int rows)
+            {
+            }
+
+            @Override
+            public boolean isCancelled()
+            {
+                return false;
+            }
+        };
+
+        /**
+         * Called after rows have been stored.
+         *
+         * @param rows the amount of genres, authors or books stored since the last call
+         */
+        void generated(int rows);
+
+        /**
+         * @return <code>true</code> if the generation should stop before the next chunk is stored
+         */
+        boolean isCancelled();
+    }
 }
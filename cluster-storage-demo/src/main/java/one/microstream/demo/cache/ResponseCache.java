@@ -0,0 +1,176 @@
+package one.microstream.demo.cache;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import io.micronaut.json.JsonMapper;
+import one.microstream.demo.dto.CacheMetrics;
+
+/**
+ * Bounded cache of JSON serialized responses keyed by entity ID, evicting the least recently used responses once the
+ * total size of all cached responses exceeds the maximum size.
+ *
+ * <p>
+ * The repositories invalidate the entries of every entity they modify while holding its write lock. A response is only
+ * cached if no invalidation of its ID happened since it started loading, so a response loaded concurrently to a write
+ * can never replace the invalidation. Invalidations are tracked with versions striped by ID, so only concurrent writes
+ * of IDs in the same stripe prevent caching a response.
+ */
+public class ResponseCache
+{
+    private static final int VERSION_STRIPES = 256;
+
+    private final JsonMapper jsonMapper;
+    private final boolean enabled;
+    private final long maxSize;
+    private final LinkedHashMap<UUID, byte[]> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final AtomicLongArray versions = new AtomicLongArray(VERSION_STRIPES);
+    private long size;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    ResponseCache(final JsonMapper jsonMapper, final boolean enabled, final long maxSize)
+    {
+        this.jsonMapper = jsonMapper;
+        this.enabled = enabled;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Returns the cached response for the ID or loads, serializes and caches it.
+     *
+     * @param id   the ID of the entity
+     * @param load loads the response, may throw if the entity does not exist
+     * @return the JSON serialized response
+     */
+    public byte[] get(final UUID id, final Supplier<?> load)
+    {
+        if (!this.enabled)
+        {
+            return this.serialize(load.get());
+        }
+
+        final byte[] cached;
+        synchronized (this)
+        {
+            cached = this.entries.get(id);
+        }
+        if (cached != null)
+        {
+            this.hits.increment();
+            return cached;
+        }
+
+        this.misses.increment();
+        final int stripe = stripe(id);
+        final long version = this.versions.get(stripe);
+        final byte[] json = this.serialize(load.get());
+        synchronized (this)
+        {
+            if (json.length <= this.maxSize && this.versions.get(stripe) == version)
+            {
+                this.put(id, json);
+            }
+        }
+        return json;
+    }
+
+    /**
+     * Removes the cached response of the entity. Must be called by every write modifying the response of the entity.
+     *
+     * @param id the ID of the modified entity
+     */
+    public void invalidate(final UUID id)
+    {
+        if (!this.enabled)
+        {
+            return;
+        }
+        synchronized (this)
+        {
+            this.versions.incrementAndGet(stripe(id));
+            final byte[] removed = this.entries.remove(id);
+            if (removed != null)
+            {
+                this.size -= removed.length;
+                this.invalidations.increment();
+            }
+        }
+    }
+
+    /**
+     * @param ids the IDs of the modified entities
+     * @see #invalidate(UUID)
+     */
+    public void invalidateAll(final Iterable<UUID> ids)
+    {
+        ids.forEach(this::invalidate);
+    }
+
+    /**
+     * @return the current hit ratio, size and eviction counts
+     */
+    public CacheMetrics metrics()
+    {
+        final long hits = this.hits.sum();
+        final long misses = this.misses.sum();
+        final int entries;
+        final long size;
+        synchronized (this)
+        {
+            entries = this.entries.size();
+            size = this.size;
+        }
+        return new CacheMetrics(
+            this.enabled,
+            hits,
+            misses,
+            hits + misses == 0 ? 0 : (double)hits / (hits + misses),
+            this.evictions.sum(),
+            this.invalidations.sum(),
+            entries,
+            size,
+            this.maxSize
+        );
+    }
+
+    private void put(final UUID id, final byte[] json)
+    {
+        final byte[] replaced = this.entries.put(id, json);
+        this.size += json.length - (replaced == null ? 0 : replaced.length);
+        final Iterator<Map.Entry<UUID, byte[]>> eldest = this.entries.entrySet().iterator();
+        while (this.size > this.maxSize)
+        {
+            this.size -= eldest.next().getValue().length;
+            eldest.remove();
+            this.evictions.increment();
+        }
+    }
+
+    private byte[] serialize(final Object response)
+    {
+        try
+        {
+            return this.jsonMapper.writeValueAsBytes(response);
+        }
+        catch (final IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static int stripe(final UUID id)
+    {
+        return (id.hashCode() & 0x7fffffff) % VERSION_STRIPES;
+    }
+}
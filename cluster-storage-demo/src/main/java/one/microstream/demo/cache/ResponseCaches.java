@@ -0,0 +1,60 @@
+package one.microstream.demo.cache;
+
+import java.util.Map;
+
+import io.micronaut.context.annotation.Value;
+import io.micronaut.core.convert.format.ReadableBytes;
+import io.micronaut.json.JsonMapper;
+import jakarta.inject.Singleton;
+import one.microstream.demo.dto.CacheMetrics;
+
+/**
+ * The caches of the serialized book and author responses.
+ *
+ * <p>
+ * A cached response is dropped once the repositories have committed a change of its book or author. Changes a replica
+ * receives from the message queues never pass a repository, so nothing would drop the affected responses and a lookup
+ * would keep returning the previous state until the entry happens to be evicted by size. Both caches are therefore
+ * created disabled unless <code>app.cache.responses.enabled</code> is set, which only makes sense on the writer node.
+ */
+@Singleton
+public class ResponseCaches
+{
+    private final ResponseCache books;
+    private final ResponseCache authors;
+
+    public ResponseCaches(
+        final JsonMapper jsonMapper,
+        @Value("${app.cache.responses.enabled:false}") final boolean enabled,
+        @Value("${app.cache.responses.book.max-size:32MB}") @ReadableBytes final long bookMaxSize,
+        @Value("${app.cache.responses.author.max-size:64MB}") @ReadableBytes final long authorMaxSize
+    )
+    {
+        this.books = new ResponseCache(jsonMapper, enabled, bookMaxSize);
+        this.authors = new ResponseCache(jsonMapper, enabled, authorMaxSize);
+    }
+
+    /**
+     * @return the cache of the responses of <code>GET /book/id/{id}</code>
+     */
+    public ResponseCache books()
+    {
+        return this.books;
+    }
+
+    /**
+     * @return the cache of the responses of <code>GET /author/id/{id}</code>, which contain the books of the author
+     */
+    public ResponseCache authors()
+    {
+        return this.authors;
+    }
+
+    /**
+     * @return the metrics of every cache
+     */
+    public Map<String, CacheMetrics> metrics()
+    {
+        return Map.of("book", this.books.metrics(), "author", this.authors.metrics());
+    }
+}
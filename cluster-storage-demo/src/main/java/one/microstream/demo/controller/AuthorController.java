@@ -4,9 +4,15 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+
+import org.reactivestreams.Publisher;
 
 import io.micronaut.core.annotation.NonNull;
+import io.micronaut.core.annotation.Nullable;
 import io.micronaut.core.convert.format.Format;
+import io.micronaut.http.HttpResponse;
+import io.micronaut.http.MediaType;
 import io.micronaut.http.annotation.Body;
 import io.micronaut.http.annotation.Controller;
 import io.micronaut.http.annotation.Delete;
@@ -15,22 +21,32 @@ import io.micronaut.http.annotation.PathVariable;
 import io.micronaut.http.annotation.Post;
 import io.micronaut.http.annotation.Put;
 import io.micronaut.http.annotation.QueryValue;
+import io.micronaut.json.JsonMapper;
+import io.micronaut.scheduling.TaskExecutors;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.parameters.RequestBody;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.inject.Named;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Positive;
+import one.microstream.demo.cache.ResponseCaches;
 import one.microstream.demo.dto.GetAuthorById;
 import one.microstream.demo.dto.InsertAuthor;
 import one.microstream.demo.dto.SearchAuthorByName;
 import one.microstream.demo.dto.UpdateAuthor;
+import one.microstream.demo.exception.InvalidCursorException;
 import one.microstream.demo.exception.InvalidGenreException;
 import one.microstream.demo.exception.InvalidIsbnException;
 import one.microstream.demo.exception.MissingAuthorException;
 import one.microstream.demo.repository.AuthorRepository;
+import one.microstream.demo.suggest.SuggestionIndex;
 
 /**
  * {@link Controller} class for finding and modifying authors.
@@ -42,10 +58,21 @@ import one.microstream.demo.repository.AuthorRepository;
 public class AuthorController
 {
     private final AuthorRepository authors;
+    private final ResponseCaches responseCaches;
+    private final JsonMapper jsonMapper;
+    private final ExecutorService executor;
 
-    public AuthorController(final AuthorRepository authors)
+    public AuthorController(
+        final AuthorRepository authors,
+        final ResponseCaches responseCaches,
+        final JsonMapper jsonMapper,
+        @Named(TaskExecutors.IO) final ExecutorService executor
+    )
     {
         this.authors = authors;
+        this.responseCaches = responseCaches;
+        this.jsonMapper = jsonMapper;
+        this.executor = executor;
     }
 
     @Operation(summary = "Insert new authors")
@@ -110,15 +137,19 @@ public class AuthorController
 
     @Operation(summary = "Get an author by ID")
     @Parameter(name = "id", description = "The ID of the author to get.")
-    @ApiResponse(description = "An author with matching ID has been found. Returns the author with matching ID.")
+    @ApiResponse(
+        description = "An author with matching ID has been found. Returns the author with matching ID.",
+        content = @Content(mediaType = MediaType.APPLICATION_JSON, schema = @Schema(implementation = GetAuthorById.class))
+    )
     @ApiResponse(
         responseCode = "404",
         description = "The author could not be found."
     )
-    @Get("/id/{id}")
-    public GetAuthorById getById(@NonNull @PathVariable final UUID id) throws MissingAuthorException
+    @Get(value = "/id/{id}", produces = MediaType.APPLICATION_JSON)
+    public byte[] getById(@NonNull @PathVariable final UUID id) throws MissingAuthorException
     {
-        return this.authors.getById(id);
+        // the serialized response is cached, see ResponseCaches
+        return this.responseCaches.authors().get(id, () -> this.authors.getById(id));
     }
 
     @Operation(summary = "Search for authors by name")
@@ -126,10 +157,62 @@ public class AuthorController
         name = "search",
         description = "The search text to search through the author names. This uses a 'contains'-search ignoring case."
     )
-    @ApiResponse(description = "Returns a list of authors that match the name search query.")
+    @Parameter(
+        name = "cursor",
+        description = "The cursor returned in the '" + PageResponse.NEXT_CURSOR_HEADER + "' header of the previous page."
+    )
+    @Parameter(name = "size", description = "The maximum amount of authors to return.")
+    @ApiResponse(
+        description = "Returns a page of authors that match the name search query. The '"
+            + PageResponse.NEXT_CURSOR_HEADER
+            + "' header contains the cursor for the next page if there are more results."
+    )
+    @ApiResponse(responseCode = "400", description = "The cursor is invalid.")
     @Get("/name")
-    public List<SearchAuthorByName> searchByName(@NonNull @NotBlank @QueryValue final String search)
+    public HttpResponse<List<SearchAuthorByName>> searchByName(
+        @NonNull @NotBlank @QueryValue final String search,
+        @Nullable @QueryValue final String cursor,
+        @Nullable @Positive @Max(AuthorRepository.DEFAULT_PAGE_SIZE) @QueryValue final Integer size
+    )
+        throws InvalidCursorException
+    {
+        return PageResponse.of(
+            this.authors.searchByName(search, cursor, size == null ? AuthorRepository.DEFAULT_PAGE_SIZE : size)
+        );
+    }
+
+    @Operation(summary = "Suggest author names")
+    @Parameter(name = "prefix", description = "The text the names have to start with, ignoring case.")
+    @Parameter(
+        name = "size",
+        description = "The maximum amount of names to return, defaults to "
+            + SuggestionIndex.DEFAULT_SUGGESTION_COUNT
+            + "."
+    )
+    @ApiResponse(description = "Returns the distinct author names starting with the prefix in alphabetical order.")
+    @ApiResponse(responseCode = "503", description = "The suggestions are disabled.")
+    @Get("/suggest")
+    public List<String> suggest(
+        @NonNull @NotBlank @QueryValue final String prefix,
+        @Nullable @Positive @Max(SuggestionIndex.MAX_SUGGESTION_COUNT) @QueryValue final Integer size
+    )
+    {
+        return this.authors.suggestNames(prefix, size == null ? SuggestionIndex.DEFAULT_SUGGESTION_COUNT : size);
+    }
+
+    @Operation(summary = "Stream authors by name")
+    @Parameter(
+        name = "search",
+        description = "The search text to search through the author names. This uses a 'contains'-search ignoring case."
+    )
+    @ApiResponse(description = "Streams every author that matches the name search query as newline delimited JSON.")
+    @Get(value = "/stream/name", produces = NdjsonPublisher.APPLICATION_NDJSON)
+    public Publisher<byte[]> streamByName(@NonNull @NotBlank @QueryValue final String search)
     {
-        return this.authors.searchByName(search);
+        return new NdjsonPublisher<>(
+            (cursor, size) -> this.authors.searchByName(search, cursor, size),
+            this.jsonMapper,
+            this.executor
+        );
     }
 }
@@ -1,11 +1,18 @@
 package one.microstream.demo.controller;
 
+import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import org.reactivestreams.Publisher;
+
 import io.micronaut.core.annotation.NonNull;
+import io.micronaut.core.annotation.Nullable;
 import io.micronaut.core.convert.format.Format;
+import io.micronaut.http.HttpResponse;
+import io.micronaut.http.MediaType;
 import io.micronaut.http.annotation.Body;
 import io.micronaut.http.annotation.Controller;
 import io.micronaut.http.annotation.Delete;
@@ -14,24 +21,41 @@ import io.micronaut.http.annotation.PathVariable;
 import io.micronaut.http.annotation.Post;
 import io.micronaut.http.annotation.Put;
 import io.micronaut.http.annotation.QueryValue;
+import io.micronaut.json.JsonMapper;
+import io.micronaut.scheduling.TaskExecutors;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.parameters.RequestBody;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.inject.Named;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Positive;
+import one.microstream.demo.cache.ResponseCaches;
+import one.microstream.demo.dto.BookFacets;
+import one.microstream.demo.dto.BookQuery;
 import one.microstream.demo.dto.GetBookById;
 import one.microstream.demo.dto.InsertBook;
 import one.microstream.demo.dto.SearchBookByAuthor;
 import one.microstream.demo.dto.SearchBookByGenre;
+import one.microstream.demo.dto.SearchBookByPublication;
+import one.microstream.demo.dto.SearchBookByQuery;
+import one.microstream.demo.dto.SearchBookByText;
 import one.microstream.demo.dto.SearchBookByTitle;
 import one.microstream.demo.dto.UpdateBook;
 import one.microstream.demo.exception.InvalidAuthorException;
+import one.microstream.demo.exception.InvalidCursorException;
 import one.microstream.demo.exception.InvalidGenreException;
 import one.microstream.demo.exception.InvalidIsbnException;
+import one.microstream.demo.exception.InvalidPublicationDateException;
+import one.microstream.demo.exception.InvalidSearchQueryException;
 import one.microstream.demo.repository.BookRepository;
+import one.microstream.demo.suggest.SuggestionIndex;
 
 /**
  * {@link Controller} class for finding and modifying books.
@@ -43,10 +67,21 @@ import one.microstream.demo.repository.BookRepository;
 public class BookController
 {
     private final BookRepository books;
+    private final ResponseCaches responseCaches;
+    private final JsonMapper jsonMapper;
+    private final ExecutorService executor;
 
-    public BookController(final BookRepository books)
+    public BookController(
+        final BookRepository books,
+        final ResponseCaches responseCaches,
+        final JsonMapper jsonMapper,
+        @Named(TaskExecutors.IO) final ExecutorService executor
+    )
     {
         this.books = books;
+        this.responseCaches = responseCaches;
+        this.jsonMapper = jsonMapper;
+        this.executor = executor;
     }
 
     @Operation(summary = "Insert new books")
@@ -66,12 +101,17 @@ public class BookController
     @Parameter(name = "id", description = "The ID of the book to update.")
     @RequestBody(description = "The updated fields of the book.")
     @ApiResponse(description = "The book has been updated.")
+    @ApiResponse(
+        responseCode = "400",
+        description = "The new ISBN already belongs to another book or a genre does not exist."
+    )
     @ApiResponse(
         responseCode = "404",
         description = "The book could not be found."
     )
     @Put("/{id}")
     public void update(@NonNull @PathVariable final UUID id, @NonNull @Valid @Body final UpdateBook update)
+        throws InvalidIsbnException, InvalidGenreException
     {
         this.books.update(id, update);
     }
@@ -104,15 +144,19 @@ public class BookController
 
     @Operation(summary = "Get a book by ID")
     @Parameter(name = "id", description = "The id of the book to get.")
-    @ApiResponse(description = "A book with matching id has been found. Returns the book with matching ID.")
+    @ApiResponse(
+        description = "A book with matching id has been found. Returns the book with matching ID.",
+        content = @Content(mediaType = MediaType.APPLICATION_JSON, schema = @Schema(implementation = GetBookById.class))
+    )
     @ApiResponse(
         responseCode = "404",
         description = "The book could not be found."
     )
-    @Get("/id/{id}")
-    public GetBookById getById(@NonNull @PathVariable final UUID id)
+    @Get(value = "/id/{id}", produces = MediaType.APPLICATION_JSON)
+    public byte[] getById(@NonNull @PathVariable final UUID id)
     {
-        return this.books.getById(id);
+        // the serialized response is cached, see ResponseCaches
+        return this.responseCaches.books().get(id, () -> this.books.getById(id));
     }
 
     @Operation(summary = "Get a book by ISBN")
@@ -130,11 +174,29 @@ public class BookController
 
     @Operation(summary = "Search for books by author")
     @Parameter(name = "id", description = "The ID of the author.")
-    @ApiResponse(description = "Returns a list of books from the specified author.")
+    @Parameter(
+        name = "cursor",
+        description = "The cursor returned in the '"
+            + PageResponse.NEXT_CURSOR_HEADER
+            + "' header of the previous page or the 'nextBooksCursor' of the author."
+    )
+    @Parameter(name = "size", description = "The maximum amount of books to return.")
+    @ApiResponse(
+        description = "Returns a page of books from the specified author. The '"
+            + PageResponse.NEXT_CURSOR_HEADER
+            + "' header contains the cursor for the next page if there are more results."
+    )
+    @ApiResponse(responseCode = "400", description = "The cursor is invalid.")
+    @ApiResponse(responseCode = "404", description = "The author could not be found.")
     @Get("/author/{id}")
-    public List<SearchBookByAuthor> searchByAuthor(@NonNull @PathVariable final UUID id)
+    public HttpResponse<List<SearchBookByAuthor>> searchByAuthor(
+        @NonNull @PathVariable final UUID id,
+        @Nullable @QueryValue final String cursor,
+        @Nullable @Positive @Max(BookRepository.DEFAULT_PAGE_SIZE) @QueryValue final Integer size
+    )
+        throws InvalidCursorException
     {
-        return this.books.searchByAuthor(id);
+        return PageResponse.of(this.books.searchByAuthor(id, cursor, pageSize(size)));
     }
 
     @Operation(summary = "Search for books by title")
@@ -142,11 +204,26 @@ public class BookController
         name = "search",
         description = "The search text to search through the book titles. This uses a '*SEARCH-TEXT*' wildcard query."
     )
-    @ApiResponse(description = "Returns a list of books that match the title search query.")
+    @Parameter(
+        name = "cursor",
+        description = "The cursor returned in the '" + PageResponse.NEXT_CURSOR_HEADER + "' header of the previous page."
+    )
+    @Parameter(name = "size", description = "The maximum amount of books to return.")
+    @ApiResponse(
+        description = "Returns a page of books that match the title search query. The '"
+            + PageResponse.NEXT_CURSOR_HEADER
+            + "' header contains the cursor for the next page if there are more results."
+    )
+    @ApiResponse(responseCode = "400", description = "The cursor is invalid.")
     @Get("/title")
-    public List<SearchBookByTitle> searchByTitle(@NonNull @NotBlank @QueryValue final String search)
+    public HttpResponse<List<SearchBookByTitle>> searchByTitle(
+        @NonNull @NotBlank @QueryValue final String search,
+        @Nullable @QueryValue final String cursor,
+        @Nullable @Positive @Max(BookRepository.DEFAULT_PAGE_SIZE) @QueryValue final Integer size
+    )
+        throws InvalidCursorException
     {
-        return this.books.searchByTitle(search);
+        return PageResponse.of(this.books.searchByTitle(search, cursor, pageSize(size)));
     }
 
     @Operation(summary = "Search for books by genre")
@@ -154,16 +231,331 @@ public class BookController
         name = "genres",
         description = "Comma-separated list (csv) of genres. Every searched book must contain all the specified genres."
     )
-    @ApiResponse(description = "Returns a list of books that match the genre search query.")
+    @Parameter(
+        name = "cursor",
+        description = "The cursor returned in the '" + PageResponse.NEXT_CURSOR_HEADER + "' header of the previous page."
+    )
+    @Parameter(name = "size", description = "The maximum amount of books to return.")
+    @ApiResponse(
+        description = "Returns a page of books that match the genre search query. The '"
+            + PageResponse.NEXT_CURSOR_HEADER
+            + "' header contains the cursor for the next page if there are more results."
+    )
+    @ApiResponse(responseCode = "400", description = "The cursor is invalid.")
     @Get("/genre")
-    public List<SearchBookByGenre> searchByGenre(
-        @NonNull @NotBlank @QueryValue final String genres
+    public HttpResponse<List<SearchBookByGenre>> searchByGenre(
+        @NonNull @NotBlank @QueryValue final String genres,
+        @Nullable @QueryValue final String cursor,
+        @Nullable @Positive @Max(BookRepository.DEFAULT_PAGE_SIZE) @QueryValue final Integer size
+    )
+        throws InvalidCursorException
+    {
+        return PageResponse.of(this.books.searchByGenre(splitGenres(genres), cursor, pageSize(size)));
+    }
+
+    @Operation(summary = "Search for books by publication date")
+    @Parameter(
+        name = "from",
+        description = "The start of the publication date range (inclusive). Accepts a year 'yyyy', a month 'yyyy-MM' or "
+            + "a day 'yyyy-MM-dd', a year or month starts at its first day."
+    )
+    @Parameter(
+        name = "to",
+        description = "The end of the publication date range (inclusive). Accepts a year 'yyyy', a month 'yyyy-MM' or "
+            + "a day 'yyyy-MM-dd', a year or month ends at its last day."
+    )
+    @Parameter(
+        name = "genres",
+        description = "Optional comma-separated list (csv) of genres. Every searched book must contain all the "
+            + "specified genres."
+    )
+    @Parameter(
+        name = "cursor",
+        description = "The cursor returned in the '" + PageResponse.NEXT_CURSOR_HEADER + "' header of the previous page."
+    )
+    @Parameter(name = "size", description = "The maximum amount of books to return.")
+    @ApiResponse(
+        description = "Returns a page of books published within the range. The '"
+            + PageResponse.NEXT_CURSOR_HEADER
+            + "' header contains the cursor for the next page if there are more results."
+    )
+    @ApiResponse(
+        responseCode = "400",
+        description = "A date is malformed, the range is empty or the cursor is invalid."
+    )
+    @Get("/published")
+    public HttpResponse<List<SearchBookByPublication>> searchByPublication(
+        @Nullable @QueryValue final String from,
+        @Nullable @QueryValue final String to,
+        @Nullable @QueryValue final String genres,
+        @Nullable @QueryValue final String cursor,
+        @Nullable @Positive @Max(BookRepository.DEFAULT_PAGE_SIZE) @QueryValue final Integer size
+    )
+        throws InvalidPublicationDateException,
+        InvalidCursorException
+    {
+        if (from == null && to == null)
+        {
+            throw new InvalidPublicationDateException("At least one of 'from' and 'to' has to be specified");
+        }
+        final LocalDate start = from == null ? null : PublicationDates.start(from);
+        final LocalDate end = to == null ? null : PublicationDates.end(to);
+        if (start != null && end != null && start.isAfter(end))
+        {
+            throw InvalidPublicationDateException.emptyRange(from, to);
+        }
+        final Set<String> genresSet = genres == null ? Set.of() : splitGenres(genres);
+        return PageResponse.of(this.books.searchByPublication(start, end, genresSet, cursor, pageSize(size)));
+    }
+
+    @Operation(summary = "Search for books by multiple criteria")
+    @Parameter(name = "title", description = "Text the book title has to contain, ignoring case.")
+    @Parameter(name = "genres", description = "Comma-separated list (csv) of genres.")
+    @Parameter(
+        name = "genreMatch",
+        description = "Whether a book has to contain ALL (default) or ANY of the specified genres."
+    )
+    @Parameter(
+        name = "from",
+        description = "The start of the publication date range (inclusive) as 'yyyy', 'yyyy-MM' or 'yyyy-MM-dd'."
+    )
+    @Parameter(
+        name = "to",
+        description = "The end of the publication date range (inclusive) as 'yyyy', 'yyyy-MM' or 'yyyy-MM-dd'."
+    )
+    @Parameter(name = "isbn", description = "The ISBN of the book.")
+    @Parameter(name = "author", description = "The ID of the author of the book.")
+    @Parameter(
+        name = "cursor",
+        description = "The cursor returned in the '" + PageResponse.NEXT_CURSOR_HEADER + "' header of the previous page."
+    )
+    @Parameter(name = "size", description = "The maximum amount of books to return.")
+    @ApiResponse(
+        description = "Returns a page of books matching all the specified criteria. The '"
+            + PageResponse.NEXT_CURSOR_HEADER
+            + "' header contains the cursor for the next page if there are more results."
+    )
+    @ApiResponse(
+        responseCode = "400",
+        description = "A date is malformed, the range is empty or the cursor is invalid."
+    )
+    @Get("/query")
+    public HttpResponse<List<SearchBookByQuery>> query(
+        @Nullable @QueryValue final String title,
+        @Nullable @QueryValue final String genres,
+        @Nullable @QueryValue final BookQuery.GenreMatch genreMatch,
+        @Nullable @QueryValue final String from,
+        @Nullable @QueryValue final String to,
+        @Nullable @QueryValue final String isbn,
+        @Nullable @QueryValue final UUID author,
+        @Nullable @QueryValue final String cursor,
+        @Nullable @Positive @Max(BookRepository.DEFAULT_PAGE_SIZE) @QueryValue final Integer size
+    )
+        throws InvalidPublicationDateException,
+        InvalidCursorException
+    {
+        final var query = toQuery(title, genres, genreMatch, from, to, isbn, author);
+        return PageResponse.of(this.books.query(query, cursor, pageSize(size)));
+    }
+
+    @Operation(summary = "Count books by multiple criteria")
+    @Parameter(name = "title", description = "Text the book title has to contain, ignoring case.")
+    @Parameter(name = "genres", description = "Comma-separated list (csv) of genres.")
+    @Parameter(
+        name = "genreMatch",
+        description = "Whether a book has to contain ALL (default) or ANY of the specified genres."
+    )
+    @Parameter(
+        name = "from",
+        description = "The start of the publication date range (inclusive) as 'yyyy', 'yyyy-MM' or 'yyyy-MM-dd'."
+    )
+    @Parameter(
+        name = "to",
+        description = "The end of the publication date range (inclusive) as 'yyyy', 'yyyy-MM' or 'yyyy-MM-dd'."
+    )
+    @Parameter(name = "isbn", description = "The ISBN of the book.")
+    @Parameter(name = "author", description = "The ID of the author of the book.")
+    @ApiResponse(description = "Returns the amount of books matching all the specified criteria.")
+    @ApiResponse(responseCode = "400", description = "A date is malformed or the range is empty.")
+    @Get("/query/count")
+    public long count(
+        @Nullable @QueryValue final String title,
+        @Nullable @QueryValue final String genres,
+        @Nullable @QueryValue final BookQuery.GenreMatch genreMatch,
+        @Nullable @QueryValue final String from,
+        @Nullable @QueryValue final String to,
+        @Nullable @QueryValue final String isbn,
+        @Nullable @QueryValue final UUID author
+    )
+        throws InvalidPublicationDateException
+    {
+        return this.books.count(toQuery(title, genres, genreMatch, from, to, isbn, author));
+    }
+
+    @Operation(summary = "Count books by multiple criteria per genre and publication year")
+    @Parameter(name = "title", description = "Text the book title has to contain, ignoring case.")
+    @Parameter(name = "genres", description = "Comma-separated list (csv) of genres.")
+    @Parameter(
+        name = "genreMatch",
+        description = "Whether a book has to contain ALL (default) or ANY of the specified genres."
+    )
+    @Parameter(
+        name = "from",
+        description = "The start of the publication date range (inclusive) as 'yyyy', 'yyyy-MM' or 'yyyy-MM-dd'."
+    )
+    @Parameter(
+        name = "to",
+        description = "The end of the publication date range (inclusive) as 'yyyy', 'yyyy-MM' or 'yyyy-MM-dd'."
+    )
+    @Parameter(name = "isbn", description = "The ISBN of the book.")
+    @Parameter(name = "author", description = "The ID of the author of the book.")
+    @ApiResponse(
+        description = "Returns the amount of books matching all the specified criteria in total, per genre and per "
+            + "publication year."
     )
+    @ApiResponse(responseCode = "400", description = "A date is malformed or the range is empty.")
+    @Get("/query/facets")
+    public BookFacets facets(
+        @Nullable @QueryValue final String title,
+        @Nullable @QueryValue final String genres,
+        @Nullable @QueryValue final BookQuery.GenreMatch genreMatch,
+        @Nullable @QueryValue final String from,
+        @Nullable @QueryValue final String to,
+        @Nullable @QueryValue final String isbn,
+        @Nullable @QueryValue final UUID author
+    )
+        throws InvalidPublicationDateException
+    {
+        return this.books.facets(toQuery(title, genres, genreMatch, from, to, isbn, author));
+    }
+
+    @Operation(summary = "Full-text search for books")
+    @Parameter(
+        name = "query",
+        description = "The full-text query to search the book titles and descriptions with. Supports the Lucene query "
+            + "syntax, e.g. 'dragon AND (fire OR ice)'."
+    )
+    @Parameter(name = "size", description = "The maximum amount of books to return.")
+    @ApiResponse(description = "Returns the books that match the query, ordered by descending relevance.")
+    @ApiResponse(responseCode = "400", description = "The query is invalid.")
+    @ApiResponse(responseCode = "503", description = "The full-text search is disabled.")
+    @Get("/search")
+    public List<SearchBookByText> searchByText(
+        @NonNull @NotBlank @QueryValue final String query,
+        @Nullable @Positive @Max(BookRepository.DEFAULT_PAGE_SIZE) @QueryValue final Integer size
+    )
+        throws InvalidSearchQueryException
+    {
+        return this.books.searchByText(query, pageSize(size));
+    }
+
+    @Operation(summary = "Suggest book titles")
+    @Parameter(name = "prefix", description = "The text the titles have to start with, ignoring case.")
+    @Parameter(
+        name = "size",
+        description = "The maximum amount of titles to return, defaults to "
+            + SuggestionIndex.DEFAULT_SUGGESTION_COUNT
+            + "."
+    )
+    @ApiResponse(description = "Returns the distinct titles starting with the prefix in alphabetical order.")
+    @ApiResponse(responseCode = "503", description = "The suggestions are disabled.")
+    @Get("/suggest")
+    public List<String> suggest(
+        @NonNull @NotBlank @QueryValue final String prefix,
+        @Nullable @Positive @Max(SuggestionIndex.MAX_SUGGESTION_COUNT) @QueryValue final Integer size
+    )
+    {
+        return this.books.suggestTitles(prefix, size == null ? SuggestionIndex.DEFAULT_SUGGESTION_COUNT : size);
+    }
+
+    @Operation(summary = "Stream books by author")
+    @Parameter(name = "id", description = "The ID of the author.")
+    @ApiResponse(description = "Streams every book from the specified author as newline delimited JSON.")
+    @ApiResponse(
+        responseCode = "404",
+        description = "The author could not be found."
+    )
+    @Get(value = "/stream/author/{id}", produces = NdjsonPublisher.APPLICATION_NDJSON)
+    public Publisher<byte[]> streamByAuthor(@NonNull @PathVariable final UUID id)
+    {
+        return new NdjsonPublisher<>(
+            (cursor, size) -> this.books.searchByAuthor(id, cursor, size),
+            this.jsonMapper,
+            this.executor
+        );
+    }
+
+    @Operation(summary = "Stream books by title")
+    @Parameter(
+        name = "search",
+        description = "The search text to search through the book titles. This uses a '*SEARCH-TEXT*' wildcard query."
+    )
+    @ApiResponse(description = "Streams every book that matches the title search query as newline delimited JSON.")
+    @Get(value = "/stream/title", produces = NdjsonPublisher.APPLICATION_NDJSON)
+    public Publisher<byte[]> streamByTitle(@NonNull @NotBlank @QueryValue final String search)
+    {
+        return new NdjsonPublisher<>(
+            (cursor, size) -> this.books.searchByTitle(search, cursor, size),
+            this.jsonMapper,
+            this.executor
+        );
+    }
+
+    @Operation(summary = "Stream books by genre")
+    @Parameter(
+        name = "genres",
+        description = "Comma-separated list (csv) of genres. Every searched book must contain all the specified genres."
+    )
+    @ApiResponse(description = "Streams every book that matches the genre search query as newline delimited JSON.")
+    @Get(value = "/stream/genre", produces = NdjsonPublisher.APPLICATION_NDJSON)
+    public Publisher<byte[]> streamByGenre(@NonNull @NotBlank @QueryValue final String genres)
+    {
+        final Set<String> genresSet = splitGenres(genres);
+        return new NdjsonPublisher<>(
+            (cursor, size) -> this.books.searchByGenre(genresSet, cursor, size),
+            this.jsonMapper,
+            this.executor
+        );
+    }
+
+    private static BookQuery toQuery(
+        final String title,
+        final String genres,
+        final BookQuery.GenreMatch genreMatch,
+        final String from,
+        final String to,
+        final String isbn,
+        final UUID author
+    )
+        throws InvalidPublicationDateException
+    {
+        final LocalDate start = from == null ? null : PublicationDates.start(from);
+        final LocalDate end = to == null ? null : PublicationDates.end(to);
+        if (start != null && end != null && start.isAfter(end))
+        {
+            throw InvalidPublicationDateException.emptyRange(from, to);
+        }
+        return new BookQuery(
+            title,
+            genres == null ? null : splitGenres(genres),
+            genreMatch == null ? BookQuery.GenreMatch.ALL : genreMatch,
+            start,
+            end,
+            isbn,
+            author
+        );
+    }
+
+    private static Set<String> splitGenres(final String genres)
     {
         // @Format("csv") doesn't seem to work for single values so we split ourselves
-        final Set<String> genresSet = Stream.of(genres.split(","))
+        return Stream.of(genres.split(","))
             .filter(s -> !s.isBlank())
             .collect(Collectors.toUnmodifiableSet());
-        return this.books.searchByGenre(genresSet);
+    }
+
+    private static int pageSize(final Integer size)
+    {
+        return size == null ? BookRepository.DEFAULT_PAGE_SIZE : size;
     }
 }
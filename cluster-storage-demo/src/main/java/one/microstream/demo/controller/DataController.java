@@ -1,19 +1,26 @@
 package one.microstream.demo.controller;
 
+import java.util.UUID;
+
 import io.micronaut.core.annotation.NonNull;
+import io.micronaut.http.HttpResponse;
 import io.micronaut.http.annotation.Body;
 import io.micronaut.http.annotation.Controller;
+import io.micronaut.http.annotation.Delete;
+import io.micronaut.http.annotation.Get;
+import io.micronaut.http.annotation.PathVariable;
 import io.micronaut.http.annotation.Post;
+import io.micronaut.http.uri.UriBuilder;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.parameters.RequestBody;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
-import one.microstream.demo.DataGenerator;
 import one.microstream.demo.dto.GenerateData;
-import one.microstream.demo.repository.AuthorRepository;
-import one.microstream.demo.repository.BookRepository;
-import one.microstream.demo.repository.GenreRepository;
+import one.microstream.demo.dto.GetDataGenerationJob;
+import one.microstream.demo.exception.MissingDataGenerationJobException;
+import one.microstream.demo.job.DataGenerationJobs;
 
 /**
  * {@link Controller} class for generating data.
@@ -22,35 +29,47 @@ import one.microstream.demo.repository.GenreRepository;
 @Controller("/data")
 public class DataController
 {
-    private final GenreRepository genres;
-    private final AuthorRepository authors;
-    private final BookRepository books;
+    private final DataGenerationJobs jobs;
 
-    public DataController(
-        GenreRepository genres,
-        AuthorRepository authors,
-        BookRepository books
-    )
+    public DataController(DataGenerationJobs jobs)
     {
-        this.genres = genres;
-        this.authors = authors;
-        this.books = books;
+        this.jobs = jobs;
     }
 
     @Operation(summary = "Generate new data")
     @RequestBody(description = "The data generation configuration.")
-    @ApiResponse(description = "The data has been generated.")
+    @ApiResponse(
+        responseCode = "202",
+        description = "The data generation has been started in the background. Returns the job, the 'Location' "
+            + "header points to its progress."
+    )
     @Post("/generate")
-    public void generateData(@NonNull @Valid @Body GenerateData config)
+    public HttpResponse<GetDataGenerationJob> generateData(@NonNull @Valid @Body GenerateData config)
+    {
+        final var job = this.jobs.start(config);
+        return HttpResponse.accepted(UriBuilder.of("/data/jobs").path(job.id().toString()).build()).body(job);
+    }
+
+    @Operation(summary = "Get the progress of a data generation")
+    @Parameter(name = "id", description = "The ID of the data generation job.")
+    @ApiResponse(description = "Returns the status, generated rows, rows per second and estimated remaining time.")
+    @ApiResponse(responseCode = "404", description = "The job could not be found.")
+    @Get("/jobs/{id}")
+    public GetDataGenerationJob getJob(@NonNull @PathVariable final UUID id) throws MissingDataGenerationJobException
+    {
+        return this.jobs.get(id);
+    }
+
+    @Operation(summary = "Cancel a data generation")
+    @Parameter(name = "id", description = "The ID of the data generation job.")
+    @ApiResponse(
+        description = "The job stops before storing its next chunk, all data stored before is kept. Returns the job."
+    )
+    @ApiResponse(responseCode = "404", description = "The job could not be found.")
+    @Delete("/jobs/{id}")
+    public GetDataGenerationJob cancelJob(@NonNull @PathVariable final UUID id)
+        throws MissingDataGenerationJobException
     {
-        var generator = new DataGenerator(
-            genres,
-            authors,
-            books,
-            config.genreConf(),
-            config.authorConf(),
-            config.bookConf()
-        );
-        generator.generateData();
+        return this.jobs.cancel(id);
     }
 }
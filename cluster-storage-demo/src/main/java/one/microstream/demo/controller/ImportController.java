@@ -0,0 +1,92 @@
+package one.microstream.demo.controller;
+
+import java.io.InputStream;
+
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.http.HttpHeaders;
+import io.micronaut.http.MediaType;
+import io.micronaut.http.annotation.Body;
+import io.micronaut.http.annotation.Controller;
+import io.micronaut.http.annotation.Header;
+import io.micronaut.http.annotation.Post;
+import io.micronaut.http.annotation.QueryValue;
+import io.micronaut.scheduling.TaskExecutors;
+import io.micronaut.scheduling.annotation.ExecuteOn;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.parameters.RequestBody;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Positive;
+import one.microstream.demo.dto.ImportResult;
+import one.microstream.demo.exception.InvalidImportException;
+import one.microstream.demo.importer.ChunkedImporter;
+import one.microstream.demo.importer.ImportFormat;
+
+/**
+ * {@link Controller} class for bulk importing books and authors.
+ *
+ * @see ChunkedImporter
+ */
+@Tag(name = "Import", description = "Endpoints for bulk importing books and authors from NDJSON or CSV.")
+@Controller("/import")
+@ExecuteOn(TaskExecutors.BLOCKING)
+public class ImportController
+{
+    private final ChunkedImporter importer;
+
+    public ImportController(final ChunkedImporter importer)
+    {
+        this.importer = importer;
+    }
+
+    @Operation(summary = "Import books")
+    @RequestBody(
+        description = "The books as NDJSON or as CSV with the header "
+            + "'isbn,title,description,pages,genres,publicationDate,authorId' and genres separated by ';'."
+    )
+    @Parameter(name = "chunkSize", description = "The amount of books inserted and stored at once.")
+    @ApiResponse(description = "All books have been imported. Returns the progress of every chunk.")
+    @ApiResponse(
+        responseCode = "400",
+        description = "A book is invalid. All chunks before the one containing the invalid book have been imported."
+    )
+    @Post(value = "/books", consumes = {ImportFormat.APPLICATION_NDJSON, MediaType.TEXT_CSV})
+    public ImportResult importBooks(
+        @Header(HttpHeaders.CONTENT_TYPE) final String contentType,
+        @Body final InputStream body,
+        @Nullable @Positive @Max(ChunkedImporter.MAX_CHUNK_SIZE) @QueryValue final Integer chunkSize
+    )
+        throws InvalidImportException
+    {
+        return this.importer.importBooks(body, ImportFormat.of(contentType), this.chunkSize(chunkSize));
+    }
+
+    @Operation(summary = "Import authors")
+    @RequestBody(
+        description = "The authors as NDJSON, optionally with their books, or as CSV with the header 'name,about'."
+    )
+    @Parameter(name = "chunkSize", description = "The amount of authors inserted and stored at once.")
+    @ApiResponse(description = "All authors have been imported. Returns the progress of every chunk.")
+    @ApiResponse(
+        responseCode = "400",
+        description = "An author is invalid. All chunks before the one containing the invalid author have been "
+            + "imported."
+    )
+    @Post(value = "/authors", consumes = {ImportFormat.APPLICATION_NDJSON, MediaType.TEXT_CSV})
+    public ImportResult importAuthors(
+        @Header(HttpHeaders.CONTENT_TYPE) final String contentType,
+        @Body final InputStream body,
+        @Nullable @Positive @Max(ChunkedImporter.MAX_CHUNK_SIZE) @QueryValue final Integer chunkSize
+    )
+        throws InvalidImportException
+    {
+        return this.importer.importAuthors(body, ImportFormat.of(contentType), this.chunkSize(chunkSize));
+    }
+
+    private int chunkSize(final Integer chunkSize)
+    {
+        return chunkSize == null ? this.importer.defaultChunkSize() : chunkSize;
+    }
+}
@@ -0,0 +1,166 @@
+package one.microstream.demo.controller;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import io.micronaut.json.JsonMapper;
+import one.microstream.demo.dto.Page;
+
+/**
+ * Streams the results of a paged search as newline delimited JSON. Every requested element is one line containing one
+ * result. The results are read in batches of {@link #CHUNK_SIZE}, independent of how many elements the subscriber
+ * requests at once. Every batch is one page read under the read lock, which continues the query right after the
+ * previous batch, and is buffered until the subscriber requested all its lines. So a batch is only read when the
+ * client is ready to receive more results, the whole stream is read in linear time with one query per batch and no
+ * lock is held while the lines are written. Cancelling the subscription, for example because the client disconnected,
+ * stops reading further batches.
+ */
+final class NdjsonPublisher<T> implements Publisher<byte[]>
+{
+    static final String APPLICATION_NDJSON = "application/x-ndjson";
+    static final int CHUNK_SIZE = 256;
+
+    private final BiFunction<String, Integer, Page<T>> pages;
+    private final JsonMapper jsonMapper;
+    private final Executor executor;
+
+    /**
+     * @param pages      returns the page for the specified cursor and page size, the first page is requested with
+     *                   <code>null</code>
+     * @param jsonMapper the mapper used to serialize the results
+     * @param executor   the executor the pages are read on, as reading a page may block
+     */
+    NdjsonPublisher(
+        final BiFunction<String, Integer, Page<T>> pages,
+        final JsonMapper jsonMapper,
+        final Executor executor
+    )
+    {
+        this.pages = pages;
+        this.jsonMapper = jsonMapper;
+        this.executor = executor;
+    }
+
+    @Override
+    public void subscribe(final Subscriber<? super byte[]> subscriber)
+    {
+        subscriber.onSubscribe(new PageSubscription(subscriber));
+    }
+
+    private byte[] encode(final T item) throws IOException
+    {
+        final byte[] json = this.jsonMapper.writeValueAsBytes(item);
+        final byte[] line = new byte[json.length + 1];
+        System.arraycopy(json, 0, line, 0, json.length);
+        line[json.length] = '\n';
+        return line;
+    }
+
+    private final class PageSubscription implements Subscription
+    {
+        private final Subscriber<? super byte[]> subscriber;
+        private final AtomicLong requested = new AtomicLong();
+        private final AtomicInteger wip = new AtomicInteger();
+        private volatile boolean cancelled;
+        private volatile Throwable error;
+        // only accessed from the draining thread
+        private String cursor;
+        // the buffered results of the last read page
+        private Iterator<T> batch;
+        private boolean done;
+
+        PageSubscription(final Subscriber<? super byte[]> subscriber)
+        {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(final long n)
+        {
+            if (n <= 0)
+            {
+                this.error = new IllegalArgumentException("Requested amount must be positive but was " + n);
+            }
+            else
+            {
+                this.requested.accumulateAndGet(n, (current, add) -> current + add < 0 ? Long.MAX_VALUE : current + add);
+            }
+            NdjsonPublisher.this.executor.execute(this::drain);
+        }
+
+        @Override
+        public void cancel()
+        {
+            this.cancelled = true;
+        }
+
+        private void drain()
+        {
+            if (this.wip.getAndIncrement() != 0)
+            {
+                return;
+            }
+            do
+            {
+                while (!this.cancelled && !this.done)
+                {
+                    if (this.error != null)
+                    {
+                        this.cancelled = true;
+                        this.subscriber.onError(this.error);
+                        return;
+                    }
+                    if (this.requested.get() == 0)
+                    {
+                        break;
+                    }
+
+                    final byte[] line;
+                    try
+                    {
+                        if (this.batch == null || !this.batch.hasNext())
+                        {
+                            final Page<T> page = NdjsonPublisher.this.pages.apply(this.cursor, CHUNK_SIZE);
+                            this.cursor = page.nextCursor();
+                            this.batch = page.items().iterator();
+                        }
+                        line = this.batch.hasNext() ? NdjsonPublisher.this.encode(this.batch.next()) : null;
+                        this.done = this.cursor == null && !this.batch.hasNext();
+                    }
+                    catch (final IOException e)
+                    {
+                        this.cancelled = true;
+                        this.subscriber.onError(new UncheckedIOException(e));
+                        return;
+                    }
+                    catch (final RuntimeException e)
+                    {
+                        this.cancelled = true;
+                        this.subscriber.onError(e);
+                        return;
+                    }
+
+                    if (line != null)
+                    {
+                        this.requested.decrementAndGet();
+                        this.subscriber.onNext(line);
+                    }
+                    if (this.done && !this.cancelled)
+                    {
+                        this.subscriber.onComplete();
+                    }
+                }
+            }
+            while (this.wip.decrementAndGet() != 0);
+        }
+    }
+}
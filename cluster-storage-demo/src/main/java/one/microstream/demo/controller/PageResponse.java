@@ -0,0 +1,29 @@
+package one.microstream.demo.controller;
+
+import java.util.List;
+
+import io.micronaut.http.HttpResponse;
+import one.microstream.demo.dto.Page;
+
+/**
+ * Converts pages into responses. The items are returned as the body so the response stays a plain list, the cursor
+ * for the next page is returned in the {@link #NEXT_CURSOR_HEADER} header.
+ */
+final class PageResponse
+{
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    static <T> HttpResponse<List<T>> of(final Page<T> page)
+    {
+        final var response = HttpResponse.ok(page.items());
+        if (page.nextCursor() != null)
+        {
+            response.header(NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        return response;
+    }
+
+    private PageResponse()
+    {
+    }
+}
@@ -0,0 +1,56 @@
+package one.microstream.demo.controller;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.Year;
+import java.time.YearMonth;
+
+import one.microstream.demo.exception.InvalidPublicationDateException;
+
+/**
+ * Parses publication date bounds in year (<code>yyyy</code>), month (<code>yyyy-MM</code>) or day
+ * (<code>yyyy-MM-dd</code>) granularity. A lower bound starts at the first day of the period, an upper bound ends at
+ * the last day of the period, so <code>from=2020&amp;to=2020</code> covers the whole year 2020.
+ */
+final class PublicationDates
+{
+    static LocalDate start(final String value) throws InvalidPublicationDateException
+    {
+        try
+        {
+            return switch (value.length())
+            {
+                case 4 -> Year.parse(value).atDay(1);
+                case 7 -> YearMonth.parse(value).atDay(1);
+                case 10 -> LocalDate.parse(value);
+                default -> throw InvalidPublicationDateException.malformed(value);
+            };
+        }
+        catch (final DateTimeException e)
+        {
+            throw InvalidPublicationDateException.malformed(value);
+        }
+    }
+
+    static LocalDate end(final String value) throws InvalidPublicationDateException
+    {
+        try
+        {
+            return switch (value.length())
+            {
+                case 4 -> Year.parse(value).atMonth(12).atEndOfMonth();
+                case 7 -> YearMonth.parse(value).atEndOfMonth();
+                case 10 -> LocalDate.parse(value);
+                default -> throw InvalidPublicationDateException.malformed(value);
+            };
+        }
+        catch (final DateTimeException e)
+        {
+            throw InvalidPublicationDateException.malformed(value);
+        }
+    }
+
+    private PublicationDates()
+    {
+    }
+}
@@ -1,16 +1,19 @@
 package one.microstream.demo.domain;
 
-import java.util.Set;
+import java.util.SequencedMap;
 import java.util.UUID;
 
 import org.eclipse.serializer.reference.Lazy;
+import org.eclipse.store.gigamap.types.GigaMap;
 
 /**
- * @param id    the unique identifier
- * @param name  the name of the author
- * @param about some information about the author
- * @param books the books the author has written
+ * @param id       the unique identifier
+ * @param sequence ascending in the order the authors have been added to the authors {@link GigaMap}, see
+ *                 {@link Book#sequence()}
+ * @param name     the name of the author
+ * @param about    some information about the author
+ * @param books    the books the author has written keyed by their ID, in the order they have been added
  */
-public record Author(UUID id, String name, String about, Lazy<Set<Book>> books)
+public record Author(UUID id, long sequence, String name, String about, Lazy<SequencedMap<UUID, Book>> books)
 {
 }
@@ -0,0 +1,69 @@
+package one.microstream.demo.domain;
+
+import java.util.Arrays;
+
+import org.eclipse.serializer.persistence.binary.types.AbstractBinaryHandlerCustomValueVariableLength;
+import org.eclipse.serializer.persistence.binary.types.Binary;
+import org.eclipse.serializer.persistence.types.PersistenceLoadHandler;
+import org.eclipse.serializer.persistence.types.PersistenceStoreHandler;
+
+/**
+ * Persists a {@link CompressedText} as a single record containing the compressed bytes, instead of the generic layout
+ * which stores the byte array as a separate object referenced by the text.
+ */
+public final class BinaryHandlerCompressedText
+    extends AbstractBinaryHandlerCustomValueVariableLength<CompressedText, byte[]>
+{
+    public static BinaryHandlerCompressedText New()
+    {
+        return new BinaryHandlerCompressedText();
+    }
+
+    private BinaryHandlerCompressedText()
+    {
+        super(CompressedText.class, CustomFields(bytes("data")));
+    }
+
+    @Override
+    public void store(
+        final Binary data,
+        final CompressedText instance,
+        final long objectId,
+        final PersistenceStoreHandler<Binary> handler
+    )
+    {
+        data.store_bytes(this.typeId(), objectId, instance.data);
+    }
+
+    @Override
+    public CompressedText create(final Binary data, final PersistenceLoadHandler handler)
+    {
+        return new CompressedText(data.build_bytes());
+    }
+
+    @Override
+    public void validateState(final Binary data, final CompressedText instance, final PersistenceLoadHandler handler)
+    {
+        final byte[] binaryState = this.getValidationStateFromBinary(data);
+        if (!Arrays.equals(instance.data, binaryState))
+        {
+            this.throwInconsistentStateException(
+                instance,
+                Arrays.toString(instance.data),
+                Arrays.toString(binaryState)
+            );
+        }
+    }
+
+    @Override
+    public byte[] getValidationStateFromInstance(final CompressedText instance)
+    {
+        return instance.data;
+    }
+
+    @Override
+    public byte[] getValidationStateFromBinary(final Binary data)
+    {
+        return data.build_bytes();
+    }
+}
@@ -0,0 +1,63 @@
+package one.microstream.demo.domain;
+
+import org.eclipse.serializer.persistence.binary.types.Binary;
+import org.eclipse.serializer.persistence.binary.types.BinaryLegacyTypeHandler;
+import org.eclipse.serializer.persistence.types.PersistenceLoadHandler;
+import org.eclipse.serializer.persistence.types.PersistenceReferenceLoader;
+
+/**
+ * Loads compressed texts stored with the generic layout before {@link BinaryHandlerCompressedText} was registered. That
+ * layout references the compressed bytes as a separate array and additionally stored the uncompressed length, which
+ * is no longer needed. A loaded text is stored with the layout of {@link BinaryHandlerCompressedText} the next time it
+ * is stored.
+ */
+public final class BinaryLegacyHandlerCompressedText extends BinaryLegacyTypeHandler.AbstractCustom<CompressedText>
+{
+    private static final long OFFSET_DATA = 0;
+
+    public static BinaryLegacyHandlerCompressedText New()
+    {
+        return new BinaryLegacyHandlerCompressedText();
+    }
+
+    private BinaryLegacyHandlerCompressedText()
+    {
+        super(
+            CompressedText.class,
+            CustomFields(
+                CustomField(byte[].class, "data"),
+                CustomField(int.class, "length")
+            )
+        );
+    }
+
+    @Override
+    public CompressedText create(final Binary data, final PersistenceLoadHandler handler)
+    {
+        return new CompressedText(null);
+    }
+
+    @Override
+    public void updateState(final Binary data, final CompressedText instance, final PersistenceLoadHandler handler)
+    {
+        instance.data = (byte[])handler.lookupObject(data.read_long(OFFSET_DATA));
+    }
+
+    @Override
+    public void iterateLoadableReferences(final Binary data, final PersistenceReferenceLoader iterator)
+    {
+        iterator.acceptObjectId(data.read_long(OFFSET_DATA));
+    }
+
+    @Override
+    public boolean hasPersistedReferences()
+    {
+        return true;
+    }
+
+    @Override
+    public boolean hasVaryingPersistedLengthInstances()
+    {
+        return false;
+    }
+}
@@ -1,15 +1,24 @@
 package one.microstream.demo.domain;
 
 import java.time.LocalDate;
-import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
 
+import org.eclipse.serializer.reference.Lazy;
+import org.eclipse.store.gigamap.types.GigaMap;
+
 /**
  * @param id              the unique identifier
+ * @param sequence        ascending in the order the books have been added to the books {@link GigaMap}, which is the
+ *                        order queries return them in. Paged queries resume after the sequence number of the last
+ *                        returned book. Kept when the book is replaced.
  * @param isbn            the isbn identifier
  * @param title           the title of the book
- * @param description     the description of the book which can usually be found on the back
+ * @param description     the description of the book which can usually be found on the back, <code>null</code> if it
+ *                        is held by the lazy description
+ * @param lazyDescription the description of the book held by a {@link Lazy} reference, so it is only loaded on
+ *                        demand, or <code>null</code> if it is held directly. The description may be a
+ *                        {@link CompressedText}.
  * @param pages           how many pages the book has
  * @param genres          the genres of the book
  * @param publicationDate when the book was published
@@ -17,31 +26,130 @@ import java.util.UUID;
  */
 public record Book(
     UUID id,
+    long sequence,
     String isbn,
     String title,
     String description,
+    Lazy<CharSequence> lazyDescription,
     int pages,
     Set<String> genres,
     LocalDate publicationDate,
     Author author
 )
 {
+    /**
+     * Creates a book holding the description directly or by a {@link Lazy} reference. Only a lazily held description
+     * is kept as the specified {@link CharSequence}, e.g. a {@link CompressedText}.
+     */
+    public Book(
+        final UUID id,
+        final long sequence,
+        final String isbn,
+        final String title,
+        final CharSequence description,
+        final boolean lazyDescription,
+        final int pages,
+        final Set<String> genres,
+        final LocalDate publicationDate,
+        final Author author
+    )
+    {
+        this(
+            id,
+            sequence,
+            isbn,
+            title,
+            lazyDescription ? null : description.toString(),
+            lazyDescription ? Lazy.Reference(description) : null,
+            pages,
+            genres,
+            publicationDate,
+            author
+        );
+    }
+
+    /**
+     * @return the description of the book, loading it if it is held by an unloaded {@link Lazy} reference and
+     *         decompressing it if it is a {@link CompressedText}
+     */
     @Override
-    public int hashCode()
+    public String description()
     {
-        // use author id to avoid stack overflows
-        return Objects.hash(
-            this.author.id(),
+        return this.lazyDescription == null ? this.description : this.lazyDescription.get().toString();
+    }
+
+    /**
+     * @param genres the new genres
+     * @return a copy of this book with the specified genres
+     */
+    public Book withGenres(final Set<String> genres)
+    {
+        return new Book(
+            this.id,
+            this.sequence,
+            this.isbn,
+            this.title,
             this.description,
+            this.lazyDescription,
+            this.pages,
+            genres,
+            this.publicationDate,
+            this.author
+        );
+    }
+
+    /**
+     * @param description the new description, e.g. a {@link CompressedText}
+     * @return a copy of this book holding the specified description by a {@link Lazy} reference
+     */
+    public Book withLazyDescription(final CharSequence description)
+    {
+        return new Book(
+            this.id,
+            this.sequence,
+            this.isbn,
+            this.title,
+            description,
+            true,
+            this.pages,
             this.genres,
+            this.publicationDate,
+            this.author
+        );
+    }
+
+    /**
+     * @param sequence the new sequence number
+     * @return a copy of this book with the specified sequence number
+     */
+    public Book withSequence(final long sequence)
+    {
+        return new Book(
             this.id,
+            sequence,
             this.isbn,
+            this.title,
+            this.description,
+            this.lazyDescription,
             this.pages,
+            this.genres,
             this.publicationDate,
-            this.title
+            this.author
         );
     }
 
+    /**
+     * Books are identified by their ID only, so hashing and comparing them never loads a lazy description.
+     */
+    @Override
+    public int hashCode()
+    {
+        return this.id.hashCode();
+    }
+
+    /**
+     * @return <code>true</code> if the other object is a book with the same ID, even if its other components differ
+     */
     @Override
     public boolean equals(final Object obj)
     {
@@ -49,24 +157,7 @@ public record Book(
         {
             return true;
         }
-        if (!(obj instanceof Book other))
-        {
-            return false;
-        }
-        // use author id to avoid stack overflows
-        boolean authorsEqual = this.author == null
-            && other.author == null
-            || this.author != null
-            && other.author != null
-            && this.author.id().equals(other.author.id());
-        return authorsEqual
-            && Objects.equals(this.description, other.description)
-            && Objects.equals(this.genres, other.genres)
-            && Objects.equals(this.id, other.id)
-            && Objects.equals(this.isbn, other.isbn)
-            && this.pages == other.pages
-            && Objects.equals(this.publicationDate, other.publicationDate)
-            && Objects.equals(this.title, other.title);
+        return obj instanceof final Book other && this.id.equals(other.id);
     }
 
     @Override
@@ -81,7 +172,8 @@ public record Book(
             .append(", title=")
             .append(this.title)
             .append(", description=")
-            .append(this.description)
+            // don't load a lazy description
+            .append(this.lazyDescription == null ? this.description : "<lazy>")
             .append(", pages=")
             .append(this.pages)
             .append(", genres=")
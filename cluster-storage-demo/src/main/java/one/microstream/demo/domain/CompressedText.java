@@ -0,0 +1,112 @@
+package one.microstream.demo.domain;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Text stored as deflated UTF-8 bytes, so it takes less memory and storage space than a {@link String}. The text is
+ * decompressed by every access, so it should only be used for long texts which are rarely read, like descriptions.
+ * It is persisted by {@link BinaryHandlerCompressedText}.
+ */
+public final class CompressedText implements CharSequence
+{
+    // only assigned after construction by BinaryLegacyHandlerCompressedText
+    byte[] data;
+
+    CompressedText(final byte[] data)
+    {
+        this.data = data;
+    }
+
+    /**
+     * @param text the text to compress
+     * @return the compressed text or the text itself if compressing it would not save space
+     */
+    public static CharSequence compress(final String text)
+    {
+        final byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        final var deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try
+        {
+            deflater.setInput(bytes);
+            deflater.finish();
+            final byte[] buffer = new byte[bytes.length];
+            final int size = deflater.deflate(buffer);
+            if (!deflater.finished())
+            {
+                return text;
+            }
+            return new CompressedText(Arrays.copyOf(buffer, size));
+        }
+        finally
+        {
+            deflater.end();
+        }
+    }
+
+    /**
+     * @return the size of the compressed text in bytes
+     */
+    public int compressedSize()
+    {
+        return this.data.length;
+    }
+
+    @Override
+    public int length()
+    {
+        return this.toString().length();
+    }
+
+    @Override
+    public char charAt(final int index)
+    {
+        return this.toString().charAt(index);
+    }
+
+    @Override
+    public CharSequence subSequence(final int start, final int end)
+    {
+        return this.toString().subSequence(start, end);
+    }
+
+    /**
+     * @return the decompressed text
+     */
+    @Override
+    public String toString()
+    {
+        final var inflater = new Inflater();
+        try
+        {
+            inflater.setInput(this.data);
+            byte[] bytes = new byte[this.data.length * 4];
+            int size = 0;
+            while (!inflater.finished())
+            {
+                if (size == bytes.length)
+                {
+                    bytes = Arrays.copyOf(bytes, bytes.length * 2);
+                }
+                final int inflated = inflater.inflate(bytes, size, bytes.length - size);
+                if (inflated == 0 && inflater.needsInput())
+                {
+                    throw new DataFormatException("Unexpected end of compressed text");
+                }
+                size += inflated;
+            }
+            return new String(bytes, 0, size, StandardCharsets.UTF_8);
+        }
+        catch (final DataFormatException e)
+        {
+            throw new IllegalStateException("Compressed text is corrupt", e);
+        }
+        finally
+        {
+            inflater.end();
+        }
+    }
+}
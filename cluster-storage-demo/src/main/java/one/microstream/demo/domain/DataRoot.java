@@ -5,23 +5,53 @@ import one.microstream.demo.gigamap.GigaMapAuthorIndices;
 import one.microstream.demo.gigamap.GigaMapBookIndices;
 import org.eclipse.store.gigamap.types.GigaMap;
 
-import java.util.HashSet;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Set;
 
 public final class DataRoot
 {
+    /**
+     * The data layout version of new storages. Storages created with an older layout are loaded with a lower version
+     * and migrated on startup.
+     * <ul>
+     * <li>1: the books of an author are kept in a map keyed by the book ID instead of a set</li>
+     * <li>2: the genres are kept in a {@link GenreDictionary} and the genres of a book are a {@link GenreSet}</li>
+     * <li>3: books with the same genres reference the same canonical {@link GenreSet}</li>
+     * <li>4: books and authors have a {@link Sequence} number</li>
+     * <li>5: books are indexed by their author ID and title trigrams, authors by their name trigrams</li>
+     * <li>6: the ISBN index of the books is unique</li>
+     * <li>7: books and authors are indexed by the {@link Sequence#block(long) block} of their sequence number</li>
+     * </ul>
+     */
+    public static final int CURRENT_VERSION = 7;
+
     private final GigaMap<Author> authors = GigaMap.<Author>Builder()
         .withBitmapIdentityIndex(GigaMapAuthorIndices.ID)
+        .withBitmapIndex(GigaMapAuthorIndices.SEQUENCE_BLOCK)
         .withBitmapIndex(GigaMapAuthorIndices.NAME)
+        .withBitmapIndex(GigaMapAuthorIndices.NAME_TRIGRAMS)
         .build();
     private final GigaMap<Book> books = GigaMap.<Book>Builder()
         .withBitmapIdentityIndex(GigaMapBookIndices.ID)
+        .withBitmapIndex(GigaMapBookIndices.SEQUENCE_BLOCK)
+        .withBitmapIndex(GigaMapBookIndices.AUTHOR_ID)
         .withBitmapIndex(GigaMapBookIndices.TITLE)
+        .withBitmapIndex(GigaMapBookIndices.TITLE_TRIGRAMS)
         .withBitmapIndex(GigaMapBookIndices.GENRES)
-        .withBitmapIndex(GigaMapBookIndices.ISBN)
+        .withBitmapUniqueIndex(GigaMapBookIndices.ISBN)
         .withBitmapIndex(GigaMapBookIndices.PUBLICATION)
         .build();
-    private final Set<String> genres = new HashSet<>();
+    // genres of storages created before version 2, migrated into the dictionary on startup
+    private Set<String> genres;
+    private GenreDictionary genreDictionary = new GenreDictionary();
+    // every distinct genre combination of the books, mapped to itself
+    private Map<GenreSet, GenreSet> genreSets = new HashMap<>();
+    private Sequence authorSequence = new Sequence();
+    private Sequence bookSequence = new Sequence();
+    private int version = CURRENT_VERSION;
+    // whether the descriptions of all books have been moved into lazy references, see DataMigration
+    private boolean lazyDescriptions;
 
     public DataRoot()
     {
@@ -38,8 +68,73 @@ public final class DataRoot
         return this.books;
     }
 
-    public Set<String> genres()
+    public GenreDictionary genres()
+    {
+        return this.genreDictionary;
+    }
+
+    public void genres(final GenreDictionary genreDictionary)
+    {
+        this.genreDictionary = genreDictionary;
+    }
+
+    public Map<GenreSet, GenreSet> genreSets()
+    {
+        return this.genreSets;
+    }
+
+    public void genreSets(final Map<GenreSet, GenreSet> genreSets)
+    {
+        this.genreSets = genreSets;
+    }
+
+    public Sequence authorSequence()
+    {
+        return this.authorSequence;
+    }
+
+    public void authorSequence(final Sequence authorSequence)
+    {
+        this.authorSequence = authorSequence;
+    }
+
+    public Sequence bookSequence()
+    {
+        return this.bookSequence;
+    }
+
+    public void bookSequence(final Sequence bookSequence)
+    {
+        this.bookSequence = bookSequence;
+    }
+
+    public Set<String> legacyGenres()
     {
         return this.genres;
     }
+
+    public void legacyGenres(final Set<String> genres)
+    {
+        this.genres = genres;
+    }
+
+    public int version()
+    {
+        return this.version;
+    }
+
+    public void version(final int version)
+    {
+        this.version = version;
+    }
+
+    public boolean lazyDescriptions()
+    {
+        return this.lazyDescriptions;
+    }
+
+    public void lazyDescriptions(final boolean lazyDescriptions)
+    {
+        this.lazyDescriptions = lazyDescriptions;
+    }
 }
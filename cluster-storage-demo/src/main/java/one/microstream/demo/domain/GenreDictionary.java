@@ -0,0 +1,176 @@
+package one.microstream.demo.domain;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Assigns a dense ordinal to every genre name, so the genres of a book can be stored as a {@link GenreSet} bitset
+ * instead of a set of names. Ordinals are never reused: deleting a genre only marks it as deleted, the books
+ * referencing it keep resolving its name.
+ *
+ * <p>
+ * The arrays are replaced instead of modified, so storing the dictionary itself stores every modification and
+ * {@link GenreSet}s can resolve names while the dictionary is modified concurrently. Modifications must be
+ * serialized by the caller.
+ */
+public final class GenreDictionary
+{
+    private volatile String[] names = new String[0];
+    private volatile long[] existing = new long[0];
+    // rebuilt from the names after loading
+    private transient volatile Map<String, Integer> ordinals;
+
+    /**
+     * Adds the genre or restores it if it has been deleted.
+     *
+     * @param genre the name of the genre
+     * @return <code>true</code> if the genre did not exist before
+     */
+    public boolean add(final String genre)
+    {
+        final int ordinal = this.register(genre);
+        if (GenreSet.isSet(this.existing, ordinal))
+        {
+            return false;
+        }
+        this.existing = GenreSet.withBit(this.existing, ordinal);
+        return true;
+    }
+
+    /**
+     * Marks the genre as deleted. Its ordinal stays assigned.
+     *
+     * @param genre the name of the genre
+     * @return <code>true</code> if the genre existed before
+     */
+    public boolean remove(final String genre)
+    {
+        final int ordinal = this.ordinal(genre);
+        if (ordinal < 0 || !GenreSet.isSet(this.existing, ordinal))
+        {
+            return false;
+        }
+        final long[] existing = this.existing.clone();
+        existing[ordinal >>> 6] &= ~(1L << ordinal);
+        this.existing = existing;
+        return true;
+    }
+
+    /**
+     * @param genre the name of the genre
+     * @return <code>true</code> if the genre exists and has not been deleted
+     */
+    public boolean contains(final String genre)
+    {
+        final int ordinal = this.ordinal(genre);
+        return ordinal >= 0 && GenreSet.isSet(this.existing, ordinal);
+    }
+
+    /**
+     * @return the names of all existing genres in the order they have been added first
+     */
+    public Set<String> names()
+    {
+        final String[] names = this.names;
+        final long[] existing = this.existing;
+        final var result = new LinkedHashSet<String>();
+        for (int ordinal = 0; ordinal < names.length; ordinal++)
+        {
+            if (GenreSet.isSet(existing, ordinal))
+            {
+                result.add(names[ordinal]);
+            }
+        }
+        return Collections.unmodifiableSet(result);
+    }
+
+    /**
+     * Encodes the genres as a bitset of their ordinals. Deleted genres are encoded as well, so callers have to check
+     * {@link #contains(String)} before if only existing genres are allowed.
+     *
+     * @param genres the names of registered genres
+     * @return the genres as bitset
+     * @throws IllegalArgumentException if one of the genres has never been registered
+     */
+    public GenreSet encode(final Collection<String> genres)
+    {
+        final long[] bits = new long[this.existing.length];
+        for (final String genre : genres)
+        {
+            final int ordinal = this.ordinal(genre);
+            if (ordinal < 0)
+            {
+                throw new IllegalArgumentException("Genre '%s' has never been registered.".formatted(genre));
+            }
+            bits[ordinal >>> 6] |= 1L << ordinal;
+        }
+        return GenreSet.of(this, bits);
+    }
+
+    /**
+     * Assigns an ordinal to the genre without adding it, used to encode the genres of books which reference deleted
+     * genres.
+     *
+     * @param genre the name of the genre
+     * @return the ordinal of the genre
+     */
+    public int register(final String genre)
+    {
+        final int known = this.ordinal(genre);
+        if (known >= 0)
+        {
+            return known;
+        }
+        final int ordinal = this.names.length;
+        final String[] names = Arrays.copyOf(this.names, ordinal + 1);
+        names[ordinal] = genre;
+        if (this.existing.length <= ordinal >>> 6)
+        {
+            this.existing = Arrays.copyOf(this.existing, (ordinal >>> 6) + 1);
+        }
+        this.names = names;
+        final var ordinals = new HashMap<>(this.ordinals());
+        ordinals.put(genre, ordinal);
+        this.ordinals = ordinals;
+        return ordinal;
+    }
+
+    /**
+     * @param genre the name of the genre
+     * @return the ordinal of the genre or <code>-1</code> if it has never been registered
+     */
+    public int ordinal(final String genre)
+    {
+        return this.ordinals().getOrDefault(genre, -1);
+    }
+
+    /**
+     * @param ordinal the ordinal of a registered genre
+     * @return the name of the genre
+     */
+    public String name(final int ordinal)
+    {
+        return this.names[ordinal];
+    }
+
+    private Map<String, Integer> ordinals()
+    {
+        Map<String, Integer> ordinals = this.ordinals;
+        if (ordinals == null)
+        {
+            final String[] names = this.names;
+            ordinals = new HashMap<>(names.length * 4 / 3 + 1);
+            for (int ordinal = 0; ordinal < names.length; ordinal++)
+            {
+                ordinals.put(names[ordinal], ordinal);
+            }
+            this.ordinals = ordinals;
+        }
+        return ordinals;
+    }
+}
@@ -0,0 +1,140 @@
+package one.microstream.demo.domain;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Immutable set of genre names stored as a bitset of their {@link GenreDictionary} ordinals. The ordinals below 64 are
+ * kept in a single <code>long</code>, so a book only needs an array if the dictionary contains more genres.
+ */
+public final class GenreSet extends AbstractSet<String>
+{
+    private final GenreDictionary dictionary;
+    private final long low;
+    private final long[] high;
+
+    private GenreSet(final GenreDictionary dictionary, final long low, final long[] high)
+    {
+        this.dictionary = dictionary;
+        this.low = low;
+        this.high = high;
+    }
+
+    static GenreSet of(final GenreDictionary dictionary, final long[] bits)
+    {
+        int length = bits.length;
+        while (length > 1 && bits[length - 1] == 0L)
+        {
+            length--;
+        }
+        return new GenreSet(
+            dictionary,
+            length == 0 ? 0L : bits[0],
+            length > 1 ? Arrays.copyOfRange(bits, 1, length) : null
+        );
+    }
+
+    static boolean isSet(final long[] bits, final int ordinal)
+    {
+        return ordinal >>> 6 < bits.length && (bits[ordinal >>> 6] & 1L << ordinal) != 0L;
+    }
+
+    static long[] withBit(final long[] bits, final int ordinal)
+    {
+        final long[] result = Arrays.copyOf(bits, Math.max(bits.length, (ordinal >>> 6) + 1));
+        result[ordinal >>> 6] |= 1L << ordinal;
+        return result;
+    }
+
+    private long word(final int index)
+    {
+        if (index == 0)
+        {
+            return this.low;
+        }
+        return this.high != null && index <= this.high.length ? this.high[index - 1] : 0L;
+    }
+
+    private int words()
+    {
+        return this.high == null ? 1 : this.high.length + 1;
+    }
+
+    @Override
+    public boolean contains(final Object o)
+    {
+        if (!(o instanceof final String genre))
+        {
+            return false;
+        }
+        final int ordinal = this.dictionary.ordinal(genre);
+        return ordinal >= 0 && (this.word(ordinal >>> 6) & 1L << ordinal) != 0L;
+    }
+
+    @Override
+    public boolean equals(final Object o)
+    {
+        if (o instanceof final GenreSet other && other.dictionary == this.dictionary)
+        {
+            return other.low == this.low && Arrays.equals(other.high, this.high);
+        }
+        return super.equals(o);
+    }
+
+    /**
+     * Hashes the bit words instead of the names, so hashing does not look up every name in the dictionary. Unlike the
+     * general {@link java.util.Set} contract requires, the hash code therefore differs from the one of other sets with
+     * the same names. Genre sets of one dictionary must not be mixed with other set implementations or with genre sets
+     * of another dictionary as keys of hash-based collections.
+     */
+    @Override
+    public int hashCode()
+    {
+        return 31 * Long.hashCode(this.low) + Arrays.hashCode(this.high);
+    }
+
+    @Override
+    public int size()
+    {
+        int size = 0;
+        for (int i = 0; i < this.words(); i++)
+        {
+            size += Long.bitCount(this.word(i));
+        }
+        return size;
+    }
+
+    @Override
+    public Iterator<String> iterator()
+    {
+        return new Iterator<>()
+        {
+            private int index;
+            private long word = GenreSet.this.low;
+
+            @Override
+            public boolean hasNext()
+            {
+                while (this.word == 0L && this.index + 1 < GenreSet.this.words())
+                {
+                    this.word = GenreSet.this.word(++this.index);
+                }
+                return this.word != 0L;
+            }
+
+            @Override
+            public String next()
+            {
+                if (!this.hasNext())
+                {
+                    throw new NoSuchElementException();
+                }
+                final int ordinal = this.index * Long.SIZE + Long.numberOfTrailingZeros(this.word);
+                this.word &= this.word - 1;
+                return GenreSet.this.dictionary.name(ordinal);
+            }
+        };
+    }
+}
@@ -0,0 +1,54 @@
+package one.microstream.demo.domain;
+
+import org.eclipse.store.gigamap.types.GigaMap;
+
+/**
+ * Hands out the ascending sequence numbers of the entities of one {@link GigaMap}, see {@link Book#sequence()} and
+ * {@link Author#sequence()}. Storing the sequence only stores the last handed out number.
+ *
+ * <p>
+ * The sequence numbers are indexed in blocks of {@link #BLOCK_SIZE} consecutive numbers, see {@link #block(long)}, so
+ * the index has one key per block instead of one per entity.
+ *
+ * <p>
+ * Must only be used while holding the write lock of the aggregate the entities belong to.
+ */
+public final class Sequence
+{
+    /**
+     * The amount of consecutive sequence numbers sharing one key of the sequence block index.
+     */
+    public static final long BLOCK_SIZE = 1024;
+
+    private long last;
+
+    public Sequence()
+    {
+        super();
+    }
+
+    /**
+     * @return the next sequence number, the first one is <code>1</code>
+     */
+    public long next()
+    {
+        return ++this.last;
+    }
+
+    /**
+     * @return the last handed out sequence number or <code>0</code> if none has been handed out yet
+     */
+    public long last()
+    {
+        return this.last;
+    }
+
+    /**
+     * @param sequence a sequence number
+     * @return the key of the block the sequence number belongs to in the sequence block index
+     */
+    public static long block(final long sequence)
+    {
+        return sequence / BLOCK_SIZE;
+    }
+}
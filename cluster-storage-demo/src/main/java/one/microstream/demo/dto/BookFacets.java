@@ -0,0 +1,31 @@
+package one.microstream.demo.dto;
+
+import java.util.List;
+
+import io.micronaut.core.annotation.Introspected;
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.serde.annotation.Serdeable;
+
+/**
+ * @param total            the amount of books matching the query
+ * @param genres           the amount of matching books per genre, ordered by descending count
+ * @param publicationYears the amount of matching books per publication year, ordered by descending year
+ */
+@Serdeable
+@Introspected
+public record BookFacets(
+    long total,
+    @NonNull List<FacetCount> genres,
+    @NonNull List<FacetCount> publicationYears
+)
+{
+    /**
+     * @param value the facet value, e.g. the genre or the year
+     * @param count the amount of matching books with the value
+     */
+    @Serdeable
+    @Introspected
+    public record FacetCount(@NonNull String value, long count)
+    {
+    }
+}
@@ -0,0 +1,47 @@
+package one.microstream.demo.dto;
+
+import java.time.LocalDate;
+import java.util.Set;
+import java.util.UUID;
+
+import io.micronaut.core.annotation.Introspected;
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.serde.annotation.Serdeable;
+
+/**
+ * The criteria of a multi-criteria book query. Every criterion is optional, a book has to match all specified
+ * criteria.
+ *
+ * @param titleContains the text the title has to contain ignoring case
+ * @param genres        the genres of the book
+ * @param genreMatch    whether a book has to contain all or any of the genres
+ * @param publishedFrom the first publication date (inclusive)
+ * @param publishedTo   the last publication date (inclusive)
+ * @param isbn          the ISBN of the book
+ * @param authorId      the ID of the author of the book
+ */
+@Serdeable
+@Introspected
+public record BookQuery(
+    @Nullable String titleContains,
+    @Nullable Set<@NonNull String> genres,
+    @NonNull GenreMatch genreMatch,
+    @Nullable LocalDate publishedFrom,
+    @Nullable LocalDate publishedTo,
+    @Nullable String isbn,
+    @Nullable UUID authorId
+)
+{
+    public enum GenreMatch
+    {
+        /**
+         * The book has to contain all genres.
+         */
+        ALL,
+        /**
+         * The book has to contain at least one of the genres.
+         */
+        ANY
+    }
+}
@@ -0,0 +1,31 @@
+package one.microstream.demo.dto;
+
+import io.micronaut.core.annotation.Introspected;
+import io.micronaut.serde.annotation.Serdeable;
+
+/**
+ * @param enabled       if responses are cached at all
+ * @param hits          how often a cached response has been returned
+ * @param misses        how often a response had to be loaded
+ * @param hitRatio      the share of hits of all lookups
+ * @param evictions     how many responses have been evicted to stay within the maximum size
+ * @param invalidations how many responses have been removed because their entity has been modified
+ * @param entries       the amount of cached responses
+ * @param size          the total size of the cached responses in bytes
+ * @param maxSize       the maximum total size of the cached responses in bytes
+ */
+@Serdeable
+@Introspected
+public record CacheMetrics(
+    boolean enabled,
+    long hits,
+    long misses,
+    double hitRatio,
+    long evictions,
+    long invalidations,
+    int entries,
+    long size,
+    long maxSize
+)
+{
+}
@@ -0,0 +1,25 @@
+package one.microstream.demo.dto;
+
+import io.micronaut.core.annotation.Introspected;
+import io.micronaut.serde.annotation.Serdeable;
+
+/**
+ * @param enabled                  if descriptions are compressed at all
+ * @param texts                    the amount of descriptions encoded since the start
+ * @param uncompressedBytes        the total UTF-8 size of the encoded descriptions
+ * @param compressedBytes          the total stored size of the encoded descriptions
+ * @param ratio                    the uncompressed size divided by the compressed size
+ * @param averageCompressionMicros the average time spent compressing one description in microseconds
+ */
+@Serdeable
+@Introspected
+public record CompressionMetrics(
+    boolean enabled,
+    long texts,
+    long uncompressedBytes,
+    long compressedBytes,
+    double ratio,
+    double averageCompressionMicros
+)
+{
+}
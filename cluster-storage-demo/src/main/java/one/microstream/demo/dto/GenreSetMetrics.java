@@ -0,0 +1,15 @@
+package one.microstream.demo.dto;
+
+import io.micronaut.core.annotation.Introspected;
+import io.micronaut.serde.annotation.Serdeable;
+
+/**
+ * @param books     the amount of stored books
+ * @param genreSets the amount of canonical genre sets referenced by the books, every distinct genre combination is
+ *                  stored once instead of once per book
+ */
+@Serdeable
+@Introspected
+public record GenreSetMetrics(long books, int genreSets)
+{
+}
@@ -1,35 +1,37 @@
 package one.microstream.demo.dto;
 
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Set;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 import io.micronaut.core.annotation.Introspected;
 import io.micronaut.core.annotation.NonNull;
+import io.micronaut.core.annotation.Nullable;
 import io.micronaut.serde.annotation.Serdeable;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Positive;
 import one.microstream.demo.domain.Author;
 import one.microstream.demo.domain.Book;
 
+/**
+ * @param books           the first page of the books of the author
+ * @param nextBooksCursor the cursor for the next page of the books, to be used with <code>/book/author/{id}</code>,
+ *                        or <code>null</code> if the author has no more books
+ */
 @Serdeable
 @Introspected
 public record GetAuthorById(
     @NonNull UUID id,
     @NonNull @NotBlank String name,
     @NonNull @NotBlank String about,
-    @NonNull Set<GetAuthorByIdBookDto> books
+    @NonNull List<GetAuthorByIdBookDto> books,
+    @Nullable String nextBooksCursor
 )
 {
-    public static GetAuthorById from(final Author author)
+    public static GetAuthorById from(final Author author, final Page<GetAuthorByIdBookDto> books)
     {
-        return new GetAuthorById(
-            author.id(),
-            author.name(),
-            author.about(),
-            GetAuthorByIdBookDto.fromSet(author.books().get())
-        );
+        return new GetAuthorById(author.id(), author.name(), author.about(), books.items(), books.nextCursor());
     }
 
     @Serdeable
@@ -44,21 +46,17 @@ public record GetAuthorById(
         @NonNull LocalDate publicationDate
     )
     {
-        public static Set<GetAuthorByIdBookDto> fromSet(final Set<Book> books)
+        public static GetAuthorByIdBookDto from(final Book book)
         {
-            return books.stream()
-                .map(
-                    book -> new GetAuthorByIdBookDto(
-                        book.id(),
-                        book.isbn(),
-                        book.title(),
-                        book.description(),
-                        book.pages(),
-                        book.genres(),
-                        book.publicationDate()
-                    )
-                )
-                .collect(Collectors.toUnmodifiableSet());
+            return new GetAuthorByIdBookDto(
+                book.id(),
+                book.isbn(),
+                book.title(),
+                book.description(),
+                book.pages(),
+                book.genres(),
+                book.publicationDate()
+            );
         }
     }
 }
@@ -0,0 +1,38 @@
+package one.microstream.demo.dto;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import io.micronaut.core.annotation.Introspected;
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.serde.annotation.Serdeable;
+import one.microstream.demo.job.DataGenerationJob;
+
+/**
+ * @param id            the unique identifier of the job
+ * @param status        the current status of the job
+ * @param generated     the amount of genres, authors and books stored so far
+ * @param total         the configured amount of genres, authors and books
+ * @param rowsPerSecond the average amount of rows stored per second
+ * @param etaSeconds    the estimated remaining time or <code>null</code> if the job is not running or there is no
+ *                      estimate yet
+ * @param started       when the job has been started
+ * @param finished      when the job has finished or <code>null</code> while it is running
+ * @param error         the reason the job failed or <code>null</code>
+ */
+@Serdeable
+@Introspected
+public record GetDataGenerationJob(
+    @NonNull UUID id,
+    @NonNull DataGenerationJob.Status status,
+    long generated,
+    long total,
+    double rowsPerSecond,
+    @Nullable Long etaSeconds,
+    @NonNull Instant started,
+    @Nullable Instant finished,
+    @Nullable String error
+)
+{
+}
@@ -0,0 +1,36 @@
+package one.microstream.demo.dto;
+
+import java.util.List;
+
+import io.micronaut.core.annotation.Introspected;
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.serde.annotation.Serdeable;
+
+/**
+ * @param imported the total amount of imported records
+ * @param chunks   the progress of every committed chunk in import order
+ */
+@Serdeable
+@Introspected
+public record ImportResult(
+    long imported,
+    @NonNull List<ImportChunk> chunks
+)
+{
+    /**
+     * @param index          the zero-based index of the chunk
+     * @param firstRecord    the one-based number of the first record of the chunk in the input
+     * @param records        the amount of records in the chunk
+     * @param durationMillis the time it took to insert and store the chunk
+     */
+    @Serdeable
+    @Introspected
+    public record ImportChunk(
+        int index,
+        long firstRecord,
+        int records,
+        long durationMillis
+    )
+    {
+    }
+}
@@ -0,0 +1,14 @@
+package one.microstream.demo.dto;
+
+import io.micronaut.core.annotation.Introspected;
+import io.micronaut.serde.annotation.Serdeable;
+
+/**
+ * @param loaded   the amount of references which are currently loaded
+ * @param unloaded the amount of references which are currently not loaded
+ */
+@Serdeable
+@Introspected
+public record LazyReferenceMetrics(long loaded, long unloaded)
+{
+}
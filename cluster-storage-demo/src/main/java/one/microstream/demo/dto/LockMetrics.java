@@ -0,0 +1,25 @@
+package one.microstream.demo.dto;
+
+import io.micronaut.core.annotation.Introspected;
+import io.micronaut.serde.annotation.Serdeable;
+
+/**
+ * @param readAcquisitions      how often the read lock has been acquired
+ * @param writeAcquisitions     how often the write lock has been acquired
+ * @param contendedAcquisitions how often an acquisition had to wait for another thread
+ * @param totalWaitMicros       the total time spent waiting for the lock
+ * @param maxWaitMicros         the longest time a single acquisition waited for the lock
+ * @param queueLength           the estimated amount of threads currently waiting for the lock
+ */
+@Serdeable
+@Introspected
+public record LockMetrics(
+    long readAcquisitions,
+    long writeAcquisitions,
+    long contendedAcquisitions,
+    long totalWaitMicros,
+    long maxWaitMicros,
+    int queueLength
+)
+{
+}
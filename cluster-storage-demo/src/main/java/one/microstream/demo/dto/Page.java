@@ -0,0 +1,21 @@
+package one.microstream.demo.dto;
+
+import java.util.List;
+
+import io.micronaut.core.annotation.Introspected;
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.serde.annotation.Serdeable;
+
+/**
+ * @param items      the results of this page
+ * @param nextCursor the opaque cursor to request the next page with, or <code>null</code> if this is the last page
+ */
+@Serdeable
+@Introspected
+public record Page<T>(
+    @NonNull List<T> items,
+    @Nullable String nextCursor
+)
+{
+}
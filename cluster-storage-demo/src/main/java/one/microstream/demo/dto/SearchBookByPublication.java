@@ -0,0 +1,36 @@
+package one.microstream.demo.dto;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+import io.micronaut.core.annotation.Introspected;
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.serde.annotation.Serdeable;
+import jakarta.validation.constraints.NotBlank;
+import one.microstream.demo.domain.Book;
+
+/**
+ * @param id              the unique identifier
+ * @param title           the title of the book
+ * @param publicationDate when the book was published
+ * @param authorId        the ID of the author of the book
+ */
+@Serdeable
+@Introspected
+public record SearchBookByPublication(
+    @NonNull UUID id,
+    @NonNull @NotBlank String title,
+    @NonNull LocalDate publicationDate,
+    @NonNull UUID authorId
+)
+{
+    public static SearchBookByPublication from(final Book book)
+    {
+        return new SearchBookByPublication(
+            book.id(),
+            book.title(),
+            book.publicationDate(),
+            book.author().id()
+        );
+    }
+}
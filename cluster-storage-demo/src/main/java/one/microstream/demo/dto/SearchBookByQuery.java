@@ -0,0 +1,43 @@
+package one.microstream.demo.dto;
+
+import java.time.LocalDate;
+import java.util.Set;
+import java.util.UUID;
+
+import io.micronaut.core.annotation.Introspected;
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.serde.annotation.Serdeable;
+import jakarta.validation.constraints.NotBlank;
+import one.microstream.demo.domain.Book;
+
+/**
+ * @param id              the unique identifier
+ * @param isbn            the isbn identifier
+ * @param title           the title of the book
+ * @param genres          the genres of the book
+ * @param publicationDate when the book was published
+ * @param authorId        the ID of the author of the book
+ */
+@Serdeable
+@Introspected
+public record SearchBookByQuery(
+    @NonNull UUID id,
+    @NonNull @NotBlank String isbn,
+    @NonNull @NotBlank String title,
+    @NonNull Set<@NonNull @NotBlank String> genres,
+    @NonNull LocalDate publicationDate,
+    @NonNull UUID authorId
+)
+{
+    public static SearchBookByQuery from(final Book book)
+    {
+        return new SearchBookByQuery(
+            book.id(),
+            book.isbn(),
+            book.title(),
+            book.genres(),
+            book.publicationDate(),
+            book.author().id()
+        );
+    }
+}
@@ -0,0 +1,35 @@
+package one.microstream.demo.dto;
+
+import java.util.UUID;
+
+import io.micronaut.core.annotation.Introspected;
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.serde.annotation.Serdeable;
+import jakarta.validation.constraints.NotBlank;
+import one.microstream.demo.domain.Book;
+
+/**
+ * @param id       the unique identifier
+ * @param title    the title of the book
+ * @param authorId the ID of the author of the book
+ * @param score    the relevance of the book for the search query
+ */
+@Serdeable
+@Introspected
+public record SearchBookByText(
+    @NonNull UUID id,
+    @NonNull @NotBlank String title,
+    @NonNull UUID authorId,
+    float score
+)
+{
+    public static SearchBookByText from(final Book book, final float score)
+    {
+        return new SearchBookByText(
+            book.id(),
+            book.title(),
+            book.author().id(),
+            score
+        );
+    }
+}
@@ -0,0 +1,12 @@
+package one.microstream.demo.exception;
+
+import io.micronaut.http.HttpStatus;
+import io.micronaut.http.exceptions.HttpStatusException;
+
+public class InvalidCursorException extends HttpStatusException
+{
+    public InvalidCursorException(final String cursor)
+    {
+        super(HttpStatus.BAD_REQUEST, "Cursor '%s' is invalid".formatted(cursor));
+    }
+}
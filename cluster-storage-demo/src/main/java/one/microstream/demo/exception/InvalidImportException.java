@@ -0,0 +1,43 @@
+package one.microstream.demo.exception;
+
+import io.micronaut.http.HttpStatus;
+import io.micronaut.http.exceptions.HttpStatusException;
+
+public class InvalidImportException extends HttpStatusException
+{
+    public static InvalidImportException invalidRecord(final long record, final String reason, final long imported)
+    {
+        return new InvalidImportException(
+            "Record %d is invalid: %s. %d records have been imported before".formatted(record, reason, imported)
+        );
+    }
+
+    public static InvalidImportException invalidChunk(
+        final int chunk,
+        final long firstRecord,
+        final String reason,
+        final long imported
+    )
+    {
+        return new InvalidImportException(
+            "Chunk %d starting at record %d could not be imported: %s. %d records have been imported before".formatted(
+                chunk,
+                firstRecord,
+                reason,
+                imported
+            )
+        );
+    }
+
+    public static InvalidImportException unsupportedContentType(final String contentType)
+    {
+        return new InvalidImportException(
+            "Content type '%s' is not supported, use 'application/x-ndjson' or 'text/csv'".formatted(contentType)
+        );
+    }
+
+    public InvalidImportException(final String message)
+    {
+        super(HttpStatus.BAD_REQUEST, message);
+    }
+}
@@ -0,0 +1,24 @@
+package one.microstream.demo.exception;
+
+import io.micronaut.http.HttpStatus;
+import io.micronaut.http.exceptions.HttpStatusException;
+
+public class InvalidPublicationDateException extends HttpStatusException
+{
+    public static InvalidPublicationDateException emptyRange(final String from, final String to)
+    {
+        return new InvalidPublicationDateException("Publication date '%s' is after '%s'".formatted(from, to));
+    }
+
+    public static InvalidPublicationDateException malformed(final String value)
+    {
+        return new InvalidPublicationDateException(
+            "Publication date '%s' must be formatted as 'yyyy', 'yyyy-MM' or 'yyyy-MM-dd'".formatted(value)
+        );
+    }
+
+    public InvalidPublicationDateException(final String message)
+    {
+        super(HttpStatus.BAD_REQUEST, message);
+    }
+}
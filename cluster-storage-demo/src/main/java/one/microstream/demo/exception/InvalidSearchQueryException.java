@@ -0,0 +1,12 @@
+package one.microstream.demo.exception;
+
+import io.micronaut.http.HttpStatus;
+import io.micronaut.http.exceptions.HttpStatusException;
+
+public class InvalidSearchQueryException extends HttpStatusException
+{
+    public InvalidSearchQueryException(final String query, final Throwable cause)
+    {
+        super(HttpStatus.BAD_REQUEST, "Search query '%s' is invalid: %s".formatted(query, cause.getMessage()));
+    }
+}
@@ -0,0 +1,14 @@
+package one.microstream.demo.exception;
+
+import java.util.UUID;
+
+import io.micronaut.http.HttpStatus;
+import io.micronaut.http.exceptions.HttpStatusException;
+
+public class MissingDataGenerationJobException extends HttpStatusException
+{
+    public MissingDataGenerationJobException(final UUID jobId)
+    {
+        super(HttpStatus.NOT_FOUND, "Could not find data generation job with id " + jobId);
+    }
+}
@@ -0,0 +1,12 @@
+package one.microstream.demo.exception;
+
+import io.micronaut.http.HttpStatus;
+import io.micronaut.http.exceptions.HttpStatusException;
+
+public class SearchDisabledException extends HttpStatusException
+{
+    public SearchDisabledException()
+    {
+        super(HttpStatus.SERVICE_UNAVAILABLE, "The full-text search is disabled");
+    }
+}
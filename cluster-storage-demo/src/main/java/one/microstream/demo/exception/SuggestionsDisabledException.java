@@ -0,0 +1,12 @@
+package one.microstream.demo.exception;
+
+import io.micronaut.http.HttpStatus;
+import io.micronaut.http.exceptions.HttpStatusException;
+
+public class SuggestionsDisabledException extends HttpStatusException
+{
+    public SuggestionsDisabledException()
+    {
+        super(HttpStatus.SERVICE_UNAVAILABLE, "The suggestions are disabled");
+    }
+}
@@ -3,12 +3,18 @@ package one.microstream.demo.gigamap;
 import java.util.UUID;
 
 import org.eclipse.store.gigamap.types.BinaryIndexerUUID;
+import org.eclipse.store.gigamap.types.IndexerLong;
 import org.eclipse.store.gigamap.types.IndexerString;
 
 import one.microstream.demo.domain.Author;
+import one.microstream.demo.domain.Sequence;
 
 public final class GigaMapAuthorIndices
 {
+    // Indexers are anonymous classes, persisted by their generated names in declaration order. The indexers of the
+    // first release are declared first in their original order, so their names still match stored GigaMaps, and later
+    // indexers are only appended.
+
     public static final BinaryIndexerUUID<Author> ID = new BinaryIndexerUUID.Abstract<>()
     {
         @Override
@@ -39,6 +45,40 @@ public final class GigaMapAuthorIndices
         }
     };
 
+    /**
+     * Indexes the {@link Sequence#block(long) block} of the sequence number, so the index has one key per
+     * {@link Sequence#BLOCK_SIZE} entities and range conditions only compare the keys of the blocks.
+     */
+    public static final IndexerLong<Author> SEQUENCE_BLOCK = new IndexerLong.Abstract<>()
+    {
+        @Override
+        public String name()
+        {
+            return "sequenceBlock";
+        }
+
+        @Override
+        protected Long getLong(final Author entity)
+        {
+            return Sequence.block(entity.sequence());
+        }
+    };
+
+    public static final IndexerTrigram<Author> NAME_TRIGRAMS = new IndexerTrigram<>()
+    {
+        @Override
+        public String name()
+        {
+            return "nameTrigrams";
+        }
+
+        @Override
+        protected String getString(final Author entity)
+        {
+            return entity.name();
+        }
+    };
+
     private GigaMapAuthorIndices()
     {
     }
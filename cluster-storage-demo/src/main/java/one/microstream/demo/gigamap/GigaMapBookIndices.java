@@ -1,12 +1,17 @@
 package one.microstream.demo.gigamap;
 
 import one.microstream.demo.domain.Book;
+import one.microstream.demo.domain.Sequence;
 import org.eclipse.store.gigamap.types.*;
 
 import java.util.UUID;
 
 public final class GigaMapBookIndices
 {
+    // Indexers are anonymous classes, persisted by their generated names in declaration order. The indexers of the
+    // first release are declared first in their original order, so their names still match stored GigaMaps, and later
+    // indexers are only appended.
+
     public static final BinaryIndexerUUID<Book> ID = new BinaryIndexerUUID.Abstract<>()
     {
         @Override
@@ -86,6 +91,55 @@ public final class GigaMapBookIndices
         }
     };
 
+    /**
+     * Indexes the {@link Sequence#block(long) block} of the sequence number, so the index has one key per
+     * {@link Sequence#BLOCK_SIZE} entities and range conditions only compare the keys of the blocks.
+     */
+    public static final IndexerLong<Book> SEQUENCE_BLOCK = new IndexerLong.Abstract<>()
+    {
+        @Override
+        public String name()
+        {
+            return "sequenceBlock";
+        }
+
+        @Override
+        protected Long getLong(final Book entity)
+        {
+            return Sequence.block(entity.sequence());
+        }
+    };
+
+    public static final BinaryIndexerUUID<Book> AUTHOR_ID = new BinaryIndexerUUID.Abstract<>()
+    {
+        @Override
+        public String name()
+        {
+            return "authorId";
+        }
+
+        @Override
+        protected UUID getUUID(final Book entity)
+        {
+            return entity.author().id();
+        }
+    };
+
+    public static final IndexerTrigram<Book> TITLE_TRIGRAMS = new IndexerTrigram<>()
+    {
+        @Override
+        public String name()
+        {
+            return "titleTrigrams";
+        }
+
+        @Override
+        protected String getString(final Book entity)
+        {
+            return entity.title();
+        }
+    };
+
     private GigaMapBookIndices()
     {
     }
@@ -0,0 +1,107 @@
+package one.microstream.demo.gigamap;
+
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+
+import org.eclipse.store.gigamap.types.Condition;
+import org.eclipse.store.gigamap.types.IndexerMultiValue;
+
+/**
+ * Trigram index for case-insensitive substring searches. Every entity is indexed under each sequence of three
+ * consecutive characters of its lower-cased string, so a substring search only has to intersect the bitmaps of the
+ * trigrams of the search text instead of testing every distinct string like
+ * {@link org.eclipse.store.gigamap.types.IndexerString#containsIgnoreCase(String)} does.
+ *
+ * <p>
+ * Containing all trigrams of the search text is necessary but not sufficient for containing the search text itself,
+ * so the found entities are only candidates which have to be verified with {@link #matches(Object, String)}. Search
+ * texts shorter than {@link #GRAM_LENGTH} have no trigram and can't be resolved by this index, see
+ * {@link #supports(String)}.
+ *
+ * @param <E> the entity type
+ */
+public abstract class IndexerTrigram<E> extends IndexerMultiValue.Abstract<E, String>
+{
+    public static final int GRAM_LENGTH = 3;
+
+    /**
+     * @param entity the indexed entity
+     * @return the string of the entity to index
+     */
+    protected abstract String getString(E entity);
+
+    @Override
+    public Iterable<? extends String> indexEntityMultiValue(final E entity)
+    {
+        return trigrams(normalize(this.getString(entity)));
+    }
+
+    @Override
+    public Class<String> keyType()
+    {
+        return String.class;
+    }
+
+    /**
+     * @param search the search text
+     * @return <code>true</code> if the search text is long enough to be resolved by this index
+     */
+    public boolean supports(final String search)
+    {
+        return search.length() >= GRAM_LENGTH;
+    }
+
+    /**
+     * Creates a condition matching every entity which contains all trigrams of the search text, ignoring case. The
+     * matching entities are candidates only and have to be verified with {@link #matches(Object, String)}.
+     *
+     * @param search the search text, at least {@link #GRAM_LENGTH} characters long
+     * @return the candidate condition
+     * @throws IllegalArgumentException if the search text is too short
+     */
+    public Condition<E> candidates(final String search)
+    {
+        if (!this.supports(search))
+        {
+            throw new IllegalArgumentException(
+                "Search text must contain at least " + GRAM_LENGTH + " characters: " + search
+            );
+        }
+        return this.all(this.trigramsOf(search).toArray(String[]::new));
+    }
+
+    /**
+     * @param search the search text
+     * @return the trigrams the search text is resolved with, the keys of this index
+     */
+    public Set<String> trigramsOf(final String search)
+    {
+        return trigrams(normalize(search));
+    }
+
+    /**
+     * @param entity a candidate entity
+     * @param search the search text
+     * @return <code>true</code> if the string of the entity contains the search text, ignoring case
+     */
+    public boolean matches(final E entity, final String search)
+    {
+        return normalize(this.getString(entity)).contains(normalize(search));
+    }
+
+    private static String normalize(final String value)
+    {
+        return value.toLowerCase(Locale.ROOT);
+    }
+
+    private static Set<String> trigrams(final String value)
+    {
+        final var trigrams = new LinkedHashSet<String>();
+        for (int i = 0; i + GRAM_LENGTH <= value.length(); i++)
+        {
+            trigrams.add(value.substring(i, i + GRAM_LENGTH));
+        }
+        return trigrams;
+    }
+}
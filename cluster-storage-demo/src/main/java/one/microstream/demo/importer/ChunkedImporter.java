@@ -0,0 +1,309 @@
+package one.microstream.demo.importer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.micronaut.context.annotation.Value;
+import io.micronaut.http.exceptions.HttpStatusException;
+import io.micronaut.json.JsonMapper;
+import jakarta.inject.Singleton;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import one.microstream.demo.dto.ImportResult;
+import one.microstream.demo.dto.ImportResult.ImportChunk;
+import one.microstream.demo.dto.InsertAuthor;
+import one.microstream.demo.dto.InsertBook;
+import one.microstream.demo.exception.InvalidImportException;
+import one.microstream.demo.repository.AuthorRepository;
+import one.microstream.demo.repository.BookRepository;
+
+/**
+ * Imports books and authors from NDJSON or CSV bodies of any size. The body is parsed incrementally and only one chunk
+ * of records is kept in memory. Every chunk is validated and inserted with its own write lock and
+ * <code>store()</code>, so other requests can proceed between chunks and the lock is never held for the whole
+ * import.
+ *
+ * <p>
+ * Chunks are committed independently, if a record is invalid the import stops and all chunks before the invalid one
+ * stay imported.
+ *
+ * <p>
+ * CSV bodies need a header line naming the columns. Books have the columns
+ * <code>isbn,title,description,pages,genres,publicationDate,authorId</code> with the genres separated by
+ * <code>;</code>, authors have the columns <code>name,about</code>. Books of an author can only be imported together
+ * with the author from NDJSON.
+ */
+@Singleton
+public class ChunkedImporter
+{
+    public static final int MAX_CHUNK_SIZE = 100_000;
+
+    private static final Logger LOG = LoggerFactory.getLogger(ChunkedImporter.class);
+    private static final List<String> BOOK_COLUMNS = List.of(
+        "isbn",
+        "title",
+        "description",
+        "pages",
+        "genres",
+        "publicationDate",
+        "authorId"
+    );
+    private static final List<String> AUTHOR_COLUMNS = List.of("name", "about");
+
+    private final BookRepository books;
+    private final AuthorRepository authors;
+    private final JsonMapper jsonMapper;
+    private final Validator validator;
+    private final int defaultChunkSize;
+
+    public ChunkedImporter(
+        final BookRepository books,
+        final AuthorRepository authors,
+        final JsonMapper jsonMapper,
+        final Validator validator,
+        @Value("${app.import.chunk-size:1000}") final int defaultChunkSize
+    )
+    {
+        this.books = books;
+        this.authors = authors;
+        this.jsonMapper = jsonMapper;
+        this.validator = validator;
+        this.defaultChunkSize = defaultChunkSize;
+    }
+
+    /**
+     * @return the chunk size used if none is specified
+     */
+    public int defaultChunkSize()
+    {
+        return this.defaultChunkSize;
+    }
+
+    /**
+     * Imports the books from the specified input.
+     *
+     * @param input     the NDJSON or CSV encoded books
+     * @param format    the format of the input
+     * @param chunkSize the amount of books inserted with one lock acquisition
+     * @return the progress of every imported chunk
+     * @throws InvalidImportException if a book could not be parsed or inserted
+     */
+    public ImportResult importBooks(final InputStream input, final ImportFormat format, final int chunkSize)
+        throws InvalidImportException
+    {
+        return this.importRecords(
+            this.records(input, format, InsertBook.class, BOOK_COLUMNS, ChunkedImporter::toInsertBook),
+            chunkSize,
+            this.books::insert
+        );
+    }
+
+    /**
+     * Imports the authors from the specified input.
+     *
+     * @param input     the NDJSON or CSV encoded authors
+     * @param format    the format of the input
+     * @param chunkSize the amount of authors inserted with one lock acquisition
+     * @return the progress of every imported chunk
+     * @throws InvalidImportException if an author could not be parsed or inserted
+     */
+    public ImportResult importAuthors(final InputStream input, final ImportFormat format, final int chunkSize)
+        throws InvalidImportException
+    {
+        return this.importRecords(
+            this.records(input, format, InsertAuthor.class, AUTHOR_COLUMNS, ChunkedImporter::toInsertAuthor),
+            chunkSize,
+            this.authors::insert
+        );
+    }
+
+    private <T> ImportResult importRecords(
+        final RecordSource<T> source,
+        final int chunkSize,
+        final Consumer<List<T>> insert
+    )
+    {
+        final var chunks = new ArrayList<ImportChunk>();
+        final var chunk = new ArrayList<T>(chunkSize);
+        long record = 0;
+        long imported = 0;
+        while (true)
+        {
+            final T next;
+            try
+            {
+                next = source.next();
+            }
+            catch (final IOException | RuntimeException e)
+            {
+                throw InvalidImportException.invalidRecord(record + 1, e.getMessage(), imported);
+            }
+            if (next != null)
+            {
+                record++;
+                this.validate(next, record, imported);
+                chunk.add(next);
+            }
+            if (chunk.size() == chunkSize || next == null && !chunk.isEmpty())
+            {
+                final long firstRecord = record - chunk.size() + 1;
+                final long start = System.nanoTime();
+                try
+                {
+                    insert.accept(chunk);
+                }
+                catch (final HttpStatusException e)
+                {
+                    throw InvalidImportException.invalidChunk(chunks.size(), firstRecord, e.getMessage(), imported);
+                }
+                final long durationMillis = (System.nanoTime() - start) / 1_000_000;
+                chunks.add(new ImportChunk(chunks.size(), firstRecord, chunk.size(), durationMillis));
+                imported += chunk.size();
+                LOG.info("Imported chunk {} with {} records in {} ms", chunks.size() - 1, chunk.size(), durationMillis);
+                chunk.clear();
+            }
+            if (next == null)
+            {
+                return new ImportResult(imported, chunks);
+            }
+        }
+    }
+
+    private <T> void validate(final T value, final long record, final long imported)
+    {
+        final var violations = this.validator.validate(value);
+        if (!violations.isEmpty())
+        {
+            final ConstraintViolation<T> violation = violations.iterator().next();
+            throw InvalidImportException.invalidRecord(
+                record,
+                violation.getPropertyPath() + " " + violation.getMessage(),
+                imported
+            );
+        }
+    }
+
+    private <T> RecordSource<T> records(
+        final InputStream input,
+        final ImportFormat format,
+        final Class<T> type,
+        final List<String> columns,
+        final Function<Map<String, String>, T> fromCsv
+    )
+    {
+        final var reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        return switch (format)
+        {
+            case NDJSON -> () ->
+            {
+                String line;
+                do
+                {
+                    line = reader.readLine();
+                }
+                while (line != null && line.isBlank());
+                return line == null ? null : this.jsonMapper.readValue(line, type);
+            };
+            case CSV -> csvRecords(new CsvReader(reader), columns, fromCsv);
+        };
+    }
+
+    private static <T> RecordSource<T> csvRecords(
+        final CsvReader reader,
+        final List<String> columns,
+        final Function<Map<String, String>, T> fromCsv
+    )
+    {
+        final List<String> header;
+        try
+        {
+            header = reader.next();
+        }
+        catch (final IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+        if (header == null || !header.containsAll(columns))
+        {
+            throw new InvalidImportException(
+                "CSV header %s must contain the columns %s".formatted(header, String.join(",", columns))
+            );
+        }
+
+        return () ->
+        {
+            List<String> fields;
+            do
+            {
+                fields = reader.next();
+            }
+            while (fields != null && fields.size() == 1 && fields.get(0).isBlank());
+            if (fields == null)
+            {
+                return null;
+            }
+            if (fields.size() != header.size())
+            {
+                throw new IllegalArgumentException(
+                    "Expected %d fields but found %d".formatted(header.size(), fields.size())
+                );
+            }
+            final var values = new HashMap<String, String>(header.size());
+            for (int i = 0; i < header.size(); i++)
+            {
+                values.put(header.get(i), fields.get(i));
+            }
+            return fromCsv.apply(values);
+        };
+    }
+
+    private static InsertBook toInsertBook(final Map<String, String> values)
+    {
+        return new InsertBook(
+            values.get("isbn"),
+            values.get("title"),
+            values.get("description"),
+            Integer.parseInt(values.get("pages")),
+            Arrays.stream(values.get("genres").split(";"))
+                .map(String::trim)
+                .filter(genre -> !genre.isEmpty())
+                .collect(Collectors.toSet()),
+            LocalDate.parse(values.get("publicationDate")),
+            UUID.fromString(values.get("authorId"))
+        );
+    }
+
+    private static InsertAuthor toInsertAuthor(final Map<String, String> values)
+    {
+        return new InsertAuthor(values.get("name"), values.get("about"), null);
+    }
+
+    /**
+     * Parses one record after the other from the input.
+     */
+    @FunctionalInterface
+    private interface RecordSource<T>
+    {
+        /**
+         * @return the next record or <code>null</code> if the end of the input has been reached
+         */
+        T next() throws IOException;
+    }
+}
@@ -0,0 +1,110 @@
+package one.microstream.demo.importer;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimal incremental reader for comma-separated values as described in RFC 4180. Fields may be enclosed in double
+ * quotes, in which case they can contain commas, line breaks and double quotes escaped as <code>""</code>. Only the
+ * current record is kept in memory.
+ */
+final class CsvReader
+{
+    private static final int EOF = -1;
+
+    private final Reader reader;
+    private int pending = EOF;
+
+    /**
+     * @param reader the buffered source of the values
+     */
+    CsvReader(final Reader reader)
+    {
+        this.reader = reader;
+    }
+
+    /**
+     * @return the fields of the next record or <code>null</code> if the end of the input has been reached
+     * @throws IOException          if the input could not be read
+     * @throws IllegalStateException if a quoted field is not closed
+     */
+    List<String> next() throws IOException
+    {
+        int c = this.read();
+        if (c == EOF)
+        {
+            return null;
+        }
+
+        final var fields = new ArrayList<String>();
+        final var field = new StringBuilder();
+        boolean quoted = false;
+        while (true)
+        {
+            if (quoted)
+            {
+                if (c == EOF)
+                {
+                    throw new IllegalStateException("Quoted field is not closed");
+                }
+                if (c == '"')
+                {
+                    final int next = this.read();
+                    if (next == '"')
+                    {
+                        field.append('"');
+                    }
+                    else
+                    {
+                        quoted = false;
+                        this.pending = next;
+                    }
+                }
+                else
+                {
+                    field.append((char)c);
+                }
+            }
+            else if (c == '"' && field.isEmpty())
+            {
+                quoted = true;
+            }
+            else if (c == ',')
+            {
+                fields.add(field.toString());
+                field.setLength(0);
+            }
+            else if (c == '\r' || c == '\n' || c == EOF)
+            {
+                if (c == '\r')
+                {
+                    final int next = this.read();
+                    if (next != '\n')
+                    {
+                        this.pending = next;
+                    }
+                }
+                fields.add(field.toString());
+                return fields;
+            }
+            else
+            {
+                field.append((char)c);
+            }
+            c = this.read();
+        }
+    }
+
+    private int read() throws IOException
+    {
+        if (this.pending != EOF)
+        {
+            final int c = this.pending;
+            this.pending = EOF;
+            return c;
+        }
+        return this.reader.read();
+    }
+}
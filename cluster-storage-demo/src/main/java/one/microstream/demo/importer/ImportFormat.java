@@ -0,0 +1,37 @@
+package one.microstream.demo.importer;
+
+import io.micronaut.http.MediaType;
+import one.microstream.demo.exception.InvalidImportException;
+
+/**
+ * The supported formats of an import body.
+ */
+public enum ImportFormat
+{
+    /**
+     * One JSON object per line.
+     */
+    NDJSON,
+    /**
+     * Comma-separated values with a header line naming the columns.
+     */
+    CSV;
+
+    public static final String APPLICATION_NDJSON = "application/x-ndjson";
+
+    /**
+     * @param contentType the content type of the request, parameters like the charset are ignored
+     * @return the matching format
+     * @throws InvalidImportException if the content type is not supported
+     */
+    public static ImportFormat of(final String contentType) throws InvalidImportException
+    {
+        final String type = contentType == null ? "" : MediaType.of(contentType).getName();
+        return switch (type)
+        {
+            case APPLICATION_NDJSON -> NDJSON;
+            case MediaType.TEXT_CSV -> CSV;
+            default -> throw InvalidImportException.unsupportedContentType(contentType);
+        };
+    }
+}
@@ -0,0 +1,131 @@
+package one.microstream.demo.job;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import one.microstream.demo.DataGenerator;
+import one.microstream.demo.dto.GetDataGenerationJob;
+
+/**
+ * State of one data generation running in the background. Progress is written by the generating thread and read by
+ * request threads, so all mutable state is either atomic or volatile.
+ */
+public final class DataGenerationJob implements DataGenerator.Progress
+{
+    /**
+     * The lifecycle of a job, every job ends in exactly one of the final states.
+     */
+    public enum Status
+    {
+        RUNNING,
+        COMPLETED,
+        CANCELLED,
+        FAILED
+    }
+
+    private final UUID id;
+    private final long total;
+    private final Instant started;
+    private final AtomicLong generated = new AtomicLong();
+    private volatile Status status = Status.RUNNING;
+    private volatile boolean cancelled;
+    private volatile Instant finished;
+    private volatile String error;
+
+    DataGenerationJob(final UUID id, final long total, final Instant started)
+    {
+        this.id = id;
+        this.total = total;
+        this.started = started;
+    }
+
+    public UUID id()
+    {
+        return this.id;
+    }
+
+    @Override
+    public void generated(final int rows)
+    {
+        this.generated.addAndGet(rows);
+    }
+
+    @Override
+    public boolean isCancelled()
+    {
+        return this.cancelled;
+    }
+
+    /**
+     * Requests the job to stop before storing the next chunk. Has no effect on finished jobs.
+     */
+    void cancel()
+    {
+        this.cancelled = true;
+    }
+
+    void complete(final Instant now)
+    {
+        this.finish(Status.COMPLETED, null, now);
+    }
+
+    void cancelled(final Instant now)
+    {
+        this.finish(Status.CANCELLED, null, now);
+    }
+
+    void fail(final Throwable cause, final Instant now)
+    {
+        this.finish(Status.FAILED, String.valueOf(cause.getMessage()), now);
+    }
+
+    /**
+     * @param now the current time
+     * @return <code>true</code> if the job has been finished before the specified time
+     */
+    boolean finishedBefore(final Instant now)
+    {
+        final Instant finished = this.finished;
+        return finished != null && finished.isBefore(now);
+    }
+
+    /**
+     * Creates a snapshot of the progress. Rows per second are averaged over the whole runtime, the remaining time is
+     * extrapolated from that rate and only available while the job is running.
+     *
+     * @param now the current time
+     * @return the progress of the job
+     */
+    public GetDataGenerationJob toDto(final Instant now)
+    {
+        final Status status = this.status;
+        final Instant end = status == Status.RUNNING ? now : this.finished;
+        final long generated = this.generated.get();
+        final long elapsedMillis = Math.max(1, Duration.between(this.started, end).toMillis());
+        final double rowsPerSecond = generated * 1000.0 / elapsedMillis;
+        final Long etaSeconds = status != Status.RUNNING || generated == 0
+            ? null
+            : (long)Math.ceil(Math.max(0, this.total - generated) / rowsPerSecond);
+        return new GetDataGenerationJob(
+            this.id,
+            status,
+            generated,
+            this.total,
+            rowsPerSecond,
+            etaSeconds,
+            this.started,
+            this.finished,
+            this.error
+        );
+    }
+
+    private void finish(final Status status, final String error, final Instant now)
+    {
+        this.error = error;
+        this.finished = now;
+        // written last, readers seeing a final status also see the other fields
+        this.status = status;
+    }
+}
@@ -0,0 +1,141 @@
+package one.microstream.demo.job;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.micronaut.context.annotation.Value;
+import io.micronaut.scheduling.TaskExecutors;
+import jakarta.inject.Named;
+import jakarta.inject.Singleton;
+import one.microstream.demo.DataGenerator;
+import one.microstream.demo.dto.GenerateData;
+import one.microstream.demo.dto.GetDataGenerationJob;
+import one.microstream.demo.exception.MissingDataGenerationJobException;
+import one.microstream.demo.repository.AuthorRepository;
+import one.microstream.demo.repository.BookRepository;
+import one.microstream.demo.repository.GenreRepository;
+
+/**
+ * Runs data generations in the background and keeps track of their progress. Jobs are only known to the node they
+ * have been started on and are forgotten after the configured retention once they have finished.
+ */
+@Singleton
+public class DataGenerationJobs
+{
+    private static final Logger LOG = LoggerFactory.getLogger(DataGenerationJobs.class);
+
+    private final GenreRepository genres;
+    private final AuthorRepository authors;
+    private final BookRepository books;
+    private final ExecutorService executor;
+    private final Duration retention;
+    private final Map<UUID, DataGenerationJob> jobs = new ConcurrentHashMap<>();
+
+    public DataGenerationJobs(
+        final GenreRepository genres,
+        final AuthorRepository authors,
+        final BookRepository books,
+        @Named(TaskExecutors.IO) final ExecutorService executor,
+        @Value("${app.data.job-retention:1h}") final Duration retention
+    )
+    {
+        this.genres = genres;
+        this.authors = authors;
+        this.books = books;
+        this.executor = executor;
+        this.retention = retention;
+    }
+
+    /**
+     * Starts a new data generation in the background.
+     *
+     * @param config the data generation configuration
+     * @return the progress of the started job
+     */
+    public GetDataGenerationJob start(final GenerateData config)
+    {
+        final Instant now = Instant.now();
+        this.jobs.values().removeIf(job -> job.finishedBefore(now.minus(this.retention)));
+
+        final var job = new DataGenerationJob(
+            UUID.randomUUID(),
+            (long)config.genreConf().count() + config.authorConf().count() + config.bookConf().count(),
+            now
+        );
+        final var generator = new DataGenerator(
+            this.genres,
+            this.authors,
+            this.books,
+            config.genreConf(),
+            config.authorConf(),
+            config.bookConf(),
+            job
+        );
+        this.jobs.put(job.id(), job);
+        this.executor.execute(() -> run(job, generator));
+        return job.toDto(now);
+    }
+
+    /**
+     * @param id the ID of the job
+     * @return the current progress of the job
+     * @throws MissingDataGenerationJobException if the job does not exist or has been forgotten
+     */
+    public GetDataGenerationJob get(final UUID id) throws MissingDataGenerationJobException
+    {
+        return this.job(id).toDto(Instant.now());
+    }
+
+    /**
+     * Requests the job to stop. The job stops before storing its next chunk, everything stored before is kept.
+     *
+     * @param id the ID of the job
+     * @return the current progress of the job
+     * @throws MissingDataGenerationJobException if the job does not exist or has been forgotten
+     */
+    public GetDataGenerationJob cancel(final UUID id) throws MissingDataGenerationJobException
+    {
+        final DataGenerationJob job = this.job(id);
+        job.cancel();
+        return job.toDto(Instant.now());
+    }
+
+    private DataGenerationJob job(final UUID id) throws MissingDataGenerationJobException
+    {
+        final DataGenerationJob job = this.jobs.get(id);
+        if (job == null)
+        {
+            throw new MissingDataGenerationJobException(id);
+        }
+        return job;
+    }
+
+    private static void run(final DataGenerationJob job, final DataGenerator generator)
+    {
+        LOG.info("Starting data generation job {}", job.id());
+        try
+        {
+            generator.generateData();
+            job.complete(Instant.now());
+            LOG.info("Data generation job {} completed", job.id());
+        }
+        catch (final CancellationException e)
+        {
+            job.cancelled(Instant.now());
+            LOG.info("Data generation job {} cancelled", job.id());
+        }
+        catch (final RuntimeException | Error e)
+        {
+            job.fail(e, Instant.now());
+            LOG.error("Data generation job {} failed", job.id(), e);
+        }
+    }
+}
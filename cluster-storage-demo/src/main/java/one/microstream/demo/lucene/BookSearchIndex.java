@@ -0,0 +1,338 @@
+package one.microstream.demo.lucene;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.SegmentInfos;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.classic.MultiFieldQueryParser;
+import org.apache.lucene.queryparser.classic.ParseException;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.eclipse.serializer.reference.Lazy;
+
+import io.micronaut.context.annotation.Value;
+import io.micronaut.scheduling.annotation.Scheduled;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Singleton;
+import one.microstream.demo.domain.Book;
+import one.microstream.demo.exception.InvalidSearchQueryException;
+import one.microstream.demo.exception.SearchDisabledException;
+
+/**
+ * Lucene full-text index over the title and description of every book. The index only stores the book IDs, the books
+ * themselves are resolved through the books GigaMap.
+ *
+ * <p>
+ * Modifications are made visible to searches by a near-real-time refresh of the searcher, which does not sync any file.
+ * The index files are committed periodically and on shutdown. If the node stops without committing, the index is
+ * marked as inconsistent and rebuilt from the books on the next start. All modifications are expected to happen
+ * while holding the write lock of the books, the same way the books GigaMap is modified.
+ *
+ * <p>
+ * Documents are added, replaced and deleted by the repositories after their commits. On a replica, books arrive from
+ * the message queues without any document being touched, so text searches there miss new books and still find deleted
+ * ones until the next start rebuilds the index. The index is therefore opened only if
+ * <code>app.lucene.index.book.enabled</code> is set, otherwise searches fail with a {@link SearchDisabledException}.
+ */
+@Singleton
+public class BookSearchIndex implements AutoCloseable
+{
+    private static final String FIELD_ID = "id";
+    private static final String FIELD_TITLE = "title";
+    private static final String FIELD_DESCRIPTION = "description";
+    private static final Map<String, Float> FIELD_BOOSTS = Map.of(FIELD_TITLE, 2.0f, FIELD_DESCRIPTION, 1.0f);
+    // commit user data, only set to true by the last commit before the index is closed
+    private static final String CLOSED_CLEANLY = "closedCleanly";
+
+    private final boolean enabled;
+    private final boolean consistent;
+    private final Directory directory;
+    private final Analyzer analyzer;
+    private final IndexWriter writer;
+    private final SearcherManager searcherManager;
+
+    public BookSearchIndex(
+        @Value("${app.lucene.index.book.enabled:false}") final boolean enabled,
+        @Value("${app.lucene.index.book.storage-directory}") final String storageDirectory
+    )
+        throws IOException
+    {
+        this.enabled = enabled;
+        this.analyzer = new StandardAnalyzer();
+        if (!enabled)
+        {
+            this.consistent = false;
+            this.directory = null;
+            this.writer = null;
+            this.searcherManager = null;
+            return;
+        }
+
+        this.directory = FSDirectory.open(Path.of(storageDirectory));
+        this.consistent = DirectoryReader.indexExists(this.directory)
+            && Boolean.parseBoolean(SegmentInfos.readLatestCommit(this.directory).getUserData().get(CLOSED_CLEANLY));
+        this.writer = new IndexWriter(
+            this.directory,
+            new IndexWriterConfig(this.analyzer).setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND)
+        );
+        // if the node stops without closing the index, the next start finds it marked as inconsistent
+        this.writer.setLiveCommitData(Map.of(CLOSED_CLEANLY, Boolean.FALSE.toString()).entrySet());
+        this.writer.commit();
+        this.searcherManager = new SearcherManager(this.writer, null);
+    }
+
+    /**
+     * @return <code>true</code> if the index is enabled by <code>app.lucene.index.book.enabled</code>
+     */
+    public boolean enabled()
+    {
+        return this.enabled;
+    }
+
+    /**
+     * @return <code>false</code> if the index is disabled, new, or has not been closed cleanly before, so modifications
+     *         since its last commit may be lost
+     */
+    public boolean consistent()
+    {
+        return this.consistent;
+    }
+
+    /**
+     * @return the amount of books in the index
+     */
+    public long size()
+    {
+        return this.enabled ? this.writer.getDocStats().numDocs : 0L;
+    }
+
+    /**
+     * Replaces the whole index with the specified books. Lazy descriptions which are not loaded are only loaded while
+     * their book is indexed and unloaded again afterward, so rebuilding the index does not keep every description in
+     * memory.
+     *
+     * @param books every stored book
+     */
+    public void rebuild(final Iterable<Book> books)
+    {
+        if (!this.enabled)
+        {
+            return;
+        }
+        try
+        {
+            this.writer.deleteAll();
+            for (final Book book : books)
+            {
+                final Lazy<CharSequence> lazyDescription = book.lazyDescription();
+                final boolean unloaded = lazyDescription != null && !lazyDescription.isLoaded();
+                this.writer.addDocument(toDocument(book));
+                // only stored references can be reloaded after clearing them
+                if (unloaded && lazyDescription.isStored())
+                {
+                    lazyDescription.clear();
+                }
+            }
+            this.writer.commit();
+            this.searcherManager.maybeRefreshBlocking();
+        }
+        catch (final IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Adds the specified books to the index or replaces them if they have been indexed already.
+     *
+     * @param books the new or updated books
+     */
+    public void put(final Iterable<Book> books)
+    {
+        if (!this.enabled)
+        {
+            return;
+        }
+        try
+        {
+            for (final Book book : books)
+            {
+                this.writer.updateDocument(idTerm(book.id()), toDocument(book));
+            }
+            this.refresh();
+        }
+        catch (final IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Removes the books with the specified IDs from the index.
+     *
+     * @param ids the IDs of the removed books
+     */
+    public void delete(final Iterable<UUID> ids)
+    {
+        if (!this.enabled)
+        {
+            return;
+        }
+        try
+        {
+            final var terms = new ArrayList<Term>();
+            ids.forEach(id -> terms.add(idTerm(id)));
+            this.writer.deleteDocuments(terms.toArray(Term[]::new));
+            this.refresh();
+        }
+        catch (final IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Searches the title and description of all books with the specified Lucene query. Matches in the title are
+     * ranked higher than matches in the description.
+     *
+     * @param queryText the query in the Lucene classic query syntax
+     * @param limit     the maximum amount of hits
+     * @return the hits ordered by descending score
+     * @throws InvalidSearchQueryException if the query could not be parsed
+     * @throws SearchDisabledException     if the index is disabled
+     */
+    public List<Hit> search(final String queryText, final int limit) throws InvalidSearchQueryException
+    {
+        if (!this.enabled)
+        {
+            throw new SearchDisabledException();
+        }
+        final Query query;
+        try
+        {
+            // query parsers are not thread-safe, so a new one is created for every search
+            query = new MultiFieldQueryParser(
+                new String[]{FIELD_TITLE, FIELD_DESCRIPTION},
+                this.analyzer,
+                FIELD_BOOSTS
+            ).parse(queryText);
+        }
+        catch (final ParseException e)
+        {
+            throw new InvalidSearchQueryException(queryText, e);
+        }
+
+        try
+        {
+            final IndexSearcher searcher = this.searcherManager.acquire();
+            try
+            {
+                final TopDocs topDocs = searcher.search(query, limit);
+                final StoredFields storedFields = searcher.storedFields();
+                final List<Hit> hits = new ArrayList<>(topDocs.scoreDocs.length);
+                for (final ScoreDoc scoreDoc : topDocs.scoreDocs)
+                {
+                    final String id = storedFields.document(scoreDoc.doc, Set.of(FIELD_ID)).get(FIELD_ID);
+                    hits.add(new Hit(UUID.fromString(id), scoreDoc.score));
+                }
+                return hits;
+            }
+            finally
+            {
+                this.searcherManager.release(searcher);
+            }
+        }
+        catch (final IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Commits the modifications since the last commit to the index files.
+     */
+    @Scheduled(
+        fixedDelay = "${app.lucene.index.book.commit-interval:10s}",
+        initialDelay = "${app.lucene.index.book.commit-interval:10s}"
+    )
+    void commit()
+    {
+        if (!this.enabled || !this.writer.hasUncommittedChanges())
+        {
+            return;
+        }
+        try
+        {
+            this.writer.commit();
+        }
+        catch (final IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @PreDestroy
+    @Override
+    public void close() throws IOException
+    {
+        if (!this.enabled)
+        {
+            return;
+        }
+        this.searcherManager.close();
+        this.writer.setLiveCommitData(Map.of(CLOSED_CLEANLY, Boolean.TRUE.toString()).entrySet());
+        this.writer.commit();
+        this.writer.close();
+        this.directory.close();
+    }
+
+    private void refresh() throws IOException
+    {
+        // make the changes visible to new searches before the write lock is released, without syncing the files
+        this.searcherManager.maybeRefreshBlocking();
+    }
+
+    private static Term idTerm(final UUID id)
+    {
+        return new Term(FIELD_ID, id.toString());
+    }
+
+    private static Document toDocument(final Book book)
+    {
+        final var document = new Document();
+        document.add(new StringField(FIELD_ID, book.id().toString(), Field.Store.YES));
+        document.add(new TextField(FIELD_TITLE, book.title(), Field.Store.NO));
+        document.add(new TextField(FIELD_DESCRIPTION, book.description(), Field.Store.NO));
+        return document;
+    }
+
+    /**
+     * @param id    the ID of the found book
+     * @param score the relevance of the book for the query
+     */
+    public record Hit(UUID id, float score)
+    {
+    }
+}
@@ -0,0 +1,28 @@
+package one.microstream.demo.management;
+
+import java.util.Map;
+
+import io.micronaut.management.endpoint.annotation.Endpoint;
+import io.micronaut.management.endpoint.annotation.Read;
+import one.microstream.demo.cache.ResponseCaches;
+import one.microstream.demo.dto.CacheMetrics;
+
+/**
+ * Management endpoint exposing the hit ratio and size of the response caches at <code>/caches</code>.
+ */
+@Endpoint(id = "caches", defaultSensitive = false)
+public class CachesEndpoint
+{
+    private final ResponseCaches caches;
+
+    public CachesEndpoint(final ResponseCaches caches)
+    {
+        this.caches = caches;
+    }
+
+    @Read
+    public Map<String, CacheMetrics> caches()
+    {
+        return this.caches.metrics();
+    }
+}
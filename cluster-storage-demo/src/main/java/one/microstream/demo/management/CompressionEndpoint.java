@@ -0,0 +1,26 @@
+package one.microstream.demo.management;
+
+import io.micronaut.management.endpoint.annotation.Endpoint;
+import io.micronaut.management.endpoint.annotation.Read;
+import one.microstream.demo.dto.CompressionMetrics;
+import one.microstream.demo.repository.BookDescriptions;
+
+/**
+ * Management endpoint exposing the compression ratio of the book descriptions at <code>/compression</code>.
+ */
+@Endpoint(id = "compression", defaultSensitive = false)
+public class CompressionEndpoint
+{
+    private final BookDescriptions descriptions;
+
+    public CompressionEndpoint(final BookDescriptions descriptions)
+    {
+        this.descriptions = descriptions;
+    }
+
+    @Read
+    public CompressionMetrics bookDescriptions()
+    {
+        return this.descriptions.metrics();
+    }
+}
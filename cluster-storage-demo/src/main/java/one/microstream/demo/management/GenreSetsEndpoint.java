@@ -0,0 +1,26 @@
+package one.microstream.demo.management;
+
+import io.micronaut.management.endpoint.annotation.Endpoint;
+import io.micronaut.management.endpoint.annotation.Read;
+import one.microstream.demo.dto.GenreSetMetrics;
+import one.microstream.demo.repository.BookRepository;
+
+/**
+ * Management endpoint exposing how many canonical genre sets are shared by the books at <code>/genresets</code>.
+ */
+@Endpoint(id = "genresets", defaultSensitive = false)
+public class GenreSetsEndpoint
+{
+    private final BookRepository books;
+
+    public GenreSetsEndpoint(final BookRepository books)
+    {
+        this.books = books;
+    }
+
+    @Read
+    public GenreSetMetrics genreSets()
+    {
+        return this.books.genreSetMetrics();
+    }
+}
@@ -0,0 +1,28 @@
+package one.microstream.demo.management;
+
+import java.util.Map;
+
+import io.micronaut.management.endpoint.annotation.Endpoint;
+import io.micronaut.management.endpoint.annotation.Read;
+import one.microstream.demo.dto.LazyReferenceMetrics;
+import one.microstream.demo.repository.AuthorRepository;
+
+/**
+ * Management endpoint exposing the loaded and unloaded book maps of the authors at <code>/lazy</code>.
+ */
+@Endpoint(id = "lazy", defaultSensitive = false)
+public class LazyReferencesEndpoint
+{
+    private final AuthorRepository authors;
+
+    public LazyReferencesEndpoint(final AuthorRepository authors)
+    {
+        this.authors = authors;
+    }
+
+    @Read
+    public Map<String, LazyReferenceMetrics> lazyReferences()
+    {
+        return Map.of("author-books", this.authors.bookMapMetrics());
+    }
+}
@@ -0,0 +1,28 @@
+package one.microstream.demo.management;
+
+import java.util.Map;
+
+import io.micronaut.management.endpoint.annotation.Endpoint;
+import io.micronaut.management.endpoint.annotation.Read;
+import one.microstream.demo.dto.LockMetrics;
+import one.microstream.demo.repository.AggregateLocks;
+
+/**
+ * Management endpoint exposing the metrics of the aggregate locks at <code>/locks</code>.
+ */
+@Endpoint(id = "locks", defaultSensitive = false)
+public class LocksEndpoint
+{
+    private final AggregateLocks locks;
+
+    public LocksEndpoint(final AggregateLocks locks)
+    {
+        this.locks = locks;
+    }
+
+    @Read
+    public Map<String, LockMetrics> locks()
+    {
+        return this.locks.metrics();
+    }
+}
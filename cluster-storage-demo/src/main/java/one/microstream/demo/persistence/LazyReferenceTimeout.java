@@ -0,0 +1,36 @@
+package one.microstream.demo.persistence;
+
+import java.time.Duration;
+
+import org.eclipse.serializer.reference.Lazy;
+import org.eclipse.serializer.reference.LazyReferenceManager;
+import org.eclipse.store.storage.embedded.types.EmbeddedStorageFoundation;
+
+import io.micronaut.context.annotation.Value;
+import io.micronaut.context.event.BeanCreatedEvent;
+import io.micronaut.context.event.BeanCreatedEventListener;
+import jakarta.inject.Singleton;
+
+/**
+ * Configures the timeout of the global {@link LazyReferenceManager} before the storage is started. The manager
+ * periodically clears the stored {@link Lazy} references which have not been accessed within the timeout, e.g. the
+ * book maps of the authors, lazily held book descriptions and the segments of the GigaMaps. The next access loads them
+ * from the storage again.
+ */
+@Singleton
+public class LazyReferenceTimeout implements BeanCreatedEventListener<EmbeddedStorageFoundation<?>>
+{
+    private final Duration timeout;
+
+    public LazyReferenceTimeout(@Value("${app.lazy.timeout:10m}") final Duration timeout)
+    {
+        this.timeout = timeout;
+    }
+
+    @Override
+    public EmbeddedStorageFoundation<?> onCreated(final BeanCreatedEvent<EmbeddedStorageFoundation<?>> event)
+    {
+        LazyReferenceManager.set(LazyReferenceManager.New(Lazy.Checker(this.timeout.toMillis())));
+        return event.getBean();
+    }
+}
@@ -0,0 +1,39 @@
+package one.microstream.demo.persistence;
+
+import io.micronaut.context.event.BeanCreatedEvent;
+import io.micronaut.context.event.BeanCreatedEventListener;
+import jakarta.inject.Singleton;
+import one.microstream.demo.domain.BinaryHandlerCompressedText;
+import one.microstream.demo.domain.BinaryLegacyHandlerCompressedText;
+import org.eclipse.store.storage.embedded.types.EmbeddedStorageFoundation;
+
+/**
+ * Registers the custom type handler of {@link one.microstream.demo.domain.CompressedText} with the storage before it
+ * is started, together with the legacy type handler loading the texts stored with the generic layout before. Books and
+ * authors are records and keep the generic record handling of EclipseStore, which creates them with their canonical
+ * constructor.
+ */
+@Singleton
+public class StorageFoundationCustomizer implements BeanCreatedEventListener<EmbeddedStorageFoundation<?>>
+{
+    @Override
+    public EmbeddedStorageFoundation<?> onCreated(final BeanCreatedEvent<EmbeddedStorageFoundation<?>> event)
+    {
+        return registerTypeHandlers(event.getBean());
+    }
+
+    /**
+     * @param foundation the foundation of a storage which has not been started yet
+     * @return the specified foundation
+     */
+    public static <F extends EmbeddedStorageFoundation<?>> F registerTypeHandlers(final F foundation)
+    {
+        foundation.onConnectionFoundation(connectionFoundation ->
+        {
+            connectionFoundation.registerCustomTypeHandlers(BinaryHandlerCompressedText.New());
+            connectionFoundation.getCustomTypeHandlerRegistry()
+                .registerLegacyTypeHandler(BinaryLegacyHandlerCompressedText.New());
+        });
+        return foundation;
+    }
+}
@@ -0,0 +1,24 @@
+package one.microstream.demo.repository;
+
+/**
+ * The parts of the data which are locked independently of each other, so e.g. a book import does not block author
+ * lookups. Operations spanning several aggregates acquire their locks in the declaration order of this enum, which
+ * rules out deadlocks between them.
+ *
+ * @see AggregateLocks
+ */
+public enum Aggregate
+{
+    /**
+     * The genre set.
+     */
+    GENRES,
+    /**
+     * The authors GigaMap and the author name suggestions.
+     */
+    AUTHORS,
+    /**
+     * The books GigaMap, the book sets of the authors, the full-text search index and the title suggestions.
+     */
+    BOOKS
+}
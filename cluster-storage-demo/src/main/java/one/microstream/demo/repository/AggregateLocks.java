@@ -0,0 +1,163 @@
+package one.microstream.demo.repository;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+import org.eclipse.datagrid.cluster.nodelibrary.types.ClusterLockScope;
+import org.eclipse.serializer.concurrency.LockedExecutor;
+
+import jakarta.inject.Singleton;
+import one.microstream.demo.dto.LockMetrics;
+
+/**
+ * Read/write locks per {@link Aggregate} within the cluster-wide lock, metering how the operations on every aggregate
+ * contend with each other.
+ *
+ * <p>
+ * Every operation holds the cluster-wide read lock while it runs, whether it reads or writes, and is separated from the
+ * operations on other aggregates only by the aggregate locks. So a book import does not block author lookups or genre
+ * writes, while writes to the same aggregate still exclude each other and the reads of that aggregate. Each operation
+ * stores its modifications with its own storer, which the storage commits atomically, so operations writing different
+ * aggregates may store concurrently. The background threads applying data received from message queues take the
+ * cluster-wide write lock of the node library, so they still exclude every operation. Within the cluster-wide lock, the
+ * aggregate locks of an operation are always acquired in the order of {@link Aggregate}. An operation must acquire all
+ * its locks at once and must not call another locked operation.
+ */
+@Singleton
+public class AggregateLocks extends ClusterLockScope
+{
+    private final Map<Aggregate, MeteredLock> locks = new EnumMap<>(Aggregate.class);
+
+    public AggregateLocks(final LockedExecutor executor)
+    {
+        super(executor);
+        for (final Aggregate aggregate : Aggregate.values())
+        {
+            this.locks.put(aggregate, new MeteredLock());
+        }
+    }
+
+    /**
+     * Runs the operation holding the cluster-wide read lock and the locks of the specified aggregates.
+     *
+     * @param locking   the aggregates the operation reads and writes
+     * @param operation the operation to run
+     * @param <T>       the result type
+     * @return the result of the operation
+     */
+    public <T> T execute(final Locking locking, final Supplier<T> operation)
+    {
+        return super.read(() -> this.executeLocked(locking, operation));
+    }
+
+    private <T> T executeLocked(final Locking locking, final Supplier<T> operation)
+    {
+        final List<Lock> acquired = new ArrayList<>(Aggregate.values().length);
+        try
+        {
+            for (final Aggregate aggregate : Aggregate.values())
+            {
+                final MeteredLock lock = this.locks.get(aggregate);
+                if (locking.writes().contains(aggregate))
+                {
+                    acquired.add(lock.acquireWrite());
+                }
+                else if (locking.reads().contains(aggregate))
+                {
+                    acquired.add(lock.acquireRead());
+                }
+            }
+            return operation.get();
+        }
+        finally
+        {
+            for (int i = acquired.size(); i-- > 0;)
+            {
+                acquired.get(i).unlock();
+            }
+        }
+    }
+
+    /**
+     * Runs the operation holding the locks of the specified aggregates.
+     *
+     * @param locking   the aggregates the operation reads and writes
+     * @param operation the operation to run
+     */
+    public void run(final Locking locking, final Runnable operation)
+    {
+        this.execute(locking, () ->
+        {
+            operation.run();
+            return null;
+        });
+    }
+
+    /**
+     * @return the metrics of the lock of every aggregate, keyed by the lowercase aggregate name
+     */
+    public Map<String, LockMetrics> metrics()
+    {
+        final var metrics = new TreeMap<String, LockMetrics>();
+        this.locks.forEach((aggregate, lock) -> metrics.put(aggregate.name().toLowerCase(Locale.ROOT), lock.metrics()));
+        return metrics;
+    }
+
+    private static final class MeteredLock
+    {
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private final LongAdder readAcquisitions = new LongAdder();
+        private final LongAdder writeAcquisitions = new LongAdder();
+        private final LongAdder contendedAcquisitions = new LongAdder();
+        private final LongAdder totalWaitNanos = new LongAdder();
+        private final LongAccumulator maxWaitNanos = new LongAccumulator(Math::max, 0);
+
+        Lock acquireRead()
+        {
+            this.readAcquisitions.increment();
+            return this.acquire(this.lock.readLock());
+        }
+
+        Lock acquireWrite()
+        {
+            this.writeAcquisitions.increment();
+            return this.acquire(this.lock.writeLock());
+        }
+
+        private Lock acquire(final Lock lock)
+        {
+            if (!lock.tryLock())
+            {
+                final long start = System.nanoTime();
+                lock.lock();
+                final long waited = System.nanoTime() - start;
+                this.contendedAcquisitions.increment();
+                this.totalWaitNanos.add(waited);
+                this.maxWaitNanos.accumulate(waited);
+            }
+            return lock;
+        }
+
+        LockMetrics metrics()
+        {
+            return new LockMetrics(
+                this.readAcquisitions.sum(),
+                this.writeAcquisitions.sum(),
+                this.contendedAcquisitions.sum(),
+                TimeUnit.NANOSECONDS.toMicros(this.totalWaitNanos.sum()),
+                TimeUnit.NANOSECONDS.toMicros(this.maxWaitNanos.get()),
+                this.lock.getQueueLength()
+            );
+        }
+    }
+}
@@ -1,55 +1,129 @@
 package one.microstream.demo.repository;
 
 import io.micronaut.eclipsestore.RootProvider;
+import jakarta.annotation.PostConstruct;
 import jakarta.inject.Singleton;
+import one.microstream.demo.cache.ResponseCache;
+import one.microstream.demo.cache.ResponseCaches;
 import one.microstream.demo.domain.Author;
 import one.microstream.demo.domain.Book;
 import one.microstream.demo.domain.DataRoot;
+import one.microstream.demo.domain.Sequence;
 import one.microstream.demo.dto.GetAuthorById;
+import one.microstream.demo.dto.GetAuthorById.GetAuthorByIdBookDto;
 import one.microstream.demo.dto.InsertAuthor;
 import one.microstream.demo.dto.InsertAuthor.InsertAuthorBook;
+import one.microstream.demo.dto.LazyReferenceMetrics;
+import one.microstream.demo.dto.Page;
 import one.microstream.demo.dto.SearchAuthorByName;
 import one.microstream.demo.dto.UpdateAuthor;
+import one.microstream.demo.exception.InvalidCursorException;
 import one.microstream.demo.exception.InvalidGenreException;
 import one.microstream.demo.exception.InvalidIsbnException;
 import one.microstream.demo.exception.MissingAuthorException;
 import one.microstream.demo.gigamap.GigaMapAuthorIndices;
 import one.microstream.demo.gigamap.GigaMapBookIndices;
-import org.eclipse.datagrid.cluster.nodelibrary.types.ClusterLockScope;
-import org.eclipse.serializer.concurrency.LockedExecutor;
+import one.microstream.demo.lucene.BookSearchIndex;
+import one.microstream.demo.suggest.PrefixIndex;
+import one.microstream.demo.suggest.SuggestionIndex;
 import org.eclipse.serializer.reference.Lazy;
+import org.eclipse.store.gigamap.types.Condition;
 import org.eclipse.store.gigamap.types.GigaMap;
 
 import java.util.*;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 /**
- * Repository for finding and modifying authors. All methods hold a cluster-wide
- * read or write lock to ensure consistency with background threads modifying
- * data received from message queues.
+ * Repository for finding and modifying authors. All methods hold the read or
+ * write locks of the aggregates they access, see {@link AggregateLocks}.
  * 
  * <p>
  * Note: All results returned from search queries are limited to
- * {@link AuthorRepository#DEFAULT_PAGE_SIZE}
+ * {@link AuthorRepository#DEFAULT_PAGE_SIZE}. Name searches are paged, the
+ * returned {@link Page#nextCursor()} continues the search after the last
+ * returned author.
  */
 @Singleton
-public class AuthorRepository extends ClusterLockScope
+public class AuthorRepository
 {
-    private static final int DEFAULT_PAGE_SIZE = 512;
+    public static final int DEFAULT_PAGE_SIZE = 512;
+    /**
+     * The amount of books returned with an author, the remaining books are paged with
+     * {@link GetAuthorById#nextBooksCursor()}.
+     */
+    public static final int BOOKS_PAGE_SIZE = 50;
+
+    private static final Locking READ = Locking.reading(Aggregate.AUTHORS);
+    private static final Locking READ_WITH_BOOKS = Locking.reading(Aggregate.AUTHORS, Aggregate.BOOKS);
+    private static final Locking WRITE = Locking.writing(Aggregate.AUTHORS);
+    private static final Locking WRITE_WITH_BOOKS = Locking.writing(Aggregate.AUTHORS, Aggregate.BOOKS)
+        .alsoReading(Aggregate.GENRES);
 
+    private final AggregateLocks locks;
     private final GigaMap<Author> authors;
     private final GigaMap<Book> books;
-    private final Set<String> genres;
+    private final GenreRepository genreRepository;
+    private final Sequence authorSequence;
+    private final Sequence bookSequence;
+    private final GroupCommitter committer;
+    private final WriteStamp writeStamp;
+    private final ResponseCache bookResponses;
+    private final ResponseCache authorResponses;
+    private final BookSearchIndex searchIndex;
+    private final PrefixIndex nameSuggestions;
+    private final PrefixIndex titleSuggestions;
+    private final BookDescriptions descriptions;
+    private final IdGenerator ids;
 
     public AuthorRepository(
-        final LockedExecutor executor,
-        final RootProvider<DataRoot> rootProvider
+        final AggregateLocks locks,
+        final RootProvider<DataRoot> rootProvider,
+        final GenreRepository genreRepository,
+        final GroupCommitter committer,
+        final WriteStamp writeStamp,
+        final ResponseCaches responseCaches,
+        final BookSearchIndex searchIndex,
+        final SuggestionIndex suggestionIndex,
+        final BookDescriptions descriptions,
+        final IdGenerator ids
     )
     {
-        super(executor);
+        this.locks = locks;
         final var root = rootProvider.root();
         this.authors = root.authors();
         this.books = root.books();
-        this.genres = root.genres();
+        this.genreRepository = genreRepository;
+        this.authorSequence = root.authorSequence();
+        this.bookSequence = root.bookSequence();
+        this.committer = committer;
+        this.writeStamp = writeStamp;
+        this.bookResponses = responseCaches.books();
+        this.authorResponses = responseCaches.authors();
+        this.searchIndex = searchIndex;
+        this.nameSuggestions = suggestionIndex.authorNames();
+        this.titleSuggestions = suggestionIndex.bookTitles();
+        this.descriptions = descriptions;
+        this.ids = ids;
+    }
+
+    /**
+     * Builds the in-memory name suggestions from the authors {@link GigaMap} if they are enabled.
+     */
+    @PostConstruct
+    void buildSuggestions()
+    {
+        this.locks.run(WRITE, () ->
+        {
+            this.nameSuggestions.clear();
+            if (this.nameSuggestions.enabled())
+            {
+                try (final var storedAuthors = this.authors.query().stream())
+                {
+                    storedAuthors.forEach(author -> this.nameSuggestions.add(author.name()));
+                }
+            }
+        });
     }
 
     /**
@@ -67,22 +141,21 @@ public class AuthorRepository extends ClusterLockScope
     {
         final var returnDtos = new ArrayList<GetAuthorById>(insert.size());
 
-        this.write(() ->
+        this.committer.commit(WRITE_WITH_BOOKS, stores ->
         {
             this.validateInsert(insert);
 
-            boolean modifiedBooks = false;
+            final var newBooks = new ArrayList<Book>();
 
             for (final var insertAuthor : insert)
             {
                 final var author = new Author(
-                    UUID.randomUUID(),
+                    this.ids.next(),
+                    this.authorSequence.next(),
                     insertAuthor.name(),
                     insertAuthor.about(),
-                    Lazy.Reference(new HashSet<>())
+                    Lazy.Reference(new LinkedHashMap<>())
                 );
-                returnDtos.add(GetAuthorById.from(author));
-
                 List<Book> authorBooks = null;
                 if (insertAuthor.books() != null)
                 {
@@ -90,36 +163,44 @@ public class AuthorRepository extends ClusterLockScope
                         .stream()
                         .map(
                             b -> new Book(
-                                UUID.randomUUID(),
+                                this.ids.next(),
+                                this.bookSequence.next(),
                                 b.isbn(),
                                 b.title(),
-                                b.description(),
+                                this.descriptions.encode(b.description()),
+                                this.descriptions.lazy(),
                                 b.pages(),
-                                b.genres(),
+                                this.genreRepository.canonical(b.genres(), stores),
                                 b.publicationDate(),
                                 author
                             )
                         )
                         .toList();
-                    author.books().get().addAll(authorBooks);
+                    authorBooks.forEach(book -> author.books().get().put(book.id(), book));
                 }
 
                 this.authors.add(author);
+                this.nameSuggestions.add(author.name());
+                returnDtos.add(this.toDto(author));
 
                 if (authorBooks != null)
                 {
                     this.books.addAll(authorBooks);
-                    modifiedBooks = true;
+                    newBooks.addAll(authorBooks);
                 }
             }
 
             if (!insert.isEmpty())
             {
-                this.authors.store();
+                stores.store(this.authors);
+                stores.store(this.authorSequence);
 
-                if (modifiedBooks)
+                if (!newBooks.isEmpty())
                 {
-                    this.books.store();
+                    stores.store(this.books);
+                    stores.store(this.bookSequence);
+                    stores.afterCommit(() -> this.searchIndex.put(newBooks));
+                    newBooks.forEach(book -> this.titleSuggestions.add(book.title()));
                 }
             }
         });
@@ -138,13 +219,18 @@ public class AuthorRepository extends ClusterLockScope
      */
     public void update(final UUID id, final UpdateAuthor update) throws MissingAuthorException
     {
-        this.write(() ->
+        this.committer.commit(WRITE, stores ->
         {
             final Author author = this.authors.query(GigaMapAuthorIndices.ID.is(id))
                 .findFirst()
                 .orElseThrow(() -> new MissingAuthorException(id));
-            this.authors.replace(author, new Author(id, update.name(), update.about(), author.books()));
-            this.authors.store();
+            this.authors.replace(
+                author,
+                new Author(id, author.sequence(), update.name(), update.about(), author.books())
+            );
+            stores.store(this.authors);
+            this.nameSuggestions.replace(author.name(), update.name());
+            stores.afterCommit(() -> this.authorResponses.invalidate(id));
         });
     }
 
@@ -158,7 +244,7 @@ public class AuthorRepository extends ClusterLockScope
      */
     public void delete(final Iterable<UUID> ids) throws MissingAuthorException
     {
-        this.write(() ->
+        this.committer.commit(WRITE_WITH_BOOKS, stores ->
         {
             final var cachedAuthors = new ArrayList<Author>();
             for (final UUID id : ids)
@@ -172,16 +258,31 @@ public class AuthorRepository extends ClusterLockScope
             }
             if (!cachedAuthors.isEmpty())
             {
+                // all books of all authors with one index query, without loading the book sets of the authors
+                final List<Book> removedBooks = this.books.query(
+                    GigaMapBookIndices.AUTHOR_ID.in(cachedAuthors.stream().map(Author::id).toArray(UUID[]::new))
+                )
+                    .toList();
+                removedBooks.forEach(this.books::remove);
                 for (final var author : cachedAuthors)
                 {
-                    for (final var book : author.books().get())
-                    {
-                        this.books.remove(book);
-                    }
                     this.authors.remove(author);
+                    this.nameSuggestions.remove(author.name());
+                }
+                if (!removedBooks.isEmpty())
+                {
+                    stores.store(this.books);
                 }
-                this.books.store();
-                this.authors.store();
+                stores.store(this.authors);
+
+                final List<UUID> removedBookIds = removedBooks.stream().map(Book::id).toList();
+                stores.afterCommit(() ->
+                {
+                    this.searchIndex.delete(removedBookIds);
+                    this.bookResponses.invalidateAll(removedBookIds);
+                    this.authorResponses.invalidateAll(cachedAuthors.stream().map(Author::id).toList());
+                });
+                removedBooks.forEach(book -> this.titleSuggestions.remove(book.title()));
             }
         });
     }
@@ -190,44 +291,131 @@ public class AuthorRepository extends ClusterLockScope
      * Returns an author matching the specified ID.
      * 
      * @param id the ID of the author to return
-     * @return the author with matching ID
+     * @return the author with matching ID and the first {@link #BOOKS_PAGE_SIZE} of its books
      * @throws MissingAuthorException if no author could be found with matching ID
      */
     public GetAuthorById getById(final UUID id) throws MissingAuthorException
     {
-        return this.read(
-            () -> this.authors.query(GigaMapAuthorIndices.ID.is(id))
-                .findFirst()
-                .map(GetAuthorById::from)
-                .orElseThrow(() -> new MissingAuthorException(id))
-        );
+        final Supplier<Optional<GetAuthorById>> read = () -> this.authors.query(GigaMapAuthorIndices.ID.is(id))
+            .findFirst()
+            .map(this::toDto);
+        return this.writeStamp.read(
+                READ_WITH_BOOKS.reads(),
+                read,
+                () -> this.locks.execute(READ_WITH_BOOKS, read)
+            )
+            .orElseThrow(() -> new MissingAuthorException(id));
     }
 
     /**
      * Queries the name index of the author {@link GigaMap} for authors with names
-     * containing <code>containsNameSearch</code> ignoring case.
+     * containing <code>containsNameSearch</code> ignoring case. Search texts of
+     * at least three characters are resolved through the name trigram index.
      * 
      * @param containsNameSearch the contains search text for the query
-     * @return a read-only list of all authors matching the query
+     * @param cursor             the cursor of the previous page or
+     *                           <code>null</code> for the first page
+     * @param pageSize           the maximum amount of authors in the page
+     * @return a page of the authors matching the query
+     * @throws InvalidCursorException if the cursor is invalid
      */
-    public List<SearchAuthorByName> searchByName(final String containsNameSearch)
+    public Page<SearchAuthorByName> searchByName(
+        final String containsNameSearch,
+        final String cursor,
+        final int pageSize
+    )
+        throws InvalidCursorException
     {
-        return this.read(() ->
-        {
-            try (
-                final var storedAuthors = this.authors.query(
-                    GigaMapAuthorIndices.NAME.containsIgnoreCase(containsNameSearch)
-                ).stream()
+        return this.locks.execute(
+            READ,
+            () -> Paging.page(
+                after -> this.nameContains(containsNameSearch, after),
+                GigaMapAuthorIndices.SEQUENCE_BLOCK,
+                Author::sequence,
+                SearchAuthorByName::from,
+                cursor,
+                pageSize
             )
+        );
+    }
+
+    /**
+     * Returns the author names starting with the specified prefix, ignoring
+     * case, in alphabetical order.
+     * 
+     * @param prefix the prefix the names have to start with
+     * @param limit  the maximum amount of names
+     * @return a read-only list of distinct names
+     */
+    public List<String> suggestNames(final String prefix, final int limit)
+    {
+        return this.locks.execute(READ, () -> this.nameSuggestions.suggest(prefix, limit));
+    }
+
+    /**
+     * Counts the book maps of the authors which are currently loaded and the ones which have been cleared by the
+     * {@link org.eclipse.serializer.reference.LazyReferenceManager} or not been loaded since the start, without
+     * loading any of them. This walks all authors, so it is meant for occasional monitoring only.
+     *
+     * @return the loaded and unloaded book maps of the authors
+     */
+    public LazyReferenceMetrics bookMapMetrics()
+    {
+        return this.locks.execute(READ_WITH_BOOKS, () ->
+        {
+            long loaded = 0;
+            long unloaded = 0;
+            try (final Stream<Author> authors = this.authors.query().stream())
             {
-                return storedAuthors
-                    .limit(DEFAULT_PAGE_SIZE)
-                    .map(SearchAuthorByName::from)
-                    .toList();
+                for (final Author author : (Iterable<Author>)authors::iterator)
+                {
+                    if (author.books().isLoaded())
+                    {
+                        loaded++;
+                    }
+                    else
+                    {
+                        unloaded++;
+                    }
+                }
             }
+            return new LazyReferenceMetrics(loaded, unloaded);
         });
     }
 
+    private GetAuthorById toDto(final Author author)
+    {
+        // same order as the book search by author, so the cursor continues there
+        return GetAuthorById.from(
+            author,
+            Paging.page(
+                after -> Paging.after(this.books.query(GigaMapBookIndices.AUTHOR_ID.is(author.id())), after).stream(),
+                GigaMapBookIndices.SEQUENCE_BLOCK,
+                Book::sequence,
+                book ->
+                {
+                    this.writeStamp.checkpoint(book.lazyDescription());
+                    return GetAuthorByIdBookDto.from(book);
+                },
+                null,
+                BOOKS_PAGE_SIZE
+            )
+        );
+    }
+
+    private Stream<Author> nameContains(final String search, final Condition<Author> after)
+    {
+        final var trigrams = GigaMapAuthorIndices.NAME_TRIGRAMS;
+        if (!trigrams.supports(search))
+        {
+            return Paging.after(this.authors.query(GigaMapAuthorIndices.NAME.containsIgnoreCase(search)), after)
+                .stream();
+        }
+        return Paging.after(this.authors.query(trigrams.candidates(search)), after)
+            .stream()
+            .filter(author -> trigrams.matches(author, search));
+    }
+
     private void validateInsert(final List<InsertAuthor> insert) throws InvalidIsbnException, InvalidGenreException
     {
         final List<InsertAuthorBook> insertBooks = insert.stream()
@@ -235,28 +423,13 @@ public class AuthorRepository extends ClusterLockScope
             .flatMap(a -> a.books().stream())
             .toList();
 
+        // check for isbn uniqueness in the insert and the storage
+        IsbnValidation.validateUnique(this.books, insertBooks.stream().map(InsertAuthorBook::isbn).toList());
+
+        // check if genres exist
         for (final var book : insertBooks)
         {
-            // check for isbn uniqueness in the insert and the storage
-            final String isbn = book.isbn();
-            if (
-                insertBooks.stream().map(InsertAuthorBook::isbn).filter(isbn::equals).count() > 1
-                    || this.books.query(GigaMapBookIndices.ISBN.is(isbn))
-                        .findFirst()
-                        .isPresent()
-            )
-            {
-                throw new InvalidIsbnException(isbn);
-            }
-
-            // check if genres exist
-            for (final var genre : book.genres())
-            {
-                if (!this.genres.contains(genre))
-                {
-                    throw InvalidGenreException.doesNotExist(genre);
-                }
-            }
+            this.genreRepository.validateExisting(book.genres());
         }
     }
 }
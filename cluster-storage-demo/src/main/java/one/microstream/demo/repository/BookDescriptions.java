@@ -0,0 +1,87 @@
+package one.microstream.demo.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.eclipse.serializer.reference.Lazy;
+
+import io.micronaut.context.annotation.Value;
+import jakarta.inject.Singleton;
+import one.microstream.demo.domain.Book;
+import one.microstream.demo.domain.CompressedText;
+import one.microstream.demo.dto.CompressionMetrics;
+import one.microstream.demo.persistence.LazyReferenceTimeout;
+
+/**
+ * Decides how the descriptions of new and updated books are held. With <code>app.lazy.book-descriptions.enabled</code>
+ * they are held by a {@link Lazy} reference, which is cleared if the description has not been accessed within
+ * <code>app.lazy.timeout</code>, see {@link LazyReferenceTimeout}. With
+ * <code>app.lazy.book-descriptions.compressed</code> lazily held descriptions are additionally stored as
+ * {@link CompressedText}, which is decompressed when a response contains the description.
+ */
+@Singleton
+public class BookDescriptions
+{
+    private final boolean lazy;
+    private final boolean compressed;
+    private final LongAdder texts = new LongAdder();
+    private final LongAdder uncompressedBytes = new LongAdder();
+    private final LongAdder compressedBytes = new LongAdder();
+    private final LongAdder compressionNanos = new LongAdder();
+
+    public BookDescriptions(
+        @Value("${app.lazy.book-descriptions.enabled:false}") final boolean lazy,
+        @Value("${app.lazy.book-descriptions.compressed:false}") final boolean compressed
+    )
+    {
+        this.lazy = lazy;
+        this.compressed = lazy && compressed;
+    }
+
+    /**
+     * @return if descriptions are held by a {@link Lazy} reference
+     */
+    public boolean lazy()
+    {
+        return this.lazy;
+    }
+
+    /**
+     * @param description the description of a new or updated book
+     * @return the description to pass to {@link Book}, compressed if enabled
+     */
+    public CharSequence encode(final String description)
+    {
+        if (!this.compressed)
+        {
+            return description;
+        }
+        final long start = System.nanoTime();
+        final CharSequence encoded = CompressedText.compress(description);
+        this.compressionNanos.add(System.nanoTime() - start);
+        this.texts.increment();
+        final int size = description.getBytes(StandardCharsets.UTF_8).length;
+        this.uncompressedBytes.add(size);
+        // texts which are not compressible are stored as is
+        this.compressedBytes.add(encoded instanceof final CompressedText text ? text.compressedSize() : size);
+        return encoded;
+    }
+
+    /**
+     * @return the compression ratio and time of the descriptions encoded since the start
+     */
+    public CompressionMetrics metrics()
+    {
+        final long texts = this.texts.sum();
+        final long uncompressed = this.uncompressedBytes.sum();
+        final long compressed = this.compressedBytes.sum();
+        return new CompressionMetrics(
+            this.compressed,
+            texts,
+            uncompressed,
+            compressed,
+            compressed == 0 ? 0.0 : (double)uncompressed / compressed,
+            texts == 0 ? 0.0 : this.compressionNanos.sum() / 1_000.0 / texts
+        );
+    }
+}
@@ -0,0 +1,443 @@
+package one.microstream.demo.repository;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import org.eclipse.store.gigamap.types.Condition;
+import org.eclipse.store.gigamap.types.GigaMap;
+
+import one.microstream.demo.domain.Author;
+import one.microstream.demo.domain.Book;
+import one.microstream.demo.dto.BookFacets;
+import one.microstream.demo.dto.BookFacets.FacetCount;
+import one.microstream.demo.dto.BookQuery;
+import one.microstream.demo.gigamap.GigaMapBookIndices;
+
+/**
+ * Compiles a {@link BookQuery} into a single query over the books {@link GigaMap}.
+ *
+ * <p>
+ * Every criterion gets a cardinality estimate from the keys of its index, without evaluating any bitmap: the amount of
+ * books divided by the amount of keys for equality criteria and the share of the keys within the range for the
+ * publication range. The criteria are combined starting with the most selective one. A criterion referring to a key
+ * which is not indexed at all is estimated at zero, so the whole query is known to be empty without querying. The
+ * title criterion is resolved through the title trigram index, its candidates are verified by a filter. Titles shorter
+ * than a trigram have to test every distinct title and are always applied last.
+ *
+ * <p>
+ * Compiled plans are cached per query for the following pages, which are requested with a cursor. The estimates of a
+ * cached plan may be outdated after modifications, which only affects the order the criteria are evaluated in, as the
+ * conditions themselves are evaluated on every query.
+ *
+ * <p>
+ * Must only be used while holding the read or write lock of {@link Aggregate#BOOKS}.
+ */
+final class BookQueryPlanner
+{
+    private static final long UNKNOWN_ESTIMATE = Long.MAX_VALUE;
+    private static final int CACHED_PLANS = 256;
+
+    private final GigaMap<Book> books;
+    private final GigaMap<Author> authors;
+    // the plans of the last queried first pages, in access order
+    private final Map<BookQuery, Plan> plans = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true)
+    {
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<BookQuery, Plan> eldest)
+        {
+            return this.size() > CACHED_PLANS;
+        }
+    });
+
+    /**
+     * @param books   the books {@link GigaMap} the queries are evaluated on
+     * @param authors the authors {@link GigaMap}, only its size is read for the estimate of the author criterion
+     */
+    BookQueryPlanner(final GigaMap<Book> books, final GigaMap<Author> authors)
+    {
+        this.books = books;
+        this.authors = authors;
+    }
+
+    /**
+     * @param query  the criteria
+     * @param cursor the cursor of the requested page, the plan compiled for the first page is reused for the following
+     *               pages if it is still cached
+     * @return returns a new stream of the matching books in the order of their sequence numbers for every call, which
+     *         additionally match the specified condition if it is not <code>null</code>, see {@link Paging}
+     */
+    Function<Condition<Book>, Stream<Book>> plan(final BookQuery query, final String cursor)
+    {
+        Plan plan = cursor == null ? null : this.plans.get(query);
+        if (plan == null)
+        {
+            plan = this.compile(query);
+            this.plans.put(query, plan);
+        }
+        return plan::stream;
+    }
+
+    /**
+     * Counts the books matching the query. If every criterion has an index, only the bitmaps are counted without
+     * loading any book.
+     *
+     * @param query the criteria
+     * @return the amount of matching books
+     */
+    long count(final BookQuery query)
+    {
+        final Plan plan = this.compile(query);
+        if (plan.empty())
+        {
+            return 0L;
+        }
+        if (plan.isBitmapOnly())
+        {
+            return this.count(plan.condition());
+        }
+        try (final Stream<Book> matches = plan.stream(null))
+        {
+            return matches.count();
+        }
+    }
+
+    /**
+     * Counts the books matching the query per genre and per publication year in a single pass over the matching books.
+     * Books with the same genres share one canonical genre set, so the genres are only resolved once per distinct
+     * set and not per book.
+     *
+     * @param query  the criteria
+     * @param genres all existing genres, genres of books which have been deleted since are not counted
+     * @return the facet counts, only containing values with at least one book
+     */
+    BookFacets facets(final BookQuery query, final Set<String> genres)
+    {
+        final Plan plan = this.compile(query);
+        if (plan.empty())
+        {
+            return new BookFacets(0L, List.of(), List.of());
+        }
+
+        final Map<Set<String>, long[]> genreSetCounts = new IdentityHashMap<>();
+        final Map<Integer, long[]> yearCounts = new TreeMap<>(Comparator.reverseOrder());
+        long total = 0L;
+        try (final Stream<Book> matches = plan.stream(null))
+        {
+            for (final Book book : (Iterable<Book>)matches::iterator)
+            {
+                total++;
+                genreSetCounts.computeIfAbsent(book.genres(), set -> new long[1])[0]++;
+                yearCounts.computeIfAbsent(book.publicationDate().getYear(), year -> new long[1])[0]++;
+            }
+        }
+
+        final Map<String, Long> genreCounts = new HashMap<>();
+        genreSetCounts.forEach((set, count) -> set.forEach(genre ->
+        {
+            if (genres.contains(genre))
+            {
+                genreCounts.merge(genre, count[0], Long::sum);
+            }
+        }));
+        return new BookFacets(
+            total,
+            genreCounts.entrySet()
+                .stream()
+                .map(e -> new FacetCount(e.getKey(), e.getValue()))
+                .sorted(Comparator.comparingLong(FacetCount::count).reversed())
+                .toList(),
+            yearCounts.entrySet().stream().map(e -> new FacetCount(e.getKey().toString(), e.getValue()[0])).toList()
+        );
+    }
+
+    private long count(final Condition<Book> condition)
+    {
+        return condition == null ? this.books.size() : this.books.query(condition).count();
+    }
+
+    private Plan compile(final BookQuery query)
+    {
+        final List<Criterion> criteria = this.criteria(query);
+        if (criteria.isEmpty())
+        {
+            return new Plan(this.books, false, null, null);
+        }
+        criteria.sort(Comparator.comparingLong(Criterion::estimate));
+
+        if (criteria.get(0).estimate() == 0)
+        {
+            return Plan.empty(this.books);
+        }
+        Condition<Book> condition = null;
+        Predicate<Book> filter = null;
+        for (final Criterion criterion : criteria)
+        {
+            if (!criterion.exact())
+            {
+                filter = filter == null ? criterion.filter() : filter.and(criterion.filter());
+            }
+            condition = and(condition, criterion.condition());
+        }
+        return new Plan(this.books, false, condition, filter);
+    }
+
+    /**
+     * Creates the cheapest publication index condition for the range. Ranges covering exactly one day, month or year
+     * are resolved with the matching key bitmaps of the date index instead of a range over all dates.
+     *
+     * @param from the first publication date (inclusive) or <code>null</code> for an open start
+     * @param to   the last publication date (inclusive) or <code>null</code> for an open end
+     */
+    static Condition<Book> publicationCondition(final LocalDate from, final LocalDate to)
+    {
+        final var index = GigaMapBookIndices.PUBLICATION;
+        if (from == null)
+        {
+            return index.beforeEqual(to);
+        }
+        if (to == null)
+        {
+            return index.afterEqual(from);
+        }
+        if (from.equals(to))
+        {
+            return index.is(from);
+        }
+        final boolean wholeMonths = from.getDayOfMonth() == 1 && to.getDayOfMonth() == to.lengthOfMonth();
+        if (wholeMonths && from.getYear() == to.getYear())
+        {
+            if (from.getMonthValue() == 1 && to.getMonthValue() == 12)
+            {
+                return index.isYear(from.getYear());
+            }
+            if (from.getMonth() == to.getMonth())
+            {
+                return index.isYear(from.getYear()).and(index.isMonth(from.getMonthValue()));
+            }
+        }
+        return index.between(from, to);
+    }
+
+    private List<Criterion> criteria(final BookQuery query)
+    {
+        final var criteria = new ArrayList<Criterion>();
+
+        if (query.isbn() != null)
+        {
+            final var condition = GigaMapBookIndices.ISBN.is(query.isbn());
+            criteria.add(
+                new Criterion(
+                    // ISBNs are unique
+                    Math.min(1L, this.books.size()),
+                    condition,
+                    book -> book.isbn().equals(query.isbn())
+                )
+            );
+        }
+
+        if (query.authorId() != null)
+        {
+            final var condition = GigaMapBookIndices.AUTHOR_ID.is(query.authorId());
+            criteria.add(
+                new Criterion(
+                    perKey(this.books.size(), this.authors.size()),
+                    condition,
+                    book -> book.author().id().equals(query.authorId())
+                )
+            );
+        }
+
+        if (query.genres() != null && !query.genres().isEmpty())
+        {
+            criteria.add(this.genresCriterion(query.genres(), query.genreMatch()));
+        }
+
+        if (query.publishedFrom() != null || query.publishedTo() != null)
+        {
+            final var condition = publicationCondition(query.publishedFrom(), query.publishedTo());
+            final LocalDate from = query.publishedFrom() == null ? LocalDate.MIN : query.publishedFrom();
+            final LocalDate to = query.publishedTo() == null ? LocalDate.MAX : query.publishedTo();
+            final long[] keys = new long[2];
+            this.books.index().bitmap().get(GigaMapBookIndices.PUBLICATION).iterateKeys(date ->
+            {
+                keys[0]++;
+                if (!date.isBefore(from) && !date.isAfter(to))
+                {
+                    keys[1]++;
+                }
+            });
+            criteria.add(
+                new Criterion(
+                    // the share of the books within the range, assuming they are evenly distributed over the dates
+                    keys[1] == 0 ? 0L : Math.max(1L, this.books.size() * keys[1] / keys[0]),
+                    condition,
+                    book -> !book.publicationDate().isBefore(from) && !book.publicationDate().isAfter(to)
+                )
+            );
+        }
+
+        if (query.titleContains() != null && !query.titleContains().isBlank())
+        {
+            final String search = query.titleContains();
+            final var trigrams = GigaMapBookIndices.TITLE_TRIGRAMS;
+            if (trigrams.supports(search))
+            {
+                // the trigram bitmaps only yield candidates, which are verified by the filter
+                final var condition = trigrams.candidates(search);
+                final Set<String> searchTrigrams = new HashSet<>(trigrams.trigramsOf(search));
+                final long[] keys = new long[1];
+                this.books.index().bitmap().get(trigrams).iterateKeys(trigram ->
+                {
+                    keys[0]++;
+                    searchTrigrams.remove(trigram);
+                });
+                criteria.add(
+                    new Criterion(
+                        // estimated like a single trigram, zero if any trigram of the search is not indexed
+                        searchTrigrams.isEmpty() ? perKey(this.books.size(), keys[0]) : 0L,
+                        condition,
+                        book -> trigrams.matches(book, search),
+                        false
+                    )
+                );
+            }
+            else
+            {
+                final String lowerCaseSearch = search.toLowerCase(Locale.ROOT);
+                criteria.add(
+                    new Criterion(
+                        // no cheap estimate, the index has to test every distinct title
+                        UNKNOWN_ESTIMATE,
+                        GigaMapBookIndices.TITLE.containsIgnoreCase(search),
+                        book -> book.title().toLowerCase(Locale.ROOT).contains(lowerCaseSearch),
+                        true
+                    )
+                );
+            }
+        }
+
+        return criteria;
+    }
+
+    private Criterion genresCriterion(final Set<String> genres, final BookQuery.GenreMatch match)
+    {
+        final String[] keys = genres.toArray(String[]::new);
+        final Set<String> indexedGenres = new HashSet<>();
+        this.books.index().bitmap().get(GigaMapBookIndices.GENRES).iterateKeys(indexedGenres::add);
+        final long matchingGenres = genres.stream().filter(indexedGenres::contains).count();
+        final long perGenre = perKey(this.books.size(), indexedGenres.size());
+        // all genres can match at most as many books as one genre, any genre at most the sum of all
+        final long estimate = match == BookQuery.GenreMatch.ALL
+            ? matchingGenres < keys.length ? 0L : perGenre
+            : Math.min(this.books.size(), matchingGenres * perGenre);
+
+        if (match == BookQuery.GenreMatch.ALL)
+        {
+            return new Criterion(
+                estimate,
+                GigaMapBookIndices.GENRES.all(keys),
+                book -> book.genres().containsAll(genres)
+            );
+        }
+        Condition<Book> anyGenre = GigaMapBookIndices.GENRES.is(keys[0]);
+        for (int i = 1; i < keys.length; i++)
+        {
+            anyGenre = anyGenre.or(GigaMapBookIndices.GENRES.is(keys[i]));
+        }
+        return new Criterion(
+            estimate,
+            anyGenre,
+            book -> !Collections.disjoint(book.genres(), genres)
+        );
+    }
+
+    /**
+     * @return the average amount of books per key of an index with the specified amount of keys
+     */
+    private static long perKey(final long books, final long keys)
+    {
+        return keys == 0 ? books : Math.ceilDiv(books, keys);
+    }
+
+    private static Condition<Book> and(final Condition<Book> condition, final Condition<Book> other)
+    {
+        return condition == null ? other : condition.and(other);
+    }
+
+    /**
+     * @param estimate  the estimated amount of matching books
+     * @param condition the index condition
+     * @param filter    tests a single book against the criterion
+     * @param exact     <code>false</code> if the condition only yields candidates which have to be verified by the
+     *                  filter
+     */
+    private record Criterion(
+        long estimate,
+        Condition<Book> condition,
+        Predicate<Book> filter,
+        boolean exact
+    )
+    {
+        Criterion(final long estimate, final Condition<Book> condition, final Predicate<Book> filter)
+        {
+            this(estimate, condition, filter, true);
+        }
+    }
+
+    /**
+     * A compiled query. The books are queried with the condition, or all books are returned if there is no condition.
+     * The filter is applied to every queried book.
+     *
+     * @param books     the books {@link GigaMap} the condition is evaluated on
+     * @param empty     <code>true</code> if it is already known that no book matches
+     * @param condition the combined index condition or <code>null</code>
+     * @param filter    the combined filter of all criteria which only yield candidates or <code>null</code>
+     */
+    private record Plan(
+        GigaMap<Book> books,
+        boolean empty,
+        Condition<Book> condition,
+        Predicate<Book> filter
+    )
+    {
+        static Plan empty(final GigaMap<Book> books)
+        {
+            return new Plan(books, true, null, null);
+        }
+
+        boolean isBitmapOnly()
+        {
+            return !this.empty && this.filter == null;
+        }
+
+        /**
+         * @param after an additional condition or <code>null</code>
+         */
+        Stream<Book> stream(final Condition<Book> after)
+        {
+            if (this.empty)
+            {
+                return Stream.empty();
+            }
+            final Condition<Book> condition = after == null ? this.condition : and(this.condition, after);
+            final Stream<Book> matches = condition != null
+                ? this.books.query(condition).stream()
+                : this.books.query().stream();
+            return this.filter == null ? matches : matches.filter(this.filter);
+        }
+    }
+}
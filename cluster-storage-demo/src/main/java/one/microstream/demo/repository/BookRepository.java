@@ -1,50 +1,129 @@
 package one.microstream.demo.repository;
 
 import io.micronaut.eclipsestore.RootProvider;
+import jakarta.annotation.PostConstruct;
 import jakarta.inject.Singleton;
+import one.microstream.demo.cache.ResponseCache;
+import one.microstream.demo.cache.ResponseCaches;
 import one.microstream.demo.domain.Author;
 import one.microstream.demo.domain.Book;
 import one.microstream.demo.domain.DataRoot;
+import one.microstream.demo.domain.GenreDictionary;
+import one.microstream.demo.domain.GenreSet;
+import one.microstream.demo.domain.Sequence;
 import one.microstream.demo.dto.*;
 import one.microstream.demo.exception.*;
 import one.microstream.demo.gigamap.GigaMapAuthorIndices;
 import one.microstream.demo.gigamap.GigaMapBookIndices;
-import org.eclipse.datagrid.cluster.nodelibrary.types.ClusterLockScope;
-import org.eclipse.serializer.concurrency.LockedExecutor;
+import one.microstream.demo.lucene.BookSearchIndex;
+import one.microstream.demo.suggest.PrefixIndex;
+import one.microstream.demo.suggest.SuggestionIndex;
+import org.eclipse.store.gigamap.types.Condition;
 import org.eclipse.store.gigamap.types.GigaMap;
-import org.eclipse.store.storage.types.StorageManager;
 
+import java.time.LocalDate;
 import java.util.*;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
- * Repository for finding and modifying books. All methods hold a cluster-wide read or write lock to ensure consistency
- * with background threads modifying data received from message queues.
+ * Repository for finding and modifying books. All methods hold the read or write locks of the aggregates they access,
+ * see {@link AggregateLocks}.
  *
  * <p>
- * Note: All results returned from search queries are limited to {@link BookRepository#DEFAULT_PAGE_SIZE}
+ * Note: All results returned from search queries are limited to {@link BookRepository#DEFAULT_PAGE_SIZE}. Title and
+ * genre searches are paged, the returned {@link Page#nextCursor()} continues the search after the last returned book.
  */
 @Singleton
-public class BookRepository extends ClusterLockScope
+public class BookRepository
 {
-    private static final int DEFAULT_PAGE_SIZE = 512;
+    public static final int DEFAULT_PAGE_SIZE = 512;
 
+    private static final Locking READ = Locking.reading(Aggregate.BOOKS);
+    private static final Locking READ_WITH_AUTHORS = Locking.reading(Aggregate.AUTHORS, Aggregate.BOOKS);
+    private static final Locking READ_WITH_GENRES = Locking.reading(Aggregate.GENRES, Aggregate.BOOKS);
+    private static final Locking WRITE = Locking.writing(Aggregate.BOOKS);
+    private static final Locking WRITE_WITH_REFERENCES = Locking.writing(Aggregate.BOOKS)
+        .alsoReading(Aggregate.GENRES, Aggregate.AUTHORS);
+
+    private final AggregateLocks locks;
     private final GigaMap<Book> books;
     private final GigaMap<Author> authors;
-    private final Set<String> genres;
-    private final StorageManager storageManager;
+    private final GenreDictionary genres;
+    private final Map<GenreSet, GenreSet> genreSets;
+    private final GenreRepository genreRepository;
+    private final Sequence bookSequence;
+    private final GroupCommitter committer;
+    private final WriteStamp writeStamp;
+    private final ResponseCache bookResponses;
+    private final ResponseCache authorResponses;
+    private final BookSearchIndex searchIndex;
+    private final PrefixIndex titleSuggestions;
+    private final BookDescriptions descriptions;
+    private final IdGenerator ids;
+    private final BookQueryPlanner queryPlanner;
 
     public BookRepository(
-        final LockedExecutor executor,
+        final AggregateLocks locks,
         final RootProvider<DataRoot> rootProvider,
-        final StorageManager storageManager
+        final GenreRepository genreRepository,
+        final GroupCommitter committer,
+        final WriteStamp writeStamp,
+        final ResponseCaches responseCaches,
+        final BookSearchIndex searchIndex,
+        final SuggestionIndex suggestionIndex,
+        final BookDescriptions descriptions,
+        final IdGenerator ids
     )
     {
-        super(executor);
+        this.locks = locks;
         final var root = rootProvider.root();
         this.books = root.books();
         this.authors = root.authors();
         this.genres = root.genres();
-        this.storageManager = storageManager;
+        this.genreSets = root.genreSets();
+        this.genreRepository = genreRepository;
+        this.bookSequence = root.bookSequence();
+        this.committer = committer;
+        this.writeStamp = writeStamp;
+        this.bookResponses = responseCaches.books();
+        this.authorResponses = responseCaches.authors();
+        this.searchIndex = searchIndex;
+        this.titleSuggestions = suggestionIndex.bookTitles();
+        this.descriptions = descriptions;
+        this.ids = ids;
+        this.queryPlanner = new BookQueryPlanner(this.books, this.authors);
+    }
+
+    /**
+     * Rebuilds the full-text search index from the books {@link GigaMap} if it is enabled and may be out of sync, e.g.
+     * because the node stopped without closing the index, the index directory has been deleted or the storage has been
+     * replaced. This also indexes the books replicated into the storage since the last start. The in-memory title
+     * suggestions are always built if they are enabled.
+     */
+    @PostConstruct
+    void synchronizeIndices()
+    {
+        this.locks.run(WRITE, () ->
+        {
+            final boolean outOfSync = !this.searchIndex.consistent() || this.searchIndex.size() != this.books.size();
+            if (this.searchIndex.enabled() && outOfSync)
+            {
+                try (final var storedBooks = this.books.query().stream())
+                {
+                    this.searchIndex.rebuild(storedBooks::iterator);
+                }
+            }
+            this.titleSuggestions.clear();
+            if (this.titleSuggestions.enabled())
+            {
+                try (final var storedBooks = this.books.query().stream())
+                {
+                    storedBooks.forEach(book -> this.titleSuggestions.add(book.title()));
+                }
+            }
+        });
     }
 
     /**
@@ -63,7 +142,7 @@ public class BookRepository extends ClusterLockScope
     {
         final var returnDtos = new ArrayList<GetBookById>(insert.size());
 
-        this.write(() ->
+        this.committer.commit(WRITE_WITH_REFERENCES, stores ->
         {
             this.validateInsert(insert);
 
@@ -82,12 +161,14 @@ public class BookRepository extends ClusterLockScope
             final List<Book> newBooks = insert.stream()
                 .map(
                     b -> new Book(
-                        UUID.randomUUID(),
+                        this.ids.next(),
+                        this.bookSequence.next(),
                         b.isbn(),
                         b.title(),
-                        b.description(),
+                        this.descriptions.encode(b.description()),
+                        this.descriptions.lazy(),
                         b.pages(),
-                        b.genres(),
+                        this.genreRepository.canonical(b.genres(), stores),
                         b.publicationDate(),
                         cachedAuthors.get(b.authorId())
                     )
@@ -97,20 +178,24 @@ public class BookRepository extends ClusterLockScope
             if (!newBooks.isEmpty())
             {
                 this.books.addAll(newBooks);
-                this.books.store();
+                stores.store(this.books);
+                stores.store(this.bookSequence);
+                stores.afterCommit(() -> this.searchIndex.put(newBooks));
+                newBooks.forEach(book -> this.titleSuggestions.add(book.title()));
             }
 
             for (final var book : newBooks)
             {
                 // add the new books to the author book lists
-                book.author().books().get().add(book);
+                book.author().books().get().put(book.id(), book);
 
                 // add as return value
                 returnDtos.add(GetBookById.from(book));
             }
 
             // only store the changed author book lists
-            this.storageManager.storeAll(cachedAuthors.values().stream().map(a -> a.books().get()).toList());
+            stores.storeAll(cachedAuthors.values().stream().map(a -> a.books().get()).toList());
+            stores.afterCommit(() -> this.authorResponses.invalidateAll(cachedAuthors.keySet()));
         });
 
         return Collections.unmodifiableList(returnDtos);
@@ -122,37 +207,49 @@ public class BookRepository extends ClusterLockScope
      * @param id     the ID of the book to update
      * @param update the new values for the book
      * @throws MissingBookException if no book could be found for the specified ID
+     * @throws InvalidIsbnException if the new ISBN already belongs to another book
+     * @throws InvalidGenreException if one of the new genres does not exist
      */
-    public void update(final UUID id, final UpdateBook update) throws MissingBookException
+    public void update(final UUID id, final UpdateBook update)
+        throws MissingBookException, InvalidIsbnException, InvalidGenreException
     {
-        this.write(() ->
+        this.committer.commit(WRITE_WITH_REFERENCES, stores ->
         {
             final Book storedBook = this.books.query(GigaMapBookIndices.ID.is(id))
                 .findFirst()
                 .orElseThrow(() -> new MissingBookException(id));
+            if (!storedBook.isbn().equals(update.isbn()))
+            {
+                IsbnValidation.validateUnique(this.books, List.of(update.isbn()));
+            }
+            this.genreRepository.validateExisting(update.genres());
             final Book newBook = new Book(
                 id,
+                storedBook.sequence(),
                 update.isbn(),
                 update.title(),
-                update.description(),
+                this.descriptions.encode(update.description()),
+                this.descriptions.lazy(),
                 update.pages(),
-                update.genres(),
+                this.genreRepository.canonical(update.genres(), stores),
                 update.publicationDate(),
                 storedBook.author()
             );
 
             this.books.replace(storedBook, newBook);
-            this.books.store();
+            stores.store(this.books);
+            this.titleSuggestions.replace(storedBook.title(), newBook.title());
 
-            // also update author books
-            final var authorBooks = this.authors.query(GigaMapAuthorIndices.ID.is(storedBook.author().id()))
-                .findFirst()
-                .get()
-                .books()
-                .get();
-            authorBooks.removeIf(b -> b.id().equals(id));
-            authorBooks.add(newBook);
-            storageManager.store(authorBooks);
+            // also update author books, the book keeps its position
+            final var authorBooks = this.authorBooks(storedBook);
+            authorBooks.put(id, newBook);
+            stores.store(authorBooks);
+            stores.afterCommit(() ->
+            {
+                this.searchIndex.put(List.of(newBook));
+                this.bookResponses.invalidate(id);
+                this.authorResponses.invalidate(storedBook.author().id());
+            });
         });
     }
 
@@ -164,7 +261,7 @@ public class BookRepository extends ClusterLockScope
      */
     public void delete(final Iterable<UUID> ids) throws MissingBookException
     {
-        this.write(() ->
+        this.committer.commit(WRITE_WITH_REFERENCES, stores ->
         {
             final var cachedBooks = new ArrayList<Book>();
             for (final UUID id : ids)
@@ -178,18 +275,28 @@ public class BookRepository extends ClusterLockScope
             }
             if (!cachedBooks.isEmpty())
             {
-                final var touchedSets = new HashSet<Set<Book>>();
+                final Set<Map<UUID, Book>> touchedMaps = Collections.newSetFromMap(new IdentityHashMap<>());
                 for (final var book : cachedBooks)
                 {
                     // update books gigamap
                     this.books.remove(book);
-                    // update author book set
-                    final var authorBooks = book.author().books().get();
-                    authorBooks.remove(book);
-                    touchedSets.add(authorBooks);
+                    // update author books
+                    final var authorBooks = this.authorBooks(book);
+                    authorBooks.remove(book.id());
+                    touchedMaps.add(authorBooks);
                 }
-                this.books.store();
-                this.storageManager.storeAll(touchedSets);
+                stores.store(this.books);
+                stores.storeAll(touchedMaps);
+                stores.afterCommit(() ->
+                {
+                    final List<UUID> removedBookIds = cachedBooks.stream().map(Book::id).toList();
+                    this.searchIndex.delete(removedBookIds);
+                    this.bookResponses.invalidateAll(removedBookIds);
+                    this.authorResponses.invalidateAll(
+                        cachedBooks.stream().map(book -> book.author().id()).collect(Collectors.toSet())
+                    );
+                });
+                cachedBooks.forEach(book -> this.titleSuggestions.remove(book.title()));
             }
         });
     }
@@ -203,10 +310,10 @@ public class BookRepository extends ClusterLockScope
      */
     public GetBookById getById(final UUID id) throws MissingBookException
     {
-        return this.read(
+        return this.optimisticRead(
                 () -> this.books.query(GigaMapBookIndices.ID.is(id))
                     .findFirst()
-                    .map(GetBookById::from)
+                    .map(this::toDto)
             )
             .orElseThrow(() -> new MissingBookException(id));
     }
@@ -220,100 +327,325 @@ public class BookRepository extends ClusterLockScope
      */
     public GetBookById getByISBN(final String isbn) throws MissingBookException
     {
-        return this.read(
+        return this.optimisticRead(
                 () -> this.books.query(GigaMapBookIndices.ISBN.is(isbn))
                     .findFirst()
-                    .map(GetBookById::from)
+                    .map(this::toDto)
             )
             .orElseThrow(() -> new MissingBookException(isbn));
     }
 
     /**
-     * Queries the ID index of the author {@link GigaMap} for the specified ID and returns a list of all books from the
-     * author.
+     * Looks up all specified ISBNs with one query of the ISBN index.
+     *
+     * @param isbns the ISBNs to look up
+     * @return the ISBNs which already belong to a book
+     */
+    public Set<String> existingIsbns(final Collection<String> isbns)
+    {
+        if (isbns.isEmpty())
+        {
+            return Set.of();
+        }
+        return this.locks.execute(READ, () ->
+        {
+            try (final var existing = this.books.query(GigaMapBookIndices.ISBN.in(isbns.toArray(String[]::new)))
+                .stream())
+            {
+                return existing.map(Book::isbn).collect(Collectors.toSet());
+            }
+        });
+    }
+
+    /**
+     * Queries the author ID index of the books {@link GigaMap} for the specified ID and returns the first page of the
+     * books from the author.
      *
      * @param id the ID of the author
-     * @return a read-only list of all books from the author
+     * @return a read-only list of the first {@link #DEFAULT_PAGE_SIZE} books from the author
      * @throws MissingAuthorException if the author could not be found
      */
     public List<SearchBookByAuthor> searchByAuthor(final UUID id) throws MissingAuthorException
     {
-        return this.read(
-            () -> this.authors.query(GigaMapAuthorIndices.ID.is(id))
-                .findFirst()
-                .orElseThrow(() -> new MissingAuthorException(id))
-                .books()
-                .get()
-                .stream()
-                .limit(DEFAULT_PAGE_SIZE)
-                .map(SearchBookByAuthor::from)
-                .toList()
-        );
+        return this.searchByAuthor(id, null, DEFAULT_PAGE_SIZE).items();
     }
 
     /**
-     * Queries the title index of the books {@link GigaMap} for the specified
-     * <code>titleWildcardSearch</code> with a <code>"title:*search*"</code>
-     * wildcard query.
+     * Queries the author ID index of the books {@link GigaMap} for the specified ID and returns a page of the books
+     * from the author. The books are returned in the order of the index, the query stops as soon as the page is full.
      *
-     * @param titleWildcardSearch the wildcard search text the title field will be searched with
-     * @return a read-only list of all found books for the specified query
+     * @param id       the ID of the author
+     * @param cursor   the cursor of the previous page or <code>null</code> for the first page
+     * @param pageSize the maximum amount of books in the page
+     * @return a page of the books from the author
+     * @throws MissingAuthorException if the author could not be found
+     * @throws InvalidCursorException if the cursor is invalid
      */
-    public List<SearchBookByTitle> searchByTitle(final String titleWildcardSearch)
+    public Page<SearchBookByAuthor> searchByAuthor(final UUID id, final String cursor, final int pageSize)
+        throws MissingAuthorException,
+        InvalidCursorException
     {
-        return this.read(() ->
+        return this.locks.execute(READ_WITH_AUTHORS, () ->
         {
-            final var query = this.books.query(GigaMapBookIndices.TITLE.containsIgnoreCase(titleWildcardSearch));
-            try (final var queryStream = query.stream())
+            if (this.authors.query(GigaMapAuthorIndices.ID.is(id)).count() == 0)
             {
-                return queryStream.map(SearchBookByTitle::from).toList();
+                throw new MissingAuthorException(id);
             }
+            return Paging.page(
+                after -> Paging.after(this.books.query(GigaMapBookIndices.AUTHOR_ID.is(id)), after).stream(),
+                GigaMapBookIndices.SEQUENCE_BLOCK,
+                Book::sequence,
+                SearchBookByAuthor::from,
+                cursor,
+                pageSize
+            );
         });
     }
 
+    /**
+     * Queries the title index of the books {@link GigaMap} for the specified
+     * <code>titleWildcardSearch</code> with a <code>"title:*search*"</code>
+     * wildcard query. Search texts of at least three characters are resolved
+     * through the title trigram index.
+     *
+     * @param titleWildcardSearch the wildcard search text the title field will be searched with
+     * @param cursor              the cursor of the previous page or <code>null</code> for the first page
+     * @param pageSize            the maximum amount of books in the page
+     * @return a page of the found books for the specified query
+     * @throws InvalidCursorException if the cursor is invalid
+     */
+    public Page<SearchBookByTitle> searchByTitle(
+        final String titleWildcardSearch,
+        final String cursor,
+        final int pageSize
+    )
+        throws InvalidCursorException
+    {
+        return this.locks.execute(
+            READ,
+            () -> Paging.page(
+                after -> this.titleContains(titleWildcardSearch, after),
+                GigaMapBookIndices.SEQUENCE_BLOCK,
+                Book::sequence,
+                SearchBookByTitle::from,
+                cursor,
+                pageSize
+            )
+        );
+    }
+
+    /**
+     * Looks the author of the book up by its ID, the author referenced by the book may have been replaced by an update
+     * or a migration.
+     */
+    private Map<UUID, Book> authorBooks(final Book book)
+    {
+        return this.authors.query(GigaMapAuthorIndices.ID.is(book.author().id()))
+            .findFirst()
+            .orElseThrow()
+            .books()
+            .get();
+    }
+
+    /**
+     * Reads without the lock if no write is in progress, see {@link WriteStamp}.
+     */
+    private <T> T optimisticRead(final Supplier<T> read)
+    {
+        return this.writeStamp.read(READ.reads(), read, () -> this.locks.execute(READ, read));
+    }
+
+    private GetBookById toDto(final Book book)
+    {
+        this.writeStamp.checkpoint(book.lazyDescription());
+        return GetBookById.from(book);
+    }
+
+    private Stream<Book> titleContains(final String search, final Condition<Book> after)
+    {
+        final var trigrams = GigaMapBookIndices.TITLE_TRIGRAMS;
+        if (!trigrams.supports(search))
+        {
+            return Paging.after(this.books.query(GigaMapBookIndices.TITLE.containsIgnoreCase(search)), after).stream();
+        }
+        return Paging.after(this.books.query(trigrams.candidates(search)), after)
+            .stream()
+            .filter(book -> trigrams.matches(book, search));
+    }
+
     /**
      * Searches the books {@link GigaMap} for the specified genres, returning every book which contains all the
      * specified genres.
      *
-     * @param genres the genres which will be searched for
-     * @return a list of all found books for the specified set of genres
+     * @param genres   the genres which will be searched for
+     * @param cursor   the cursor of the previous page or <code>null</code> for the first page
+     * @param pageSize the maximum amount of books in the page
+     * @return a page of the found books for the specified set of genres
+     * @throws InvalidCursorException if the cursor is invalid
      */
-    public List<SearchBookByGenre> searchByGenre(final Set<String> genres)
+    public Page<SearchBookByGenre> searchByGenre(final Set<String> genres, final String cursor, final int pageSize)
+        throws InvalidCursorException
     {
-        return this.read(() ->
-        {
-            final var query = this.books.query(GigaMapBookIndices.GENRES.all(genres.toArray(String[]::new)));
-            try (final var queryStream = query.stream())
-            {
-                return queryStream.map(SearchBookByGenre::from).toList();
-            }
-        });
+        return this.locks.execute(
+            READ,
+            () -> Paging.page(
+                after -> Paging.after(
+                    this.books.query(GigaMapBookIndices.GENRES.all(genres.toArray(String[]::new))),
+                    after
+                )
+                    .stream(),
+                GigaMapBookIndices.SEQUENCE_BLOCK,
+                Book::sequence,
+                SearchBookByGenre::from,
+                cursor,
+                pageSize
+            )
+        );
+    }
+
+    /**
+     * Queries the publication index of the books {@link GigaMap} for books published within the specified range. If
+     * genres are specified, the publication bitmap is intersected with the bitmaps of the genres, so only books
+     * containing all the genres are returned.
+     *
+     * @param from     the first publication date of the range (inclusive) or <code>null</code> for an open start
+     * @param to       the last publication date of the range (inclusive) or <code>null</code> for an open end
+     * @param genres   the genres every found book must contain, may be empty
+     * @param cursor   the cursor of the previous page or <code>null</code> for the first page
+     * @param pageSize the maximum amount of books in the page
+     * @return a page of the found books
+     * @throws InvalidCursorException if the cursor is invalid
+     */
+    public Page<SearchBookByPublication> searchByPublication(
+        final LocalDate from,
+        final LocalDate to,
+        final Set<String> genres,
+        final String cursor,
+        final int pageSize
+    )
+        throws InvalidCursorException
+    {
+        final var query = new BookQuery(null, genres, BookQuery.GenreMatch.ALL, from, to, null, null);
+        return this.locks.execute(
+            READ,
+            () -> Paging.page(
+                this.queryPlanner.plan(query, cursor),
+                GigaMapBookIndices.SEQUENCE_BLOCK,
+                Book::sequence,
+                SearchBookByPublication::from,
+                cursor,
+                pageSize
+            )
+        );
+    }
+
+    /**
+     * Searches the books {@link GigaMap} for books matching all the specified criteria with a single query. The
+     * criteria are evaluated starting with the index estimated to be the most selective and no book is queried if a
+     * criterion refers to a key no book is indexed with.
+     *
+     * @param query    the criteria every found book has to match
+     * @param cursor   the cursor of the previous page or <code>null</code> for the first page
+     * @param pageSize the maximum amount of books in the page
+     * @return a page of the found books
+     * @throws InvalidCursorException if the cursor is invalid
+     * @see BookQueryPlanner
+     */
+    public Page<SearchBookByQuery> query(final BookQuery query, final String cursor, final int pageSize)
+        throws InvalidCursorException
+    {
+        return this.locks.execute(
+            READ,
+            () -> Paging.page(
+                this.queryPlanner.plan(query, cursor),
+                GigaMapBookIndices.SEQUENCE_BLOCK,
+                Book::sequence,
+                SearchBookByQuery::from,
+                cursor,
+                pageSize
+            )
+        );
+    }
+
+    /**
+     * Counts the books matching all the specified criteria. If all criteria have an index, only the index bitmaps are
+     * counted and no book is loaded.
+     *
+     * @param query the criteria every counted book has to match
+     * @return the amount of matching books
+     */
+    public long count(final BookQuery query)
+    {
+        return this.locks.execute(READ, () -> this.queryPlanner.count(query));
+    }
+
+    /**
+     * Counts the books matching all the specified criteria per genre and per publication year, in a single pass over
+     * the matching books.
+     *
+     * @param query the criteria every counted book has to match
+     * @return the total count and the counts per genre and per publication year
+     */
+    public BookFacets facets(final BookQuery query)
+    {
+        return this.locks.execute(READ_WITH_GENRES, () -> this.queryPlanner.facets(query, this.genres.names()));
+    }
+
+    /**
+     * Returns the titles starting with the specified prefix, ignoring case, in alphabetical order.
+     *
+     * @param prefix the prefix the titles have to start with
+     * @param limit  the maximum amount of titles
+     * @return a read-only list of distinct titles
+     */
+    public List<String> suggestTitles(final String prefix, final int limit)
+    {
+        return this.locks.execute(READ, () -> this.titleSuggestions.suggest(prefix, limit));
+    }
+
+    /**
+     * Searches the title and description of all books with the full-text search index and returns the best matching
+     * books. Matches in the title rank higher than matches in the description.
+     *
+     * @param query the query in the Lucene classic query syntax, e.g. <code>dragon AND (fire OR ice)</code>
+     * @param limit the maximum amount of books to return
+     * @return a read-only list of the found books ordered by descending relevance
+     * @throws InvalidSearchQueryException if the query could not be parsed
+     * @throws SearchDisabledException     if the full-text search index is disabled
+     */
+    public List<SearchBookByText> searchByText(final String query, final int limit) throws InvalidSearchQueryException
+    {
+        return this.locks.execute(
+            READ,
+            () -> this.searchIndex.search(query, limit)
+                .stream()
+                .flatMap(
+                    hit -> this.books.query(GigaMapBookIndices.ID.is(hit.id()))
+                        .findFirst()
+                        .map(book -> SearchBookByText.from(book, hit.score()))
+                        .stream()
+                )
+                .toList()
+        );
+    }
+
+    /**
+     * @return the amount of books and of the canonical genre sets shared by them
+     */
+    public GenreSetMetrics genreSetMetrics()
+    {
+        return this.locks.execute(READ, () -> new GenreSetMetrics(this.books.size(), this.genreSets.size()));
     }
 
     private void validateInsert(final List<InsertBook> insert) throws InvalidIsbnException, InvalidGenreException
     {
+        // check for ISBN uniqueness in the insert and the storage
+        IsbnValidation.validateUnique(this.books, insert.stream().map(InsertBook::isbn).toList());
+
+        // check if genres exist
         for (final var book : insert)
         {
-            // check for ISBN uniqueness in the insert and the storage
-            final String isbn = book.isbn();
-            if (
-                insert.stream().map(InsertBook::isbn).filter(isbn::equals).count() > 1
-                    || this.books.query(GigaMapBookIndices.ISBN.is(isbn))
-                    .findFirst()
-                    .isPresent()
-            )
-            {
-                throw new InvalidIsbnException(isbn);
-            }
-
-            // check if genres exist
-            for (final var genre : book.genres())
-            {
-                if (!this.genres.contains(genre))
-                {
-                    throw InvalidGenreException.doesNotExist(genre);
-                }
-            }
+            this.genreRepository.validateExisting(book.genres());
         }
     }
 }
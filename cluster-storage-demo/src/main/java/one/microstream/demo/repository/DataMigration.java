@@ -0,0 +1,377 @@
+package one.microstream.demo.repository;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SequencedMap;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.function.UnaryOperator;
+
+import org.eclipse.serializer.reference.Lazy;
+import org.eclipse.store.gigamap.types.GigaMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.micronaut.context.annotation.Context;
+import io.micronaut.context.annotation.Value;
+import io.micronaut.eclipsestore.RootProvider;
+import jakarta.annotation.PostConstruct;
+import one.microstream.demo.domain.Author;
+import one.microstream.demo.domain.Book;
+import one.microstream.demo.domain.DataRoot;
+import one.microstream.demo.domain.GenreDictionary;
+import one.microstream.demo.domain.GenreSet;
+import one.microstream.demo.domain.Sequence;
+import one.microstream.demo.gigamap.GigaMapAuthorIndices;
+import one.microstream.demo.gigamap.GigaMapBookIndices;
+
+/**
+ * Migrates storages created with an older {@link DataRoot#CURRENT_VERSION} on startup, one version after another.
+ * <ul>
+ * <li>1: authors reference their books with a {@link Lazy} set, which is replaced by a map keyed by the book ID.
+ * Authors are records, so every migrated author is replaced in the authors {@link GigaMap} by a copy referencing the
+ * new map. The books still reference the old author instances, which is why the repositories look up the author of a
+ * book by its ID.</li>
+ * <li>2: the genre set of the root is replaced by a {@link GenreDictionary} and every book is replaced by a copy
+ * referencing a {@link GenreSet}, in the books {@link GigaMap} as well as in the book map of its author. Genres which
+ * are referenced by books but have been deleted are registered as deleted genres.</li>
+ * <li>3: books referencing an equal {@link GenreSet} are replaced by copies referencing one canonical instance, which
+ * is kept in {@link DataRoot#genreSets()}.</li>
+ * <li>4: every book and author is replaced by a copy with a {@link Sequence} number, ascending in the order the
+ * {@link GigaMap} returns them.</li>
+ * <li>5: the author ID and title trigram indices are added to the books {@link GigaMap} and the name trigram index to
+ * the authors {@link GigaMap}, indexing the stored entities.</li>
+ * <li>6: the ISBN index of the books is made unique. If stored books share an ISBN, the constraint is not added and
+ * the step is retried on the next startup, after the duplicates have been removed through the API.</li>
+ * <li>7: the sequence block indices are added to the books and authors {@link GigaMap}s, also to storages still
+ * waiting for step 6, because paging depends on them.</li>
+ * </ul>
+ * Independent of the version, if <code>app.lazy.book-descriptions.enabled</code> is set and the root does not record
+ * yet that all descriptions are held lazily, books holding their description directly are replaced by copies holding
+ * it by a {@link Lazy} reference, compressed if <code>app.lazy.book-descriptions.compressed</code> is set. Disabling
+ * the option clears the record, because new books hold their description directly again, so the step runs again when
+ * the option is enabled the next time. Disabling the options keeps the lazy and compressed descriptions. Descriptions
+ * which are already held lazily are not compressed by enabling compression later.
+ *
+ * <p>
+ * With <code>app.storage.replica</code> set, nothing is migrated: a replica receives the migrated data from the
+ * writer through the message queues and must not write to its storage itself.
+ */
+@Context
+public class DataMigration
+{
+    private static final Logger LOG = LoggerFactory.getLogger(DataMigration.class);
+    private static final Locking WRITE = Locking.writing(Aggregate.GENRES, Aggregate.AUTHORS, Aggregate.BOOKS);
+
+    private final DataRoot root;
+    private final GroupCommitter committer;
+    private final BookDescriptions descriptions;
+    private final boolean replica;
+
+    public DataMigration(
+        final RootProvider<DataRoot> rootProvider,
+        final GroupCommitter committer,
+        final BookDescriptions descriptions,
+        @Value("${app.storage.replica:false}") final boolean replica
+    )
+    {
+        this.root = rootProvider.root();
+        this.committer = committer;
+        this.descriptions = descriptions;
+        this.replica = replica;
+    }
+
+    @PostConstruct
+    void migrate()
+    {
+        if (this.replica)
+        {
+            LOG.info("Skipping the data migration on a replica");
+            return;
+        }
+        this.committer.commit(WRITE, stores ->
+        {
+            if (this.root.version() < 1)
+            {
+                final int migrated = this.migrateAuthorBooks(stores);
+                LOG.info("Migrated the books of {} authors to maps keyed by book ID", migrated);
+            }
+            if (this.root.version() < 2)
+            {
+                final int migrated = this.migrateGenres(stores);
+                LOG.info("Migrated the genres of {} books to the genre dictionary", migrated);
+            }
+            if (this.root.version() < 3)
+            {
+                final int migrated = this.migrateGenreSets(stores);
+                LOG.info("Replaced the genres of {} books by canonical genre sets", migrated);
+            }
+            if (this.root.version() < 4)
+            {
+                final int migrated = this.migrateSequences(stores);
+                LOG.info("Assigned sequence numbers to {} books and authors", migrated);
+            }
+            if (this.root.version() < 5)
+            {
+                this.migrateIndices(stores);
+                LOG.info("Added the author ID and trigram indices");
+            }
+            if (this.root.version() < 6)
+            {
+                final Set<String> duplicates = this.migrateUniqueIsbns(stores);
+                if (duplicates.isEmpty())
+                {
+                    LOG.info("Made the ISBN index unique");
+                }
+                else
+                {
+                    LOG.warn("The ISBN index is not unique, books share the ISBNs {}", duplicates);
+                }
+            }
+            if (this.root.version() < 7)
+            {
+                this.migrateSequenceBlocks(stores);
+                LOG.info("Added the sequence block indices");
+            }
+            if (this.descriptions.lazy() != this.root.lazyDescriptions())
+            {
+                this.migrateLazyDescriptions(stores);
+            }
+        });
+    }
+
+    private void migrateLazyDescriptions(final PendingStores stores)
+    {
+        if (this.descriptions.lazy())
+        {
+            final int migrated = this.replaceBooks(
+                book -> book.lazyDescription() == null
+                    ? book.withLazyDescription(this.descriptions.encode(book.description()))
+                    : book,
+                stores
+            );
+            LOG.info("Moved the descriptions of {} books into lazy references", migrated);
+        }
+        this.root.lazyDescriptions(this.descriptions.lazy());
+        stores.store(this.root);
+    }
+
+    private int migrateAuthorBooks(final PendingStores stores)
+    {
+        final GigaMap<Author> authors = this.root.authors();
+        final List<Author> legacyAuthors = authors.query().toList();
+        int count = 0;
+        for (final Author author : legacyAuthors)
+        {
+            final Lazy<?> books = author.books();
+            if (books.get() instanceof final Collection<?> legacyBooks)
+            {
+                final var migratedBooks = new LinkedHashMap<UUID, Book>(legacyBooks.size() * 4 / 3 + 1);
+                for (final Object book : legacyBooks)
+                {
+                    migratedBooks.put(((Book)book).id(), (Book)book);
+                }
+                authors.replace(
+                    author,
+                    new Author(
+                        author.id(),
+                        author.sequence(),
+                        author.name(),
+                        author.about(),
+                        Lazy.Reference(migratedBooks)
+                    )
+                );
+                count++;
+            }
+        }
+        this.root.version(1);
+        stores.store(authors);
+        stores.store(this.root);
+        return count;
+    }
+
+    private int migrateGenres(final PendingStores stores)
+    {
+        final GenreDictionary dictionary = new GenreDictionary();
+        if (this.root.legacyGenres() != null)
+        {
+            this.root.legacyGenres().forEach(dictionary::add);
+        }
+
+        final int count = this.replaceBooks(
+            book ->
+            {
+                if (book.genres() instanceof GenreSet)
+                {
+                    return book;
+                }
+                book.genres().forEach(dictionary::register);
+                return book.withGenres(dictionary.encode(book.genres()));
+            },
+            stores
+        );
+
+        this.root.genres(dictionary);
+        this.root.legacyGenres(null);
+        this.root.version(2);
+        stores.store(this.root);
+        return count;
+    }
+
+    private int migrateGenreSets(final PendingStores stores)
+    {
+        final Map<GenreSet, GenreSet> genreSets = new HashMap<>();
+        final int count = this.replaceBooks(
+            book ->
+            {
+                final GenreSet genres = (GenreSet)book.genres();
+                final GenreSet canonical = genreSets.putIfAbsent(genres, genres);
+                return canonical != null ? book.withGenres(canonical) : book;
+            },
+            stores
+        );
+
+        this.root.genreSets(genreSets);
+        this.root.version(3);
+        stores.store(this.root);
+        return count;
+    }
+
+    private int migrateSequences(final PendingStores stores)
+    {
+        final GigaMap<Author> authors = this.root.authors();
+        final Sequence authorSequence = new Sequence();
+        final List<Author> legacyAuthors = authors.query().toList();
+        for (final Author author : legacyAuthors)
+        {
+            authors.replace(
+                author,
+                new Author(author.id(), authorSequence.next(), author.name(), author.about(), author.books())
+            );
+        }
+
+        final Sequence bookSequence = new Sequence();
+        final int count = this.replaceBooks(book -> book.withSequence(bookSequence.next()), stores);
+
+        this.root.authorSequence(authorSequence);
+        this.root.bookSequence(bookSequence);
+        this.root.version(4);
+        stores.store(authors);
+        stores.store(this.root.books());
+        stores.store(this.root);
+        return legacyAuthors.size() + count;
+    }
+
+    private void migrateIndices(final PendingStores stores)
+    {
+        final GigaMap<Book> books = this.root.books();
+        books.index().bitmap().ensure(GigaMapBookIndices.AUTHOR_ID);
+        books.index().bitmap().ensure(GigaMapBookIndices.TITLE_TRIGRAMS);
+        final GigaMap<Author> authors = this.root.authors();
+        authors.index().bitmap().ensure(GigaMapAuthorIndices.NAME_TRIGRAMS);
+
+        this.root.version(5);
+        stores.store(books);
+        stores.store(authors);
+        stores.store(this.root);
+    }
+
+    /**
+     * @return the ISBNs shared by several books, the constraint is only added if there are none
+     */
+    private Set<String> migrateUniqueIsbns(final PendingStores stores)
+    {
+        final GigaMap<Book> books = this.root.books();
+        final Set<String> isbns = new HashSet<>();
+        final Set<String> duplicates = new TreeSet<>();
+        try (final var stream = books.query().stream())
+        {
+            stream.map(Book::isbn).filter(isbn -> !isbns.add(isbn)).forEach(duplicates::add);
+        }
+        if (!duplicates.isEmpty())
+        {
+            return duplicates;
+        }
+
+        books.index().bitmap().ensure(GigaMapBookIndices.ISBN);
+        books.index().bitmap().addUniqueConstraint(GigaMapBookIndices.ISBN);
+        this.root.version(6);
+        stores.store(books);
+        stores.store(this.root);
+        return duplicates;
+    }
+
+    private void migrateSequenceBlocks(final PendingStores stores)
+    {
+        final GigaMap<Book> books = this.root.books();
+        books.index().bitmap().ensure(GigaMapBookIndices.SEQUENCE_BLOCK);
+        final GigaMap<Author> authors = this.root.authors();
+        authors.index().bitmap().ensure(GigaMapAuthorIndices.SEQUENCE_BLOCK);
+
+        // paging needs the indices even if the storage still waits for the unique ISBN index of version 6
+        if (this.root.version() == 6)
+        {
+            this.root.version(7);
+        }
+        stores.store(books);
+        stores.store(authors);
+        stores.store(this.root);
+    }
+
+    /**
+     * Replaces every book for which the mapping function returns another instance by this instance, in the books
+     * {@link GigaMap} as well as in the book map of its author. Only the book maps of the authors of replaced books are
+     * loaded.
+     */
+    private int replaceBooks(final UnaryOperator<Book> mapping, final PendingStores stores)
+    {
+        final Map<UUID, SequencedMap<UUID, Book>> authorBooks = new HashMap<>();
+        final GigaMap<Book> books = this.root.books();
+        final List<Book> storedBooks = books.query().toList();
+        final Set<Map<UUID, Book>> touchedMaps = Collections.newSetFromMap(new IdentityHashMap<>());
+        int count = 0;
+        for (final Book book : storedBooks)
+        {
+            final Book migratedBook = mapping.apply(book);
+            if (migratedBook == book)
+            {
+                continue;
+            }
+            books.replace(book, migratedBook);
+            final var authorMap = authorBooks.computeIfAbsent(book.author().id(), this::authorBooks);
+            if (authorMap != null)
+            {
+                authorMap.put(book.id(), migratedBook);
+                touchedMaps.add(authorMap);
+            }
+            count++;
+        }
+
+        if (count > 0)
+        {
+            stores.store(books);
+            stores.storeAll(touchedMaps);
+        }
+        return count;
+    }
+
+    /**
+     * Looks the book map of the author up by the author ID, the author referenced by a book may have been replaced by
+     * an earlier step.
+     */
+    private SequencedMap<UUID, Book> authorBooks(final UUID authorId)
+    {
+        return this.root.authors()
+            .query(GigaMapAuthorIndices.ID.is(authorId))
+            .findFirst()
+            .map(author -> author.books().get())
+            .orElse(null);
+    }
+}
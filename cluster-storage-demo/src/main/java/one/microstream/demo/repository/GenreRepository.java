@@ -1,86 +1,158 @@
 package one.microstream.demo.repository;
 
-import java.util.Collections;
+import java.util.Collection;
+import java.util.Map;
 import java.util.Set;
 
-import org.eclipse.datagrid.cluster.nodelibrary.types.ClusterLockScope;
-import org.eclipse.serializer.concurrency.LockedExecutor;
-import org.eclipse.store.storage.types.StorageManager;
-
 import io.micronaut.eclipsestore.RootProvider;
 import jakarta.inject.Singleton;
 import one.microstream.demo.domain.DataRoot;
+import one.microstream.demo.domain.GenreDictionary;
+import one.microstream.demo.domain.GenreSet;
 import one.microstream.demo.exception.InvalidGenreException;
 import one.microstream.demo.exception.MissingGenreException;
 
 /**
- * Repository for finding and modifying genres. All methods hold a cluster-wide
- * read or write lock to ensure consistency with background threads modifying
- * data received from message queues.
+ * Repository for finding and modifying genres. All public methods hold the read or
+ * write lock of the {@link Aggregate#GENRES} aggregate, see
+ * {@link AggregateLocks}.
  */
 @Singleton
-public class GenreRepository extends ClusterLockScope
+public class GenreRepository
 {
-    private final Set<String> genres;
-    private final StorageManager storageManager;
+    private static final Locking READ = Locking.reading(Aggregate.GENRES);
+    private static final Locking WRITE = Locking.writing(Aggregate.GENRES);
+
+    private final AggregateLocks locks;
+    private final GenreDictionary genres;
+    private final Map<GenreSet, GenreSet> genreSets;
+    private final GroupCommitter committer;
 
     public GenreRepository(
-        final LockedExecutor executor,
+        final AggregateLocks locks,
         final RootProvider<DataRoot> rootProvider,
-        final StorageManager storageManager
+        final GroupCommitter committer
     )
     {
-        super(executor);
-        this.genres = rootProvider.root().genres();
-        this.storageManager = storageManager;
+        this.locks = locks;
+        final var root = rootProvider.root();
+        this.genres = root.genres();
+        this.genreSets = root.genreSets();
+        this.committer = committer;
     }
 
     /**
-     * Adds the specified genre to the genre set and stores the set.
+     * Adds the specified genre to the genre dictionary and stores the dictionary.
      * 
      * @param genre the genre to insert
      * @throws InvalidGenreException if the specified genre already exists
-     * @see Set#add(Object)
+     * @see GenreDictionary#add(String)
      */
     public void insert(final String genre) throws InvalidGenreException
     {
-        this.write(() ->
+        this.committer.commit(WRITE, stores ->
         {
             final boolean modified = this.genres.add(genre);
             if (!modified)
             {
                 throw new InvalidGenreException("Genre '%s' already exists.".formatted(genre));
             }
-            this.storageManager.store(this.genres);
+            stores.store(this.genres);
+        });
+    }
+
+    /**
+     * Adds all specified genres which don't exist yet to the genre dictionary and stores the dictionary once.
+     * 
+     * @param genres the genres to insert
+     * @return the amount of added genres
+     */
+    public int insertAll(final Collection<String> genres)
+    {
+        return this.committer.commit(WRITE, stores ->
+        {
+            int added = 0;
+            for (final String genre : genres)
+            {
+                if (this.genres.add(genre))
+                {
+                    added++;
+                }
+            }
+            if (added > 0)
+            {
+                stores.store(this.genres);
+            }
+            return added;
         });
     }
 
     /**
-     * Lists all genres contained in the genre set.
+     * Lists all existing genres of the genre dictionary.
      * 
      * @return an unmodifiable {@link Set} containing all genres
      */
     public Set<String> list()
     {
-        return this.read(() -> Collections.unmodifiableSet(this.genres));
+        return this.locks.execute(READ, this.genres::names);
     }
 
     /**
-     * Removes the specified genre from the genre set and stores the set.
+     * Marks the specified genre as deleted in the genre dictionary and stores the dictionary. Books keep the genre.
      * 
      * @param genre the genre to remove
      * @throws MissingGenreException if the specified genre could not be found
      */
     public void delete(final String genre) throws MissingGenreException
     {
-        this.write(() ->
+        this.committer.commit(WRITE, stores ->
         {
             final boolean modified = this.genres.remove(genre);
             if (!modified)
             {
                 throw new MissingGenreException(genre);
             }
-            this.storageManager.store(this.genres);
+            stores.store(this.genres);
         });
     }
+
+    /**
+     * Checks that all specified genres exist. Must only be called by operations holding the read or write lock of
+     * {@link Aggregate#GENRES}.
+     *
+     * @param genres the genres to check
+     * @throws InvalidGenreException if one of the genres does not exist
+     */
+    void validateExisting(final Collection<String> genres) throws InvalidGenreException
+    {
+        for (final var genre : genres)
+        {
+            if (!this.genres.contains(genre))
+            {
+                throw InvalidGenreException.doesNotExist(genre);
+            }
+        }
+    }
+
+    /**
+     * Encodes the genres and returns the canonical {@link GenreSet} of this combination, so all books with the same
+     * genres share one instance, in memory as well as in the storage. The canonical genre sets belong to the books, so
+     * this must only be called by operations holding the read lock of {@link Aggregate#GENRES} and the write lock of
+     * {@link Aggregate#BOOKS}.
+     *
+     * @param genres the existing genres to encode
+     * @param stores registers the canonical genre sets if a new combination has been added
+     * @return the canonical genre set
+     */
+    GenreSet canonical(final Set<String> genres, final PendingStores stores)
+    {
+        final GenreSet encoded = this.genres.encode(genres);
+        final GenreSet canonical = this.genreSets.putIfAbsent(encoded, encoded);
+        if (canonical != null)
+        {
+            return canonical;
+        }
+        stores.store(this.genreSets);
+        return encoded;
+    }
 }
@@ -0,0 +1,297 @@
+package one.microstream.demo.repository;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.eclipse.store.storage.types.StorageManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.micronaut.context.annotation.Value;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Singleton;
+
+/**
+ * Executes the write operations of the repositories under the locks of the aggregates they modify and stores their
+ * modifications.
+ *
+ * <p>
+ * By default every operation acquires its locks and stores on its own. With group commit enabled, operations arriving
+ * within a short window, up to a maximum batch size, are applied one after the other under a single acquisition of the
+ * locks of all their aggregates and their modifications are stored together afterward, see {@link PendingStores}.
+ * Every caller blocks until the commit of its batch has finished, so an acknowledged write is always durable.
+ *
+ * <p>
+ * An operation that fails only fails its own caller, the objects it registered are not stored and its actions after
+ * the commit are not executed. The repositories validate every operation before modifying anything, so a failing
+ * operation has usually not modified anything yet. If it has registered modified objects before failing, it is logged
+ * as partially applied: its modifications are still in memory and are stored by the next store of the same objects.
+ *
+ * <p>
+ * If the committer thread stops, e.g. because of an {@link Error}, all waiting and later operations fail with an
+ * {@link IllegalStateException} instead of blocking forever.
+ */
+@Singleton
+public class GroupCommitter
+{
+    private static final Logger LOG = LoggerFactory.getLogger(GroupCommitter.class);
+
+    private final AggregateLocks locks;
+    private final StorageManager storageManager;
+    private final WriteStamp writeStamp;
+    private final boolean enabled;
+    private final int maxBatchSize;
+    private final Duration window;
+    private final BlockingQueue<PendingWrite<?>> queue = new LinkedBlockingQueue<>();
+    private Thread committer;
+    private volatile boolean stopped;
+
+    public GroupCommitter(
+        final AggregateLocks locks,
+        final StorageManager storageManager,
+        final WriteStamp writeStamp,
+        @Value("${app.storage.group-commit.enabled:false}") final boolean enabled,
+        @Value("${app.storage.group-commit.max-batch-size:64}") final int maxBatchSize,
+        @Value("${app.storage.group-commit.window:2ms}") final Duration window
+    )
+    {
+        this.locks = locks;
+        this.storageManager = storageManager;
+        this.writeStamp = writeStamp;
+        this.enabled = enabled;
+        this.maxBatchSize = maxBatchSize;
+        this.window = window;
+    }
+
+    @PostConstruct
+    void start()
+    {
+        if (this.enabled)
+        {
+            this.committer = Thread.ofPlatform().name("group-commit").daemon().start(this::run);
+        }
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException
+    {
+        if (this.committer != null)
+        {
+            this.committer.interrupt();
+            this.committer.join();
+        }
+    }
+
+    /**
+     * Applies the operation under the locks of its aggregates and stores the objects it registered.
+     *
+     * @param locking   the aggregates the operation reads and writes
+     * @param operation modifies the data and registers every modified object
+     * @param <T>       the result type
+     * @return the result of the operation after its modifications have been stored
+     */
+    public <T> T commit(final Locking locking, final Function<PendingStores, T> operation)
+    {
+        if (!this.enabled || Thread.currentThread() == this.committer)
+        {
+            return this.locks.execute(locking, () ->
+            {
+                this.writeStamp.beginWrite(locking.writes());
+                try
+                {
+                    final var stores = new PendingStores();
+                    final T result = operation.apply(stores);
+                    stores.commit(this.storageManager);
+                    return result;
+                }
+                finally
+                {
+                    this.writeStamp.endWrite(locking.writes());
+                }
+            });
+        }
+
+        final var write = new PendingWrite<>(locking, operation);
+        this.queue.add(write);
+        // the committer may have drained the queue for the last time before the write was added
+        if (this.stopped && this.queue.remove(write))
+        {
+            throw stoppedException(null);
+        }
+        try
+        {
+            return write.future.join();
+        }
+        catch (final CompletionException e)
+        {
+            if (e.getCause() instanceof RuntimeException cause)
+            {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause)
+            {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Applies the operation under the locks of its aggregates and stores the objects it registered.
+     *
+     * @param locking   the aggregates the operation reads and writes
+     * @param operation modifies the data and registers every modified object
+     */
+    public void commit(final Locking locking, final Consumer<PendingStores> operation)
+    {
+        this.commit(locking, stores ->
+        {
+            operation.accept(stores);
+            return null;
+        });
+    }
+
+    private void run()
+    {
+        final long windowNanos = this.window.toNanos();
+        final var batch = new ArrayList<PendingWrite<?>>(this.maxBatchSize);
+        Throwable failure = null;
+        try
+        {
+            while (!Thread.currentThread().isInterrupted())
+            {
+                batch.add(this.queue.take());
+                final long deadline = System.nanoTime() + windowNanos;
+                while (batch.size() < this.maxBatchSize)
+                {
+                    final PendingWrite<?> next = this.queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null)
+                    {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                this.execute(batch);
+                batch.clear();
+            }
+        }
+        catch (final InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+        catch (final Throwable e)
+        {
+            failure = e;
+            throw e;
+        }
+        finally
+        {
+            this.stopped = true;
+            this.queue.drainTo(batch);
+            final var stopped = stoppedException(failure);
+            batch.forEach(write -> write.future.completeExceptionally(stopped));
+        }
+    }
+
+    private void execute(final List<PendingWrite<?>> batch)
+    {
+        final Locking locking = batch.stream()
+            .map(write -> write.locking)
+            .reduce(Locking::union)
+            .orElseThrow();
+        try
+        {
+            this.locks.run(locking, () ->
+            {
+                this.writeStamp.beginWrite(locking.writes());
+                try
+                {
+                    final var stores = new PendingStores();
+                    batch.forEach(write -> write.apply(stores));
+                    stores.commit(this.storageManager);
+                }
+                finally
+                {
+                    this.writeStamp.endWrite(locking.writes());
+                }
+            });
+        }
+        catch (final RuntimeException e)
+        {
+            LOG.error("Group commit of {} writes failed", batch.size(), e);
+            batch.forEach(write -> write.future.completeExceptionally(e));
+            return;
+        }
+        catch (final Error e)
+        {
+            // the committer thread stops, all later writes fail as well
+            LOG.error("Group commit of {} writes failed", batch.size(), e);
+            batch.forEach(write -> write.future.completeExceptionally(e));
+            throw e;
+        }
+        batch.forEach(PendingWrite::complete);
+    }
+
+    private static IllegalStateException stoppedException(final Throwable cause)
+    {
+        return new IllegalStateException("Group commit has been stopped", cause);
+    }
+
+    private static final class PendingWrite<T>
+    {
+        private final Locking locking;
+        private final Function<PendingStores, T> operation;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+        // only accessed by the committer thread
+        private T result;
+        private RuntimeException error;
+
+        PendingWrite(final Locking locking, final Function<PendingStores, T> operation)
+        {
+            this.locking = locking;
+            this.operation = operation;
+        }
+
+        /**
+         * Applies the operation with its own stores, which are only added to the stores of the batch if it succeeds.
+         */
+        void apply(final PendingStores batchStores)
+        {
+            final var stores = new PendingStores();
+            try
+            {
+                this.result = this.operation.apply(stores);
+                batchStores.addAll(stores);
+            }
+            catch (final RuntimeException e)
+            {
+                this.error = e;
+                if (!stores.isEmpty())
+                {
+                    LOG.error("Write failed after modifying data, its modifications are not stored by this commit", e);
+                }
+            }
+        }
+
+        void complete()
+        {
+            if (this.error != null)
+            {
+                this.future.completeExceptionally(this.error);
+            }
+            else
+            {
+                this.future.complete(this.result);
+            }
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package one.microstream.demo.repository;
+
+import java.util.UUID;
+
+/**
+ * Generates the IDs of new authors and books. The implementation is selected by <code>app.ids.generator</code>, see
+ * {@link UuidV7IdGenerator} and {@link RandomIdGenerator}.
+ */
+public interface IdGenerator
+{
+    /**
+     * @return a new unique ID
+     */
+    UUID next();
+}
@@ -0,0 +1,50 @@
+package one.microstream.demo.repository;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Optional;
+
+import org.eclipse.store.gigamap.types.GigaMap;
+
+import one.microstream.demo.domain.Book;
+import one.microstream.demo.exception.InvalidIsbnException;
+import one.microstream.demo.gigamap.GigaMapBookIndices;
+
+/**
+ * Validates the ISBNs of a batch of new books with a single hash pass over the batch and one bulk lookup in the ISBN
+ * index, instead of comparing every book with the whole batch and querying the index once per book.
+ */
+final class IsbnValidation
+{
+    /**
+     * @param books the books {@link GigaMap} the batch will be added to
+     * @param isbns the ISBNs of all books in the batch
+     * @throws InvalidIsbnException if an ISBN occurs twice in the batch or already exists in the books {@link GigaMap}
+     */
+    static void validateUnique(final GigaMap<Book> books, final Collection<String> isbns) throws InvalidIsbnException
+    {
+        final var batch = HashSet.<String>newHashSet(isbns.size());
+        for (final String isbn : isbns)
+        {
+            if (!batch.add(isbn))
+            {
+                throw new InvalidIsbnException(isbn);
+            }
+        }
+        if (batch.isEmpty())
+        {
+            return;
+        }
+
+        final Optional<Book> existing = books.query(GigaMapBookIndices.ISBN.in(batch.toArray(String[]::new)))
+            .findFirst();
+        if (existing.isPresent())
+        {
+            throw new InvalidIsbnException(existing.get().isbn());
+        }
+    }
+
+    private IsbnValidation()
+    {
+    }
+}
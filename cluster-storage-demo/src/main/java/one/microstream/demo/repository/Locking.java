@@ -0,0 +1,69 @@
+package one.microstream.demo.repository;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * The aggregates an operation reads and writes. An aggregate which is read and written is only write locked.
+ *
+ * @param reads  the aggregates which are only read
+ * @param writes the aggregates which are modified
+ */
+public record Locking(Set<Aggregate> reads, Set<Aggregate> writes)
+{
+    public Locking
+    {
+        writes = Collections.unmodifiableSet(copy(writes));
+        final EnumSet<Aggregate> readOnly = copy(reads);
+        readOnly.removeAll(writes);
+        reads = Collections.unmodifiableSet(readOnly);
+    }
+
+    /**
+     * @param aggregates the aggregates to read lock
+     * @return a locking reading the specified aggregates
+     */
+    public static Locking reading(final Aggregate... aggregates)
+    {
+        return new Locking(Set.of(aggregates), Set.of());
+    }
+
+    /**
+     * @param aggregates the aggregates to write lock
+     * @return a locking writing the specified aggregates
+     */
+    public static Locking writing(final Aggregate... aggregates)
+    {
+        return new Locking(Set.of(), Set.of(aggregates));
+    }
+
+    /**
+     * @param aggregates the aggregates to read lock additionally
+     * @return a locking which additionally reads the specified aggregates
+     */
+    public Locking alsoReading(final Aggregate... aggregates)
+    {
+        final EnumSet<Aggregate> reads = copy(this.reads);
+        Collections.addAll(reads, aggregates);
+        return new Locking(reads, this.writes);
+    }
+
+    /**
+     * @param other the locking to combine with
+     * @return a locking covering the reads and writes of both lockings
+     */
+    public Locking union(final Locking other)
+    {
+        final EnumSet<Aggregate> reads = copy(this.reads);
+        reads.addAll(other.reads);
+        final EnumSet<Aggregate> writes = copy(this.writes);
+        writes.addAll(other.writes);
+        return new Locking(reads, writes);
+    }
+
+    private static EnumSet<Aggregate> copy(final Set<Aggregate> aggregates)
+    {
+        return aggregates.isEmpty() ? EnumSet.noneOf(Aggregate.class) : EnumSet.copyOf(aggregates);
+    }
+}
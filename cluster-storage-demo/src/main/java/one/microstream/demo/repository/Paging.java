@@ -0,0 +1,134 @@
+package one.microstream.demo.repository;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+import java.util.stream.Stream;
+
+import org.eclipse.store.gigamap.types.Condition;
+import org.eclipse.store.gigamap.types.GigaQuery;
+import org.eclipse.store.gigamap.types.IndexerLong;
+
+import one.microstream.demo.domain.Book;
+import one.microstream.demo.domain.Sequence;
+import one.microstream.demo.dto.Page;
+import one.microstream.demo.exception.InvalidCursorException;
+
+/**
+ * Keyset paging over query streams. Queries return the entities in the order of their sequence number, see
+ * {@link Book#sequence()}. A cursor remembers the sequence number of the last returned entity, so the next page is
+ * queried with an additional condition on the sequence block index, see {@link Sequence#block(long)}, and the scan
+ * starts at the block of the previous page's last entity. At most {@link Sequence#BLOCK_SIZE} entities of that block
+ * are skipped, so reading a page only has to scan until the page is full, no matter how deep it is, and entities
+ * added or removed before the cursor do not shift the following pages.
+ */
+final class Paging
+{
+    /**
+     * Reads one page from the stream returned by <code>source</code>.
+     *
+     * @param source        returns a new stream of the query results in the order of their sequence numbers, which
+     *                      additionally matches the specified condition if it is not <code>null</code>. The
+     *                      condition is <code>null</code> for the first page.
+     * @param blockIndex    the index of the sequence blocks
+     * @param sequenceOf    returns the sequence number of an entity
+     * @param mapper        converts the entities of the page
+     * @param cursor        the cursor returned with the previous page or <code>null</code> for the first page
+     * @param pageSize      the maximum amount of results in the page
+     * @return the requested page
+     * @throws InvalidCursorException if the cursor could not be decoded
+     */
+    static <E, T> Page<T> page(
+        final Function<? super Condition<E>, ? extends Stream<E>> source,
+        final IndexerLong<E> blockIndex,
+        final ToLongFunction<? super E> sequenceOf,
+        final Function<? super E, ? extends T> mapper,
+        final String cursor,
+        final int pageSize
+    )
+        throws InvalidCursorException
+    {
+        if (cursor == null)
+        {
+            try (final Stream<E> stream = source.apply(null))
+            {
+                return collect(stream.iterator(), sequenceOf, mapper, pageSize);
+            }
+        }
+        final long last = decode(cursor);
+        try (final Stream<E> stream = source.apply(blockIndex.greaterThanEqual(Sequence.block(last))))
+        {
+            // skips the entities of the block up to the last one of the previous page
+            final Iterator<E> iterator = stream.filter(entity -> sequenceOf.applyAsLong(entity) > last).iterator();
+            return collect(iterator, sequenceOf, mapper, pageSize);
+        }
+    }
+
+    /**
+     * @param query the query of the page
+     * @param after the condition passed to the source of {@link #page}, may be <code>null</code>
+     * @return the query restricted to the entities after the cursor
+     */
+    static <E> GigaQuery<E> after(final GigaQuery<E> query, final Condition<E> after)
+    {
+        return after == null ? query : query.and(after);
+    }
+
+    private static <E, T> Page<T> collect(
+        final Iterator<E> iterator,
+        final ToLongFunction<? super E> sequenceOf,
+        final Function<? super E, ? extends T> mapper,
+        final int pageSize
+    )
+    {
+        final List<T> items = new ArrayList<>(Math.min(pageSize, 64));
+        E last = null;
+        while (items.size() < pageSize && iterator.hasNext())
+        {
+            last = iterator.next();
+            items.add(mapper.apply(last));
+        }
+        // only check for one more match, the scan stops as soon as the page is full
+        final String nextCursor = last != null && iterator.hasNext()
+            ? encode(sequenceOf.applyAsLong(last))
+            : null;
+        return new Page<>(List.copyOf(items), nextCursor);
+    }
+
+    private static long decode(final String cursor) throws InvalidCursorException
+    {
+        final byte[] bytes;
+        try
+        {
+            bytes = Base64.getUrlDecoder().decode(cursor);
+        }
+        catch (final IllegalArgumentException e)
+        {
+            throw new InvalidCursorException(cursor);
+        }
+        if (bytes.length != Long.BYTES)
+        {
+            throw new InvalidCursorException(cursor);
+        }
+        final long sequence = ByteBuffer.wrap(bytes).getLong();
+        if (sequence < 1)
+        {
+            throw new InvalidCursorException(cursor);
+        }
+        return sequence;
+    }
+
+    private static String encode(final long sequence)
+    {
+        final byte[] bytes = ByteBuffer.allocate(Long.BYTES).putLong(sequence).array();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private Paging()
+    {
+    }
+}
@@ -0,0 +1,122 @@
+package one.microstream.demo.repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.serializer.persistence.types.Storer;
+import org.eclipse.store.gigamap.types.GigaMap;
+import org.eclipse.store.storage.types.StorageManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Collects the objects modified by one write operation and the actions which must only happen once its modifications
+ * are durable, e.g. updating the full-text search index or invalidating cached responses. The objects of all
+ * operations of a group commit are stored with a single {@link Storer}, so they are committed to the storage at once
+ * and an object modified by several operations is only stored once. Modified {@link GigaMap}s are stored with
+ * {@link GigaMap#store()} before that, once per group commit, as only the {@link GigaMap} knows which of its segments
+ * and indices have changed. A {@link Storer} would skip them, because they have been persisted before.
+ */
+public final class PendingStores
+{
+    private static final Logger LOG = LoggerFactory.getLogger(PendingStores.class);
+
+    private final Set<GigaMap<?>> gigaMaps = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Set<Object> objects = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final List<Runnable> afterCommit = new ArrayList<>();
+
+    PendingStores()
+    {
+    }
+
+    /**
+     * @param gigaMap a modified {@link GigaMap}, its changes are stored by the same commit as all other objects
+     */
+    public void store(final GigaMap<?> gigaMap)
+    {
+        this.gigaMaps.add(gigaMap);
+    }
+
+    /**
+     * @param object a modified object
+     */
+    public void store(final Object object)
+    {
+        if (object instanceof final GigaMap<?> gigaMap)
+        {
+            this.store(gigaMap);
+        }
+        else
+        {
+            this.objects.add(object);
+        }
+    }
+
+    /**
+     * @param objects the modified objects
+     */
+    public void storeAll(final Collection<?> objects)
+    {
+        objects.forEach(this::store);
+    }
+
+    /**
+     * Registers an action which is executed after the modifications have been committed, still holding the locks of the
+     * operation. It is not executed if the operation or the commit fails.
+     *
+     * @param action the action, e.g. updating a secondary index
+     */
+    public void afterCommit(final Runnable action)
+    {
+        this.afterCommit.add(action);
+    }
+
+    /**
+     * @return <code>true</code> if no object has been registered, so the operation has not modified anything yet
+     */
+    boolean isEmpty()
+    {
+        return this.gigaMaps.isEmpty() && this.objects.isEmpty();
+    }
+
+    /**
+     * Adds the objects and actions of a successfully applied operation to the stores of its group commit.
+     */
+    void addAll(final PendingStores stores)
+    {
+        this.gigaMaps.addAll(stores.gigaMaps);
+        this.objects.addAll(stores.objects);
+        this.afterCommit.addAll(stores.afterCommit);
+    }
+
+    /**
+     * Stores the registered {@link GigaMap}s, then all other registered objects with one {@link Storer} and commits
+     * them at once, then executes the registered actions. A failing action is logged and does not fail the already
+     * durable operation.
+     */
+    void commit(final StorageManager storageManager)
+    {
+        this.gigaMaps.forEach(GigaMap::store);
+        if (!this.objects.isEmpty())
+        {
+            final Storer storer = storageManager.createLazyStorer();
+            this.objects.forEach(storer::store);
+            storer.commit();
+        }
+        for (final Runnable action : this.afterCommit)
+        {
+            try
+            {
+                action.run();
+            }
+            catch (final RuntimeException e)
+            {
+                LOG.error("Action after commit failed", e);
+            }
+        }
+    }
+}
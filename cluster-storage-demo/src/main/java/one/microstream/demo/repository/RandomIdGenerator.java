@@ -0,0 +1,20 @@
+package one.microstream.demo.repository;
+
+import java.util.UUID;
+
+import io.micronaut.context.annotation.Requires;
+import jakarta.inject.Singleton;
+
+/**
+ * Generates random version 4 UUIDs with {@link UUID#randomUUID()}.
+ */
+@Singleton
+@Requires(property = "app.ids.generator", value = "random")
+public class RandomIdGenerator implements IdGenerator
+{
+    @Override
+    public UUID next()
+    {
+        return UUID.randomUUID();
+    }
+}
@@ -0,0 +1,47 @@
+package one.microstream.demo.repository;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.micronaut.context.annotation.Requires;
+import jakarta.inject.Singleton;
+
+/**
+ * Generates time-ordered version 7 UUIDs as specified by RFC 9562, so new IDs are appended to the end of the ID indices
+ * instead of being scattered over them. The 12 bits following the millisecond timestamp are a sequence which keeps
+ * the IDs monotonic within the same millisecond, the remaining 62 bits are random. The random bits are taken from
+ * {@link ThreadLocalRandom} instead of the contended {@link java.security.SecureRandom} of {@link UUID#randomUUID()}.
+ *
+ * <p>
+ * The Hibernate demo generates its IDs with a copy of this class, <code>UuidV7Generator</code>, because both demos are
+ * separate builds without a shared module. Changes to the bit layout have to be made in both.
+ */
+@Singleton
+@Requires(property = "app.ids.generator", value = "uuid-v7", defaultValue = "uuid-v7")
+public class UuidV7IdGenerator implements IdGenerator
+{
+    private static final int SEQUENCE_BITS = 12;
+
+    // millisecond timestamp shifted left by the sequence bits plus the sequence
+    private final AtomicLong lastTimestampAndSequence = new AtomicLong();
+
+    @Override
+    public UUID next()
+    {
+        return this.next(System.currentTimeMillis());
+    }
+
+    UUID next(final long currentTimeMillis)
+    {
+        final long now = currentTimeMillis << SEQUENCE_BITS;
+        // an exhausted sequence or a clock going backwards borrows from the following milliseconds
+        final long timestampAndSequence = this.lastTimestampAndSequence.updateAndGet(last -> Math.max(now, last + 1));
+        final long mostSigBits = timestampAndSequence >>> SEQUENCE_BITS << 16
+            | 0x7000L
+            | timestampAndSequence & 0xFFFL;
+        final long leastSigBits = ThreadLocalRandom.current().nextLong() & 0x3FFF_FFFF_FFFF_FFFFL
+            | 0x8000_0000_0000_0000L;
+        return new UUID(mostSigBits, leastSigBits);
+    }
+}
@@ -0,0 +1,160 @@
+package one.microstream.demo.repository;
+
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+import org.eclipse.serializer.reference.Lazy;
+
+import io.micronaut.context.annotation.Value;
+import jakarta.inject.Singleton;
+
+/**
+ * Version stamps per {@link Aggregate} bumped by every write of the repositories, used to read without any lock. A
+ * stamp is odd while a write of its aggregate is in progress and even otherwise, like a sequence lock: a read which saw
+ * the same even stamps before and after it ran cannot have overlapped a write. Writes of the same aggregate are
+ * serialized by its write lock, so a stamp is never bumped by two writes at once.
+ *
+ * <p>
+ * An unlocked read may observe a write halfway. Its result is discarded by the validation, but the read itself must
+ * neither load anything nor run for long on torn data, so reads call {@link #checkpoint(Lazy)} for every entity they
+ * access. It abandons the read as soon as a write has started or before a {@link Lazy} reference would be loaded, and
+ * the read is retried under the lock. Exceptions caused by torn data are handled the same way.
+ *
+ * <p>
+ * The stamps are bumped by the {@link GroupCommitter} only. A replica applies the writes it receives from the message
+ * queues without any stamp changing, so a validated read could still have overlapped one of them. That is why
+ * <code>app.storage.optimistic-reads.enabled</code> is off by default and only meant for a node that never applies
+ * replicated writes.
+ */
+@Singleton
+public class WriteStamp
+{
+    private static final long NOT_READ = -1L;
+    private static final LockRequired LOCK_REQUIRED = new LockRequired();
+
+    private final AtomicLongArray stamps = new AtomicLongArray(Aggregate.values().length);
+    private final boolean optimisticReads;
+    // the stamps seen by the unlocked read of the current thread, NOT_READ for aggregates the read does not access
+    private final ThreadLocal<long[]> unlockedRead = new ThreadLocal<>();
+
+    public WriteStamp(@Value("${app.storage.optimistic-reads.enabled:false}") final boolean optimisticReads)
+    {
+        this.optimisticReads = optimisticReads;
+    }
+
+    /**
+     * Must be called while holding the write locks of the aggregates, before the data is modified.
+     */
+    void beginWrite(final Set<Aggregate> aggregates)
+    {
+        this.bump(aggregates);
+    }
+
+    /**
+     * Must be called while holding the write locks of the aggregates, after the modified data has been stored.
+     */
+    void endWrite(final Set<Aggregate> aggregates)
+    {
+        this.bump(aggregates);
+    }
+
+    private void bump(final Set<Aggregate> aggregates)
+    {
+        aggregates.forEach(aggregate -> this.stamps.incrementAndGet(aggregate.ordinal()));
+    }
+
+    /**
+     * Runs the read without a lock and returns its result if no write happened in the meantime. Otherwise, or if the
+     * unlocked read failed because it saw the data in an intermediate state, the locked read is returned instead.
+     *
+     * @param aggregates the aggregates the read accesses
+     * @param read       the read to try without a lock, must not modify any data
+     * @param lockedRead the same read holding the read locks
+     * @param <T>        the result type
+     * @return the result of a read which did not overlap any write
+     */
+    <T> T read(final Set<Aggregate> aggregates, final Supplier<T> read, final Supplier<T> lockedRead)
+    {
+        if (!this.optimisticReads)
+        {
+            return lockedRead.get();
+        }
+        final long[] before = new long[this.stamps.length()];
+        Arrays.fill(before, NOT_READ);
+        boolean writing = false;
+        for (final Aggregate aggregate : aggregates)
+        {
+            before[aggregate.ordinal()] = this.stamps.get(aggregate.ordinal());
+            writing |= (before[aggregate.ordinal()] & 1) != 0;
+        }
+        if (!writing)
+        {
+            this.unlockedRead.set(before);
+            try
+            {
+                final T result = read.get();
+                if (this.unchanged(before))
+                {
+                    return result;
+                }
+            }
+            catch (final RuntimeException ignored)
+            {
+                // abandoned by a checkpoint or inconsistent state of a concurrent write, retry under the lock
+            }
+            finally
+            {
+                this.unlockedRead.remove();
+            }
+        }
+        return lockedRead.get();
+    }
+
+    /**
+     * Must be called by reads for every entity they access, before accessing the specified reference. Within an unlocked
+     * read, the read is abandoned and retried under the lock if a write has started since the read began or if the
+     * reference is not loaded. Does nothing within a locked read.
+     *
+     * @param reference the {@link Lazy} reference the read is about to access or <code>null</code>
+     */
+    void checkpoint(final Lazy<?> reference)
+    {
+        final long[] before = this.unlockedRead.get();
+        if (before == null)
+        {
+            return;
+        }
+        if (reference != null && !reference.isLoaded() || !this.unchanged(before))
+        {
+            throw LOCK_REQUIRED;
+        }
+    }
+
+    private boolean unchanged(final long[] before)
+    {
+        // the data reads before must not be reordered after the validation, see StampedLock#validate
+        VarHandle.acquireFence();
+        for (int i = 0; i < before.length; i++)
+        {
+            if (before[i] != NOT_READ && this.stamps.get(i) != before[i])
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Abandons an unlocked read, thrown without a stack trace as it is always caught by {@link #read}.
+     */
+    private static final class LockRequired extends RuntimeException
+    {
+        LockRequired()
+        {
+            super(null, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package one.microstream.demo.suggest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import one.microstream.demo.exception.SuggestionsDisabledException;
+
+/**
+ * Sorted in-memory index of strings for case-insensitive prefix lookups. A lookup seeks to the first string with the
+ * prefix and reads the following strings in order until enough have been found, so its cost only depends on the
+ * amount of requested suggestions and not on the amount of indexed strings.
+ *
+ * <p>
+ * The same string can be added multiple times, e.g. for two books with the same title, and is only suggested once. It
+ * is suggested until it has been removed as often as it has been added.
+ *
+ * <p>
+ * A disabled index ignores all modifications and rejects lookups with a {@link SuggestionsDisabledException}.
+ *
+ * <p>
+ * Not thread-safe, modifications are expected to happen while holding the write lock of the aggregate the strings
+ * belong to and lookups while holding at least its read lock.
+ */
+public final class PrefixIndex
+{
+    private final boolean enabled;
+    // lower-cased string -> original strings and how often each has been added
+    private final NavigableMap<String, Map<String, Integer>> entries = new TreeMap<>();
+
+    PrefixIndex(final boolean enabled)
+    {
+        this.enabled = enabled;
+    }
+
+    /**
+     * @return <code>true</code> if the index is enabled by <code>app.suggestions.enabled</code>
+     */
+    public boolean enabled()
+    {
+        return this.enabled;
+    }
+
+    /**
+     * Removes all strings from the index.
+     */
+    public void clear()
+    {
+        this.entries.clear();
+    }
+
+    /**
+     * @param value the string to add
+     */
+    public void add(final String value)
+    {
+        if (!this.enabled)
+        {
+            return;
+        }
+        this.entries.computeIfAbsent(normalize(value), key -> new TreeMap<>()).merge(value, 1, Integer::sum);
+    }
+
+    /**
+     * @param value the string to remove
+     */
+    public void remove(final String value)
+    {
+        if (!this.enabled)
+        {
+            return;
+        }
+        this.entries.computeIfPresent(
+            normalize(value),
+            (key, values) ->
+            {
+                values.computeIfPresent(value, (v, count) -> count == 1 ? null : count - 1);
+                return values.isEmpty() ? null : values;
+            }
+        );
+    }
+
+    /**
+     * Replaces a string if it changed.
+     *
+     * @param oldValue the string to remove
+     * @param newValue the string to add
+     */
+    public void replace(final String oldValue, final String newValue)
+    {
+        if (!oldValue.equals(newValue))
+        {
+            this.remove(oldValue);
+            this.add(newValue);
+        }
+    }
+
+    /**
+     * Returns the strings starting with the specified prefix, ignoring case, in alphabetical order.
+     *
+     * @param prefix the prefix
+     * @param limit  the maximum amount of strings
+     * @return a read-only list of the distinct matching strings
+     * @throws SuggestionsDisabledException if the index is disabled
+     */
+    public List<String> suggest(final String prefix, final int limit)
+    {
+        if (!this.enabled)
+        {
+            throw new SuggestionsDisabledException();
+        }
+        final String normalizedPrefix = normalize(prefix);
+        final var suggestions = new ArrayList<String>(limit);
+        for (final var entry : this.entries.tailMap(normalizedPrefix, true).entrySet())
+        {
+            if (!entry.getKey().startsWith(normalizedPrefix))
+            {
+                break;
+            }
+            for (final String value : entry.getValue().keySet())
+            {
+                if (suggestions.size() == limit)
+                {
+                    return List.copyOf(suggestions);
+                }
+                suggestions.add(value);
+            }
+        }
+        return List.copyOf(suggestions);
+    }
+
+    private static String normalize(final String value)
+    {
+        return value.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,45 @@
+package one.microstream.demo.suggest;
+
+import io.micronaut.context.annotation.Value;
+import jakarta.inject.Singleton;
+
+/**
+ * Holds the prefix indices used for autocompletion. The indices are kept in memory only, they are built from the
+ * GigaMaps on startup and maintained by the repositories together with the GigaMap indices.
+ *
+ * <p>
+ * A replica builds the indices from its storage on startup, but titles and names it receives from the message queues
+ * afterward are never added, and removed ones keep being suggested. Both indices are empty and reject lookups unless
+ * <code>app.suggestions.enabled</code> is set.
+ */
+@Singleton
+public class SuggestionIndex
+{
+    public static final int DEFAULT_SUGGESTION_COUNT = 10;
+    public static final int MAX_SUGGESTION_COUNT = 100;
+
+    private final PrefixIndex bookTitles;
+    private final PrefixIndex authorNames;
+
+    public SuggestionIndex(@Value("${app.suggestions.enabled:false}") final boolean enabled)
+    {
+        this.bookTitles = new PrefixIndex(enabled);
+        this.authorNames = new PrefixIndex(enabled);
+    }
+
+    /**
+     * @return the prefix index over the titles of all books
+     */
+    public PrefixIndex bookTitles()
+    {
+        return this.bookTitles;
+    }
+
+    /**
+     * @return the prefix index over the names of all authors
+     */
+    public PrefixIndex authorNames()
+    {
+        return this.authorNames;
+    }
+}
@@ -12,7 +12,7 @@ public record AuthorNoId(String name, String about, List<BookNoId> books)
         List<BookNoId> booksNoId = null;
         if (books != null)
         {
-            booksNoId = books.stream().map(BookNoId::from).sorted((a, b) -> a.isbn().compareTo(b.isbn())).toList();
+            booksNoId = books.values().stream().map(BookNoId::from).sorted((a, b) -> a.isbn().compareTo(b.isbn())).toList();
         }
         return new AuthorNoId(
             author.name(),
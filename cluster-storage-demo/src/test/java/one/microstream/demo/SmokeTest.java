@@ -4,6 +4,7 @@ import io.micronaut.core.annotation.NonNull;
 import io.micronaut.core.type.Argument;
 import io.micronaut.eclipsestore.RootProvider;
 import io.micronaut.http.HttpRequest;
+import io.micronaut.http.MediaType;
 import io.micronaut.http.client.HttpClient;
 import io.micronaut.http.client.annotation.Client;
 import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
@@ -41,7 +42,17 @@ public class SmokeTest implements TestPropertyProvider
             "eclipsestore.storage.main.storage-directory",
             eclipsestoreStorageMainStorageDirectory.toString(),
             "app.lucene.index.book.storage-directory",
-            appLuceneIndexBookStorageDirectory.toString()
+            appLuceneIndexBookStorageDirectory.toString(),
+            "app.lucene.index.book.enabled",
+            "true",
+            "app.suggestions.enabled",
+            "true",
+            "app.cache.responses.enabled",
+            "true",
+            "app.lazy.book-descriptions.enabled",
+            "true",
+            "app.lazy.book-descriptions.compressed",
+            "true"
         );
     }
 
@@ -118,9 +129,14 @@ public class SmokeTest implements TestPropertyProvider
             new UpdateAuthor("UpdatedAuthor", "I am the updated author!")
         ));
         var expectedAuthor1 =
-            new GetAuthorById(author1.id(), "UpdatedAuthor", "I am the updated author!", Set.of());
+            new GetAuthorById(author1.id(), "UpdatedAuthor", "I am the updated author!", List.of(), null);
         var actualAuthor1 = client.retrieve("/author/id/" + author1.id(), GetAuthorById.class);
         assertEquals(expectedAuthor1, actualAuthor1);
+        List<String> suggestedNames = client.retrieve(
+            HttpRequest.GET("/author/suggest?prefix=upd"),
+            Argument.listOf(String.class)
+        );
+        assertEquals(List.of("UpdatedAuthor"), suggestedNames);
 
         // delete author 2
         LOG.info("Deleting author 2");
@@ -171,6 +187,93 @@ public class SmokeTest implements TestPropertyProvider
             Argument.listOf(SearchBookByTitle.class)
         );
         assertEquals(5, allBooksAfterInsert.size());
+        // longer search texts are resolved through the trigram index
+        List<SearchBookByTitle> trigramSearchBooks = client.retrieve(
+            HttpRequest.GET("/book/title?search=OOK5tit"),
+            Argument.listOf(SearchBookByTitle.class)
+        );
+        assertEquals(1, trigramSearchBooks.size());
+        assertEquals("Book5Title", trigramSearchBooks.get(0).title());
+
+        // autocomplete titles by prefix
+        LOG.info("Suggesting book titles");
+        List<String> suggestedTitles = client.retrieve(
+            HttpRequest.GET("/book/suggest?prefix=BOOK&size=3"),
+            Argument.listOf(String.class)
+        );
+        assertEquals(List.of("Book1Title", "Book2Title", "Book3Title"), suggestedTitles);
+
+        // page through the same search and ensure the pages add up to the full result
+        LOG.info("Paging through books");
+        var pagedBooks = new ArrayList<SearchBookByTitle>();
+        String cursor = null;
+        do
+        {
+            var uri = "/book/title?search=b&size=2" + (cursor == null ? "" : "&cursor=" + cursor);
+            var page = client.exchange(HttpRequest.GET(uri), Argument.listOf(SearchBookByTitle.class));
+            pagedBooks.addAll(page.body());
+            cursor = page.header("X-Next-Cursor");
+        }
+        while (cursor != null);
+        assertIterableEquals(allBooksAfterInsert, pagedBooks);
+
+        // the streamed search has to return the same books, one per line
+        LOG.info("Streaming books");
+        var streamedBooks = client.retrieve(
+            HttpRequest.GET("/book/stream/title?search=b").accept("application/x-ndjson"),
+            String.class
+        );
+        assertEquals(5, streamedBooks.lines().count());
+
+        // the full-text search finds books by their description
+        LOG.info("Searching books by text");
+        List<SearchBookByText> textSearchBooks = client.retrieve(
+            HttpRequest.GET("/book/search?query=book5description"),
+            Argument.listOf(SearchBookByText.class)
+        );
+        assertEquals(1, textSearchBooks.size());
+        assertEquals("Book5Title", textSearchBooks.get(0).title());
+
+        // search by publication date in year and month granularity
+        LOG.info("Searching books by publication date");
+        List<SearchBookByPublication> booksPublished2011To2012 = client.retrieve(
+            HttpRequest.GET("/book/published?from=2011&to=2012&genres=action"),
+            Argument.listOf(SearchBookByPublication.class)
+        );
+        assertEquals(2, booksPublished2011To2012.size());
+        List<SearchBookByPublication> booksPublishedMarch2013 = client.retrieve(
+            HttpRequest.GET("/book/published?from=2013-03&to=2013-03"),
+            Argument.listOf(SearchBookByPublication.class)
+        );
+        assertEquals(1, booksPublishedMarch2013.size());
+        assertEquals(LocalDate.of(2013, 3, 3), booksPublishedMarch2013.get(0).publicationDate());
+
+        // combine multiple criteria in one query
+        LOG.info("Querying books by multiple criteria");
+        List<SearchBookByQuery> queriedBooks = client.retrieve(
+            HttpRequest.GET("/book/query?genres=action&from=2014&author=" + author3.id()),
+            Argument.listOf(SearchBookByQuery.class)
+        );
+        assertEquals(2, queriedBooks.size());
+        List<SearchBookByQuery> queriedMissingBooks = client.retrieve(
+            HttpRequest.GET("/book/query?genres=action&isbn=MissingIsbn"),
+            Argument.listOf(SearchBookByQuery.class)
+        );
+        assertTrue(queriedMissingBooks.isEmpty());
+
+        // count the same criteria without loading any book
+        LOG.info("Counting books by multiple criteria");
+        long countedBooks = client.retrieve(
+            HttpRequest.GET("/book/query/count?genres=action&from=2011&to=2012"),
+            Long.class
+        );
+        assertEquals(2, countedBooks);
+        BookFacets facets = client.retrieve(
+            HttpRequest.GET("/book/query/facets?genres=action&from=2011&to=2012"),
+            BookFacets.class
+        );
+        assertEquals(2, facets.total());
+        assertEquals(2, facets.publicationYears().stream().mapToLong(BookFacets.FacetCount::count).sum());
 
         LOG.info("Updating book 0 and 2");
         // update book 0
@@ -223,6 +326,8 @@ public class SmokeTest implements TestPropertyProvider
         var actualBook2 = client.retrieve("/book/id/" + insertedBook2.id(), GetBookById.class);
         assertEquals(expectedBook0, actualBook0);
         assertEquals(expectedBook2, actualBook2);
+        // served from the response cache
+        assertEquals(expectedBook0, client.retrieve("/book/id/" + insertedBook0.id(), GetBookById.class));
 
         // delete book 1 and 3
         LOG.info("Deleting book 1 and 3");
@@ -230,6 +335,43 @@ public class SmokeTest implements TestPropertyProvider
         var book3 = allBooksAfterInsert.get(3);
         client.exchange(HttpRequest.DELETE("/book/batch?ids=%s,%s".formatted(book1.id(), book3.id())));
         assertEquals(3, rootProvider.root().authors().size());
+
+        // import 2 books from csv in chunks of 1 book and delete them again
+        LOG.info("Importing 2 books");
+        var csv = """
+            isbn,title,description,pages,genres,publicationDate,authorId
+            Import1Isbn,Import1Title,"Imported, with comma",10,action,2021-01-01,%1$s
+            Import2Isbn,Import2Title,"Imported \"\"quoted\"\"",20,action,2022-02-02,%1$s
+            """.formatted(author3.id());
+        ImportResult importResult = client.retrieve(
+            HttpRequest.POST("/import/books?chunkSize=1", csv).contentType(MediaType.TEXT_CSV),
+            ImportResult.class
+        );
+        assertEquals(2, importResult.imported());
+        assertEquals(2, importResult.chunks().size());
+        List<SearchBookByTitle> importedBooks = client.retrieve(
+            HttpRequest.GET("/book/title?search=import"),
+            Argument.listOf(SearchBookByTitle.class)
+        );
+        assertEquals(2, importedBooks.size());
+        client.exchange(HttpRequest.DELETE(
+            "/book/batch?ids=%s,%s".formatted(importedBooks.get(0).id(), importedBooks.get(1).id())
+        ));
+
+        // every aggregate lock has been used
+        Map<String, LockMetrics> locks = client.retrieve(
+            HttpRequest.GET("/locks"),
+            Argument.mapOf(String.class, LockMetrics.class)
+        );
+        assertEquals(Set.of("genres", "authors", "books"), locks.keySet());
+        assertTrue(locks.values().stream().allMatch(lock -> lock.writeAcquisitions() > 0));
+
+        // the repeated book lookup has been a hit
+        Map<String, CacheMetrics> caches = client.retrieve(
+            HttpRequest.GET("/caches"),
+            Argument.mapOf(String.class, CacheMetrics.class)
+        );
+        assertTrue(caches.get("book").hits() > 0);
     }
 
     /**
@@ -303,7 +445,7 @@ public class SmokeTest implements TestPropertyProvider
             )
         );
 
-        var actualGenres = rootProvider.root().genres();
+        var actualGenres = rootProvider.root().genres().names();
         var actualAuthors = rootProvider.root()
             .authors()
             .query()
@@ -331,5 +473,16 @@ public class SmokeTest implements TestPropertyProvider
         assertTrue(actualGenres.containsAll(expectedGenres));
         assertIterableEquals(expectedAuthors, actualAuthors);
         assertIterableEquals(expectedBooks, actualBooks);
+
+        // books with the same genres share one canonical genre set
+        var genreSetInstances = rootProvider.root()
+            .books()
+            .query()
+            .toList()
+            .stream()
+            .map(book -> System.identityHashCode(book.genres()))
+            .distinct()
+            .count();
+        assertEquals(1, genreSetInstances);
     }
 }
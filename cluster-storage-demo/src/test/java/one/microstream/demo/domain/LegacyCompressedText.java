@@ -0,0 +1,18 @@
+package one.microstream.demo.domain;
+
+/**
+ * Has the fields {@link CompressedText} had before {@link BinaryHandlerCompressedText} was registered, so it is stored
+ * with the generic layout of that time. Its type name is replaced in the type dictionary by the one of
+ * {@link CompressedText} to simulate an older storage.
+ */
+final class LegacyCompressedText
+{
+    private final byte[] data;
+    private final int length;
+
+    LegacyCompressedText(final byte[] data, final int length)
+    {
+        this.data = data;
+        this.length = length;
+    }
+}
@@ -0,0 +1,153 @@
+package one.microstream.demo.domain;
+
+import one.microstream.demo.persistence.StorageFoundationCustomizer;
+import org.eclipse.serializer.reference.Lazy;
+import org.eclipse.store.storage.embedded.types.EmbeddedStorage;
+import org.eclipse.store.storage.embedded.types.EmbeddedStorageManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Stores books, authors and compressed texts with the type handlers registered by {@link StorageFoundationCustomizer},
+ * restarts the storage and checks that every value is loaded again, also for compressed texts stored with the generic
+ * layout before the custom handler was registered.
+ */
+class TypeHandlerRoundTripTest
+{
+    private static final String DESCRIPTION = "A long story about dragons and the knights hunting them. ".repeat(20);
+
+    @TempDir
+    Path storageDirectory;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void storesAndLoadsBooksAndAuthors()
+    {
+        var dictionary = new GenreDictionary();
+        dictionary.add("action");
+        dictionary.add("drama");
+        var author = new Author(UUID.randomUUID(), 7, "Author", "About", Lazy.Reference(new LinkedHashMap<>()));
+        var compressed = CompressedText.compress(DESCRIPTION);
+        assertInstanceOf(CompressedText.class, compressed);
+        var books = List.of(
+            new Book(
+                UUID.randomUUID(),
+                1,
+                "Isbn1",
+                "Plain",
+                "Plain description",
+                false,
+                100,
+                dictionary.encode(List.of("action")),
+                LocalDate.of(2001, 2, 3),
+                author
+            ),
+            new Book(
+                UUID.randomUUID(),
+                2,
+                "Isbn2",
+                "Compressed",
+                compressed,
+                true,
+                200,
+                dictionary.encode(List.of("action", "drama")),
+                LocalDate.of(2004, 5, 6),
+                author
+            )
+        );
+        books.forEach(book -> author.books().get().put(book.id(), book));
+        try (EmbeddedStorageManager storage = this.start(false))
+        {
+            storage.setRoot(new ArrayList<>(books));
+            storage.storeRoot();
+        }
+
+        try (EmbeddedStorageManager storage = this.start(false))
+        {
+            var loaded = (List<Book>)storage.root();
+            assertEquals(2, loaded.size());
+            for (int i = 0; i < books.size(); i++)
+            {
+                var expected = books.get(i);
+                var book = loaded.get(i);
+                assertEquals(expected.id(), book.id());
+                assertEquals(expected.sequence(), book.sequence());
+                assertEquals(expected.isbn(), book.isbn());
+                assertEquals(expected.title(), book.title());
+                assertEquals(expected.description(), book.description());
+                assertEquals(expected.pages(), book.pages());
+                assertEquals(expected.genres(), book.genres());
+                assertEquals(expected.publicationDate(), book.publicationDate());
+                assertSame(loaded.get(0).author(), book.author());
+            }
+            assertNull(loaded.get(0).lazyDescription());
+            assertInstanceOf(CompressedText.class, loaded.get(1).lazyDescription().get());
+
+            var loadedAuthor = loaded.get(0).author();
+            assertEquals(author.id(), loadedAuthor.id());
+            assertEquals(7, loadedAuthor.sequence());
+            assertEquals("Author", loadedAuthor.name());
+            assertEquals("About", loadedAuthor.about());
+            var authorBooks = loadedAuthor.books().get();
+            assertEquals(2, authorBooks.size());
+            assertSame(loaded.get(0), authorBooks.get(books.get(0).id()));
+            assertSame(loaded.get(1), authorBooks.get(books.get(1).id()));
+        }
+    }
+
+    @Test
+    void loadsCompressedTextsStoredWithTheGenericLayout() throws Exception
+    {
+        var compressed = (CompressedText)CompressedText.compress(DESCRIPTION);
+        try (EmbeddedStorageManager storage = this.start(true))
+        {
+            storage.setRoot(new ArrayList<>(List.of(new LegacyCompressedText(compressed.data, DESCRIPTION.length()))));
+            storage.storeRoot();
+        }
+        this.renameType(LegacyCompressedText.class, CompressedText.class);
+
+        try (EmbeddedStorageManager storage = this.start(false))
+        {
+            var text = assertInstanceOf(CompressedText.class, ((List<?>)storage.root()).get(0));
+            assertEquals(DESCRIPTION, text.toString());
+
+            // stored again with the layout of the custom handler
+            storage.store(text);
+        }
+        try (EmbeddedStorageManager storage = this.start(false))
+        {
+            assertEquals(DESCRIPTION, ((List<?>)storage.root()).get(0).toString());
+        }
+    }
+
+    private EmbeddedStorageManager start(final boolean generic)
+    {
+        var foundation = EmbeddedStorage.Foundation(this.storageDirectory);
+        return generic ? foundation.start() : StorageFoundationCustomizer.registerTypeHandlers(foundation).start();
+    }
+
+    /**
+     * Replaces the type name in the type dictionary of the storage, so the stored instances are loaded as the other
+     * type.
+     */
+    private void renameType(final Class<?> from, final Class<?> to) throws Exception
+    {
+        try (Stream<Path> files = Files.walk(this.storageDirectory))
+        {
+            var dictionaries = files.filter(file -> file.getFileName().toString().endsWith(".ptd")).toList();
+            assertFalse(dictionaries.isEmpty());
+            for (var dictionary : dictionaries)
+            {
+                Files.writeString(dictionary, Files.readString(dictionary).replace(from.getName(), to.getName()));
+            }
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package one.microstream.demo.importer;
+
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import io.micronaut.test.support.TestPropertyProvider;
+import jakarta.inject.Inject;
+import one.microstream.demo.dto.InsertAuthor;
+import one.microstream.demo.exception.InvalidImportException;
+import one.microstream.demo.repository.AuthorRepository;
+import one.microstream.demo.repository.BookRepository;
+import one.microstream.demo.repository.GenreRepository;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@MicronautTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ChunkedImporterTest implements TestPropertyProvider
+{
+    @TempDir
+    static Path eclipsestoreStorageMainStorageDirectory;
+
+    @Override
+    public @NonNull Map<String, String> getProperties()
+    {
+        return Map.of(
+            "eclipsestore.storage.main.storage-directory",
+            eclipsestoreStorageMainStorageDirectory.toString()
+        );
+    }
+
+    @Inject
+    ChunkedImporter importer;
+    @Inject
+    GenreRepository genres;
+    @Inject
+    AuthorRepository authors;
+    @Inject
+    BookRepository books;
+
+    UUID authorId;
+
+    @BeforeAll
+    void insertAuthor()
+    {
+        this.genres.insert("action");
+        this.genres.insert("drama");
+        this.authorId = this.authors.insert(List.of(new InsertAuthor("Author", "About", null))).get(0).id();
+    }
+
+    @Test
+    void importsCsvInChunks()
+    {
+        var csv = """
+            isbn,title,description,pages,genres,publicationDate,authorId
+            Chunk1Isbn,Title 1,"With, comma",10,action,2021-01-01,%1$s
+            Chunk2Isbn,Title 2,"With \"\"quotes\"\"",20,action;drama,2022-02-02,%1$s
+            Chunk3Isbn,Title 3,"With
+            line break",30,drama,2023-03-03,%1$s
+            """.formatted(this.authorId);
+
+        var result = this.importer.importBooks(input(csv), ImportFormat.CSV, 2);
+
+        assertEquals(3, result.imported());
+        assertEquals(2, result.chunks().size());
+        assertEquals(1, result.chunks().get(0).firstRecord());
+        assertEquals(2, result.chunks().get(0).records());
+        assertEquals(3, result.chunks().get(1).firstRecord());
+        assertEquals(1, result.chunks().get(1).records());
+        var second = this.books.getByISBN("Chunk2Isbn");
+        assertEquals("With \"quotes\"", second.description());
+        assertEquals(Set.of("action", "drama"), second.genres());
+        assertEquals("With\nline break", this.books.getByISBN("Chunk3Isbn").description());
+    }
+
+    @Test
+    void acceptsCsvColumnsInAnyOrderWithAdditionalColumns()
+    {
+        var csv = """
+            ignored,about,name
+            x,"About, with comma",Csv Author
+            """;
+
+        var result = this.importer.importAuthors(input(csv), ImportFormat.CSV, 10);
+
+        assertEquals(1, result.imported());
+    }
+
+    @Test
+    void rejectsCsvHeaderWithoutAllColumns()
+    {
+        var csv = """
+            isbn,title,description,pages,genres,publicationDate
+            HeaderIsbn,Title,Description,10,action,2021-01-01
+            """;
+
+        var exception = assertThrows(
+            InvalidImportException.class,
+            () -> this.importer.importBooks(input(csv), ImportFormat.CSV, 10)
+        );
+        assertTrue(exception.getMessage().contains("authorId"));
+        assertTrue(this.books.existingIsbns(List.of("HeaderIsbn")).isEmpty());
+    }
+
+    @Test
+    void keepsChunksBeforeInvalidRecord()
+    {
+        var csv = """
+            isbn,title,description,pages,genres,publicationDate,authorId
+            Partial1Isbn,Title 1,Description,10,action,2021-01-01,%1$s
+            Partial2Isbn,Title 2,Description,20,action,2021-01-01,%1$s
+            Partial3Isbn,Title 3,Description,30,action,2021-01-01,%1$s
+            Partial4Isbn,Title 4,Description,many,action,2021-01-01,%1$s
+            Partial5Isbn,Title 5,Description,50,action,2021-01-01,%1$s
+            """.formatted(this.authorId);
+
+        var exception = assertThrows(
+            InvalidImportException.class,
+            () -> this.importer.importBooks(input(csv), ImportFormat.CSV, 2)
+        );
+        assertTrue(exception.getMessage().startsWith("Record 4 is invalid"));
+        assertTrue(exception.getMessage().contains("2 records have been imported before"));
+        assertEquals(
+            Set.of("Partial1Isbn", "Partial2Isbn"),
+            this.books.existingIsbns(
+                List.of("Partial1Isbn", "Partial2Isbn", "Partial3Isbn", "Partial4Isbn", "Partial5Isbn")
+            )
+        );
+    }
+
+    @Test
+    void keepsChunksBeforeRejectedChunk()
+    {
+        var ndjson = String.join(
+            "\n",
+            this.ndjsonBook("Rejected1Isbn"),
+            this.ndjsonBook("Rejected2Isbn"),
+            this.ndjsonBook("Rejected3Isbn"),
+            this.ndjsonBook("Rejected1Isbn")
+        );
+
+        var exception = assertThrows(
+            InvalidImportException.class,
+            () -> this.importer.importBooks(input(ndjson), ImportFormat.NDJSON, 2)
+        );
+        assertTrue(exception.getMessage().startsWith("Chunk 1 starting at record 3"));
+        assertEquals(
+            Set.of("Rejected1Isbn", "Rejected2Isbn"),
+            this.books.existingIsbns(List.of("Rejected1Isbn", "Rejected2Isbn", "Rejected3Isbn"))
+        );
+    }
+
+    private String ndjsonBook(final String isbn)
+    {
+        return """
+            {"isbn":"%s","title":"T","description":"D","pages":1,"genres":["action"],\
+            "publicationDate":"2021-01-01","authorId":"%s"}""".formatted(isbn, this.authorId);
+    }
+
+    private static InputStream input(final String body)
+    {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,98 @@
+package one.microstream.demo.importer;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvReaderTest
+{
+    @Test
+    void readsPlainRecords() throws IOException
+    {
+        assertEquals(
+            List.of(List.of("a", "b", "c"), List.of("1", "2", "3")),
+            read("a,b,c\n1,2,3\n")
+        );
+    }
+
+    @Test
+    void readsLastRecordWithoutLineBreak() throws IOException
+    {
+        assertEquals(List.of(List.of("a", "b"), List.of("1", "2")), read("a,b\n1,2"));
+    }
+
+    @Test
+    void readsCarriageReturnLineBreaks() throws IOException
+    {
+        assertEquals(List.of(List.of("a", "b"), List.of("1", "2")), read("a,b\r\n1,2\r\n"));
+        assertEquals(List.of(List.of("a"), List.of("1")), read("a\r1\r"));
+    }
+
+    @Test
+    void readsEmptyFields() throws IOException
+    {
+        assertEquals(List.of(List.of("", "b", "")), read(",b,\n"));
+        assertEquals(List.of(List.of("")), read("\n"));
+    }
+
+    @Test
+    void readsQuotedFieldsWithSeparators() throws IOException
+    {
+        assertEquals(List.of(List.of("a,b", "c")), read("\"a,b\",c\n"));
+        assertEquals(List.of(List.of("", "x")), read("\"\",x\n"));
+    }
+
+    @Test
+    void readsEscapedQuotes() throws IOException
+    {
+        assertEquals(List.of(List.of("say \"hi\"", "x")), read("\"say \"\"hi\"\"\",x\n"));
+    }
+
+    @Test
+    void readsQuotedLineBreaks() throws IOException
+    {
+        assertEquals(
+            List.of(List.of("first\nsecond", "x"), List.of("crlf\r\ninside", "y")),
+            read("\"first\nsecond\",x\n\"crlf\r\ninside\",y\r\n")
+        );
+    }
+
+    @Test
+    void keepsQuotesInsideUnquotedFields() throws IOException
+    {
+        assertEquals(List.of(List.of("a\"b", "c")), read("a\"b,c\n"));
+    }
+
+    @Test
+    void returnsNullAtEndOfInput() throws IOException
+    {
+        assertNull(new CsvReader(new StringReader("")).next());
+        var reader = new CsvReader(new StringReader("a\n"));
+        assertEquals(List.of("a"), reader.next());
+        assertNull(reader.next());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void rejectsUnclosedQuotedField()
+    {
+        var reader = new CsvReader(new StringReader("\"open,field\n"));
+        assertThrows(IllegalStateException.class, reader::next);
+    }
+
+    private static List<List<String>> read(final String csv) throws IOException
+    {
+        var reader = new CsvReader(new StringReader(csv));
+        var records = new ArrayList<List<String>>();
+        for (List<String> record = reader.next(); record != null; record = reader.next())
+        {
+            records.add(record);
+        }
+        return records;
+    }
+}
@@ -0,0 +1,101 @@
+package one.microstream.demo.job;
+
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import io.micronaut.test.support.TestPropertyProvider;
+import jakarta.inject.Inject;
+import one.microstream.demo.dto.GenerateData;
+import one.microstream.demo.dto.GenerateData.DataGenerationConfig;
+import one.microstream.demo.dto.GetDataGenerationJob;
+import one.microstream.demo.exception.MissingDataGenerationJobException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@MicronautTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class DataGenerationJobsTest implements TestPropertyProvider
+{
+    private static final Duration TIMEOUT = Duration.ofMinutes(2);
+
+    @TempDir
+    static Path eclipsestoreStorageMainStorageDirectory;
+
+    @Override
+    public @NonNull Map<String, String> getProperties()
+    {
+        return Map.of(
+            "eclipsestore.storage.main.storage-directory",
+            eclipsestoreStorageMainStorageDirectory.toString(),
+            // finished jobs are forgotten by the next start
+            "app.data.job-retention",
+            "1ms"
+        );
+    }
+
+    @Inject
+    DataGenerationJobs jobs;
+
+    @Test
+    void runsCancelsAndForgetsJobs() throws InterruptedException
+    {
+        var started = this.jobs.start(config(3, 10, 100));
+        assertEquals(DataGenerationJob.Status.RUNNING, started.status());
+        assertEquals(113, started.total());
+        assertNull(started.finished());
+
+        var completed = this.awaitFinished(started.id());
+        assertEquals(DataGenerationJob.Status.COMPLETED, completed.status());
+        assertEquals(113, completed.generated());
+        assertNotNull(completed.finished());
+        assertNull(completed.etaSeconds());
+        assertNull(completed.error());
+
+        Thread.sleep(10);
+        var large = this.jobs.start(config(3, 1_000, 1_000_000));
+        // the completed job has been forgotten by starting the next one
+        assertThrows(MissingDataGenerationJobException.class, () -> this.jobs.get(started.id()));
+
+        this.jobs.cancel(large.id());
+        var cancelled = this.awaitFinished(large.id());
+        assertEquals(DataGenerationJob.Status.CANCELLED, cancelled.status());
+        assertTrue(cancelled.generated() < cancelled.total());
+        assertNull(cancelled.error());
+    }
+
+    @Test
+    void rejectsUnknownJob()
+    {
+        assertThrows(MissingDataGenerationJobException.class, () -> this.jobs.get(UUID.randomUUID()));
+        assertThrows(MissingDataGenerationJobException.class, () -> this.jobs.cancel(UUID.randomUUID()));
+    }
+
+    private GetDataGenerationJob awaitFinished(final UUID id) throws InterruptedException
+    {
+        var deadline = Instant.now().plus(TIMEOUT);
+        var job = this.jobs.get(id);
+        while (job.status() == DataGenerationJob.Status.RUNNING)
+        {
+            assertTrue(Instant.now().isBefore(deadline), "Job " + id + " did not finish in time");
+            Thread.sleep(50);
+            job = this.jobs.get(id);
+        }
+        return job;
+    }
+
+    private static GenerateData config(final int genres, final int authors, final int books)
+    {
+        return new GenerateData(
+            new DataGenerationConfig(genres, 42L),
+            new DataGenerationConfig(authors, 42L),
+            new DataGenerationConfig(books, 42L)
+        );
+    }
+}
@@ -0,0 +1,67 @@
+package one.microstream.demo.lucene;
+
+import one.microstream.demo.domain.Author;
+import one.microstream.demo.domain.Book;
+import org.eclipse.serializer.reference.Lazy;
+import org.eclipse.store.storage.embedded.types.EmbeddedStorage;
+import org.eclipse.store.storage.embedded.types.EmbeddedStorageManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookSearchIndexTest
+{
+    @TempDir
+    Path storageDirectory;
+    @TempDir
+    Path indexDirectory;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void rebuildUnloadsLazyDescriptions() throws Exception
+    {
+        var author = new Author(UUID.randomUUID(), 1, "Author", "About", Lazy.Reference(new LinkedHashMap<>()));
+        var books = new ArrayList<Book>();
+        for (int i = 0; i < 10; i++)
+        {
+            books.add(new Book(
+                UUID.randomUUID(),
+                i + 1,
+                "Isbn" + i,
+                "Title" + i,
+                i == 3 ? "A story about dragons" : "A story about cats",
+                true,
+                100,
+                Set.of(),
+                LocalDate.of(2020, 1, 1),
+                author
+            ));
+        }
+        try (EmbeddedStorageManager storage = EmbeddedStorage.Foundation(this.storageDirectory).start(books))
+        {
+            storage.storeRoot();
+        }
+
+        try (EmbeddedStorageManager storage = EmbeddedStorage.Foundation(this.storageDirectory).start();
+            var index = new BookSearchIndex(true, this.indexDirectory.toString()))
+        {
+            var storedBooks = (List<Book>)storage.root();
+            storedBooks.forEach(book -> assertFalse(book.lazyDescription().isLoaded()));
+
+            index.rebuild(storedBooks);
+
+            assertEquals(10, index.size());
+            storedBooks.forEach(book -> assertFalse(book.lazyDescription().isLoaded()));
+            var hits = index.search("dragons", 10);
+            assertEquals(1, hits.size());
+            assertEquals(books.get(3).id(), hits.getFirst().id());
+            // the description is loaded again on demand
+            assertEquals("A story about dragons", storedBooks.get(3).description());
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package one.microstream.demo.repository;
+
+import io.micronaut.context.ApplicationContext;
+import one.microstream.demo.dto.InsertAuthor;
+import one.microstream.demo.dto.InsertBook;
+import one.microstream.demo.dto.LazyReferenceMetrics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the loaded and unloaded book maps of the authors reported for the <code>/lazy</code> management endpoint.
+ */
+class AuthorBookMapsTest
+{
+    @TempDir
+    Path storageDirectory;
+
+    @Test
+    void countsLoadedAndUnloadedBookMaps()
+    {
+        var authorIds = new ArrayList<UUID>();
+        try (var context = ApplicationContext.run(this.properties()))
+        {
+            context.getBean(GenreRepository.class).insert("action");
+            var authors = context.getBean(AuthorRepository.class);
+            for (int i = 0; i < 3; i++)
+            {
+                var author = new InsertAuthor(
+                    "Author" + i,
+                    "About",
+                    List.of(new InsertAuthor.InsertAuthorBook(
+                        "Isbn" + i,
+                        "Title",
+                        "Description",
+                        1,
+                        Set.of("action"),
+                        LocalDate.of(2020, 1, 1)
+                    ))
+                );
+                authorIds.add(authors.insert(List.of(author)).get(0).id());
+            }
+            assertEquals(new LazyReferenceMetrics(3, 0), authors.bookMapMetrics());
+        }
+
+        try (var context = ApplicationContext.run(this.properties()))
+        {
+            var authors = context.getBean(AuthorRepository.class);
+            assertEquals(new LazyReferenceMetrics(0, 3), authors.bookMapMetrics());
+
+            // the first page of books is read from the books GigaMap, not from the book map
+            assertEquals(1, authors.getById(authorIds.get(0)).books().size());
+            assertEquals(new LazyReferenceMetrics(0, 3), authors.bookMapMetrics());
+
+            context.getBean(BookRepository.class).insert(List.of(new InsertBook(
+                "Isbn3",
+                "Title",
+                "Description",
+                1,
+                Set.of("action"),
+                LocalDate.of(2020, 1, 1),
+                authorIds.get(0)
+            )));
+            assertEquals(new LazyReferenceMetrics(1, 2), authors.bookMapMetrics());
+        }
+    }
+
+    private Map<String, Object> properties()
+    {
+        return Map.of("eclipsestore.storage.main.storage-directory", this.storageDirectory.toString());
+    }
+}
@@ -0,0 +1,297 @@
+package one.microstream.demo.repository;
+
+import io.micronaut.context.ApplicationContext;
+import io.micronaut.eclipsestore.RootProvider;
+import one.microstream.demo.domain.Author;
+import one.microstream.demo.domain.Book;
+import one.microstream.demo.domain.DataRoot;
+import one.microstream.demo.domain.GenreSet;
+import one.microstream.demo.dto.BookQuery;
+import one.microstream.demo.dto.InsertAuthor;
+import one.microstream.demo.dto.InsertBook;
+import one.microstream.demo.dto.SearchAuthorByName;
+import one.microstream.demo.dto.SearchBookByTitle;
+import one.microstream.demo.gigamap.GigaMapAuthorIndices;
+import one.microstream.demo.gigamap.GigaMapBookIndices;
+import org.eclipse.serializer.reference.Lazy;
+import org.eclipse.store.gigamap.types.GigaMap;
+import org.eclipse.store.storage.embedded.types.EmbeddedStorage;
+import org.eclipse.store.storage.embedded.types.EmbeddedStorageManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Stores a root with the data layout of the first release and starts the application on it, so every migration step
+ * runs. The legacy root is built with the current classes: a version of <code>0</code>, the genres as set of names,
+ * the books of the authors as sets, books with plain genre sets and without sequence numbers, and GigaMaps with only
+ * the indices of the first release. Also checks that the book descriptions are moved into lazy references when enabled.
+ */
+class DataMigrationTest
+{
+    @TempDir
+    Path storageDirectory;
+
+    @Test
+    void migratesLegacyStorage() throws Exception
+    {
+        var legacyRoot = legacyRoot();
+        var alice = legacyAuthor("Alice Smith");
+        var bob = legacyAuthor("Bob Jones");
+        legacyRoot.authors().addAll(List.of(alice, bob));
+        // "horror" is referenced by a book but was deleted, so it is registered as deleted genre
+        legacyRoot.books().addAll(List.of(
+            legacyBook("Isbn1", "Dragon Tales", Set.of("action", "drama"), alice),
+            legacyBook("Isbn2", "Dragon Songs", Set.of("drama", "action"), alice),
+            legacyBook("Isbn3", "Night Watch", Set.of("horror"), bob)
+        ));
+        this.store(legacyRoot);
+
+        try (var context = ApplicationContext.run(this.properties()))
+        {
+            var root = (DataRoot)context.getBean(RootProvider.class).root();
+            assertEquals(DataRoot.CURRENT_VERSION, root.version());
+
+            // genres
+            assertNull(root.legacyGenres());
+            assertEquals(Set.of("action", "drama"), root.genres().names());
+            assertTrue(root.genres().ordinal("horror") >= 0);
+            var books = root.books().query().toList();
+            books.forEach(book -> assertInstanceOf(GenreSet.class, book.genres()));
+            var dragonTales = book(root, "Isbn1");
+            var dragonSongs = book(root, "Isbn2");
+            assertSame(dragonTales.genres(), dragonSongs.genres());
+            assertEquals(Set.of("action", "drama"), dragonTales.genres());
+            assertEquals(2, root.genreSets().size());
+            assertSame(dragonTales.genres(), root.genreSets().get(dragonTales.genres()));
+
+            // sequences
+            assertEquals(Set.of(1L, 2L, 3L), new HashSet<>(books.stream().map(Book::sequence).toList()));
+            assertEquals(3, root.bookSequence().last());
+            var authors = root.authors().query().toList();
+            assertEquals(Set.of(1L, 2L), new HashSet<>(authors.stream().map(Author::sequence).toList()));
+            assertEquals(2, root.authorSequence().last());
+
+            // author book maps, referencing the migrated books
+            var migratedAlice = root.authors().query(GigaMapAuthorIndices.ID.is(alice.id())).findFirst().orElseThrow();
+            assertEquals(2, migratedAlice.books().get().size());
+            assertSame(dragonTales, migratedAlice.books().get().get(dragonTales.id()));
+            assertSame(dragonSongs, migratedAlice.books().get().get(dragonSongs.id()));
+
+            // indices
+            var bookIndices = root.books().index().bitmap();
+            assertNotNull(bookIndices.get(GigaMapBookIndices.AUTHOR_ID));
+            assertNotNull(bookIndices.get(GigaMapBookIndices.TITLE_TRIGRAMS));
+            assertNotNull(bookIndices.get(GigaMapBookIndices.SEQUENCE_BLOCK));
+            var authorIndices = root.authors().index().bitmap();
+            assertNotNull(authorIndices.get(GigaMapAuthorIndices.NAME_TRIGRAMS));
+            assertNotNull(authorIndices.get(GigaMapAuthorIndices.SEQUENCE_BLOCK));
+
+            var bookRepository = context.getBean(BookRepository.class);
+            var query = new BookQuery(null, null, BookQuery.GenreMatch.ALL, null, null, null, alice.id());
+            assertEquals(2, bookRepository.count(query));
+            assertEquals(
+                List.of(dragonTales.id(), dragonSongs.id()),
+                pageThroughTitles(bookRepository, "ragon")
+            );
+            var authorPage = context.getBean(AuthorRepository.class).searchByName("Jones", null, 10);
+            assertEquals(List.of(bob.id()), authorPage.items().stream().map(SearchAuthorByName::id).toList());
+        }
+    }
+
+    @Test
+    void keepsIsbnIndexNonUniqueWhileDuplicatesExist() throws Exception
+    {
+        var legacyRoot = legacyRoot();
+        var alice = legacyAuthor("Alice Smith");
+        legacyRoot.authors().add(alice);
+        legacyRoot.books().addAll(List.of(
+            legacyBook("Isbn1", "Dragon Tales", Set.of("action"), alice),
+            legacyBook("Isbn1", "Dragon Songs", Set.of("action"), alice)
+        ));
+        this.store(legacyRoot);
+
+        try (var context = ApplicationContext.run(this.properties()))
+        {
+            var root = (DataRoot)context.getBean(RootProvider.class).root();
+            // the unique ISBN step is retried on the next startup, the later steps have run anyway
+            assertEquals(5, root.version());
+            assertNotNull(root.books().index().bitmap().get(GigaMapBookIndices.SEQUENCE_BLOCK));
+            assertEquals(2, pageThroughTitles(context.getBean(BookRepository.class), "ragon").size());
+        }
+    }
+
+    @Test
+    void movesDescriptionsIntoLazyReferencesWhenEnabled()
+    {
+        UUID authorId;
+        try (var context = ApplicationContext.run(this.properties(false, false)))
+        {
+            context.getBean(GenreRepository.class).insert("action");
+            authorId = context.getBean(AuthorRepository.class)
+                .insert(List.of(new InsertAuthor("Author", "About", List.of(authorBook("Isbn1")))))
+                .get(0)
+                .id();
+            var root = (DataRoot)context.getBean(RootProvider.class).root();
+            assertFalse(root.lazyDescriptions());
+            assertNull(book(root, "Isbn1").lazyDescription());
+        }
+
+        try (var context = ApplicationContext.run(this.properties(true, false)))
+        {
+            var root = (DataRoot)context.getBean(RootProvider.class).root();
+            assertTrue(root.lazyDescriptions());
+            var book = book(root, "Isbn1");
+            assertNotNull(book.lazyDescription());
+            assertEquals("Description", book.description());
+            // the book map of the author references the replaced book
+            var author = root.authors().query(GigaMapAuthorIndices.ID.is(authorId)).findFirst().orElseThrow();
+            assertSame(book, author.books().get().get(book.id()));
+        }
+
+        try (var context = ApplicationContext.run(this.properties(false, false)))
+        {
+            var root = (DataRoot)context.getBean(RootProvider.class).root();
+            assertFalse(root.lazyDescriptions());
+            assertNotNull(book(root, "Isbn1").lazyDescription());
+            context.getBean(BookRepository.class).insert(List.of(new InsertBook(
+                "Isbn2",
+                "Title",
+                "Description",
+                1,
+                Set.of("action"),
+                LocalDate.of(2020, 1, 1),
+                authorId
+            )));
+            assertNull(book(root, "Isbn2").lazyDescription());
+        }
+
+        // a replica does not write to its storage
+        try (var context = ApplicationContext.run(this.properties(true, true)))
+        {
+            var root = (DataRoot)context.getBean(RootProvider.class).root();
+            assertFalse(root.lazyDescriptions());
+            assertNull(book(root, "Isbn2").lazyDescription());
+        }
+    }
+
+    /**
+     * Reads the title search one book per page, so every page after the first is resumed by the sequence block index.
+     */
+    private static List<UUID> pageThroughTitles(final BookRepository books, final String search) throws Exception
+    {
+        var ids = new ArrayList<UUID>();
+        String cursor = null;
+        do
+        {
+            var page = books.searchByTitle(search, cursor, 1);
+            page.items().stream().map(SearchBookByTitle::id).forEach(ids::add);
+            cursor = page.nextCursor();
+        }
+        while (cursor != null);
+        return ids;
+    }
+
+    private static Book book(final DataRoot root, final String isbn)
+    {
+        return root.books().query(GigaMapBookIndices.ISBN.is(isbn)).findFirst().orElseThrow();
+    }
+
+    private static DataRoot legacyRoot() throws Exception
+    {
+        var root = new DataRoot();
+        setField(root, "authors", GigaMap.<Author>Builder()
+            .withBitmapIdentityIndex(GigaMapAuthorIndices.ID)
+            .withBitmapIndex(GigaMapAuthorIndices.NAME)
+            .build());
+        setField(root, "books", GigaMap.<Book>Builder()
+            .withBitmapIdentityIndex(GigaMapBookIndices.ID)
+            .withBitmapIndex(GigaMapBookIndices.TITLE)
+            .withBitmapIndex(GigaMapBookIndices.GENRES)
+            .withBitmapIndex(GigaMapBookIndices.ISBN)
+            .withBitmapIndex(GigaMapBookIndices.PUBLICATION)
+            .build());
+        root.legacyGenres(new HashSet<>(Set.of("action", "drama")));
+        root.genres(null);
+        root.genreSets(null);
+        root.authorSequence(null);
+        root.bookSequence(null);
+        root.version(0);
+        return root;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Author legacyAuthor(final String name)
+    {
+        // the books of an author were kept in a set before version 1
+        return new Author(UUID.randomUUID(), 0, name, "About", (Lazy)Lazy.Reference(new HashSet<Book>()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Book legacyBook(final String isbn, final String title, final Set<String> genres, final Author author)
+    {
+        var book = new Book(
+            UUID.randomUUID(),
+            0,
+            isbn,
+            title,
+            "Description",
+            null,
+            100,
+            new HashSet<>(genres),
+            LocalDate.of(2020, 1, 1),
+            author
+        );
+        ((Set<Book>)(Object)author.books().get()).add(book);
+        return book;
+    }
+
+    private static void setField(final Object target, final String name, final Object value) throws Exception
+    {
+        var field = target.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+
+    private void store(final DataRoot root)
+    {
+        try (EmbeddedStorageManager storage = EmbeddedStorage.Foundation(this.storageDirectory).start(root))
+        {
+            storage.storeRoot();
+        }
+    }
+
+    private Map<String, Object> properties()
+    {
+        return this.properties(false, false);
+    }
+
+    private Map<String, Object> properties(final boolean lazyDescriptions, final boolean replica)
+    {
+        return Map.of(
+            "eclipsestore.storage.main.storage-directory",
+            this.storageDirectory.toString(),
+            "app.lazy.book-descriptions.enabled",
+            lazyDescriptions,
+            "app.storage.replica",
+            replica
+        );
+    }
+
+    private static InsertAuthor.InsertAuthorBook authorBook(final String isbn)
+    {
+        return new InsertAuthor.InsertAuthorBook(
+            isbn,
+            "Title",
+            "Description",
+            1,
+            Set.of("action"),
+            LocalDate.of(2020, 1, 1)
+        );
+    }
+}
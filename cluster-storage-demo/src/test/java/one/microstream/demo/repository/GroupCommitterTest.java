@@ -0,0 +1,122 @@
+package one.microstream.demo.repository;
+
+import io.micronaut.context.ApplicationContext;
+import io.micronaut.eclipsestore.RootProvider;
+import one.microstream.demo.domain.DataRoot;
+import one.microstream.demo.dto.BookQuery;
+import one.microstream.demo.dto.InsertAuthor;
+import one.microstream.demo.dto.InsertBook;
+import one.microstream.demo.dto.UpdateBook;
+import one.microstream.demo.gigamap.GigaMapAuthorIndices;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Writes with group commit enabled and checks that every acknowledged write is found after restarting the storage.
+ */
+class GroupCommitterTest
+{
+    private static final int WRITERS = 8;
+    private static final int BOOKS_PER_WRITER = 25;
+
+    @TempDir
+    Path storageDirectory;
+
+    @Test
+    void groupCommittedWritesSurviveRestart() throws Exception
+    {
+        UUID authorId;
+        UUID updatedId;
+        UUID deletedId;
+        try (var context = ApplicationContext.run(this.properties()))
+        {
+            context.getBean(GenreRepository.class).insert("action");
+            authorId = context.getBean(AuthorRepository.class)
+                .insert(List.of(new InsertAuthor("Author", "About", null)))
+                .get(0)
+                .id();
+
+            var books = context.getBean(BookRepository.class);
+            ExecutorService executor = Executors.newFixedThreadPool(WRITERS);
+            try
+            {
+                // concurrent writers, so the committer groups several of them into one batch
+                var writes = new ArrayList<Future<?>>();
+                for (int writer = 0; writer < WRITERS; writer++)
+                {
+                    final int first = writer * BOOKS_PER_WRITER;
+                    writes.add(executor.submit(() -> IntStream.range(first, first + BOOKS_PER_WRITER)
+                        .forEach(i -> books.insert(List.of(book("Isbn" + i, authorId))))));
+                }
+                for (var write : writes)
+                {
+                    write.get();
+                }
+            }
+            finally
+            {
+                executor.shutdown();
+            }
+
+            updatedId = books.getByISBN("Isbn0").id();
+            books.update(
+                updatedId,
+                new UpdateBook("Isbn0", "Updated Title", "Description", 1, Set.of("action"), LocalDate.of(2020, 1, 1))
+            );
+            deletedId = books.getByISBN("Isbn1").id();
+            books.delete(List.of(deletedId));
+        }
+
+        try (var context = ApplicationContext.run(this.properties()))
+        {
+            var books = context.getBean(BookRepository.class);
+            var isbns = IntStream.range(0, WRITERS * BOOKS_PER_WRITER).mapToObj(i -> "Isbn" + i).toList();
+            var expected = new HashSet<>(isbns);
+            expected.remove("Isbn1");
+
+            // looked up through the ISBN index, so the indices have been stored as well
+            assertEquals(expected, books.existingIsbns(isbns));
+            assertEquals(
+                expected.size(),
+                books.count(new BookQuery(null, Set.of("action"), BookQuery.GenreMatch.ALL, null, null, null, authorId))
+            );
+            assertEquals("Updated Title", books.getById(updatedId).title());
+            var root = (DataRoot)context.getBean(RootProvider.class).root();
+            var author = root.authors().query(GigaMapAuthorIndices.ID.is(authorId)).findFirst().orElseThrow();
+            assertEquals(expected.size(), author.books().get().size());
+        }
+    }
+
+    private Map<String, Object> properties()
+    {
+        return Map.of(
+            "eclipsestore.storage.main.storage-directory",
+            this.storageDirectory.toString(),
+            "app.storage.group-commit.enabled",
+            true
+        );
+    }
+
+    private static InsertBook book(final String isbn, final UUID authorId)
+    {
+        return new InsertBook(
+            isbn,
+            "Title " + isbn,
+            "Description",
+            1,
+            Set.of("action"),
+            LocalDate.of(2020, 1, 1),
+            authorId
+        );
+    }
+}
@@ -0,0 +1,141 @@
+package one.microstream.demo.repository;
+
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import io.micronaut.test.support.TestPropertyProvider;
+import jakarta.inject.Inject;
+import one.microstream.demo.dto.InsertAuthor;
+import one.microstream.demo.dto.InsertBook;
+import one.microstream.demo.dto.UpdateBook;
+import one.microstream.demo.exception.InvalidIsbnException;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@MicronautTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class IsbnValidationTest implements TestPropertyProvider
+{
+    @TempDir
+    static Path eclipsestoreStorageMainStorageDirectory;
+
+    @Override
+    public @NonNull Map<String, String> getProperties()
+    {
+        return Map.of(
+            "eclipsestore.storage.main.storage-directory",
+            eclipsestoreStorageMainStorageDirectory.toString()
+        );
+    }
+
+    @Inject
+    GenreRepository genres;
+    @Inject
+    AuthorRepository authors;
+    @Inject
+    BookRepository books;
+
+    UUID authorId;
+
+    @BeforeAll
+    void insertAuthor()
+    {
+        this.genres.insert("action");
+        this.authorId = this.authors.insert(List.of(new InsertAuthor("Author", "About", null))).get(0).id();
+    }
+
+    @Test
+    void rejectsDuplicateWithinBatch()
+    {
+        var exception = assertThrows(
+            InvalidIsbnException.class,
+            () -> this.books.insert(List.of(this.book("BatchIsbn"), this.book("OtherIsbn"), this.book("BatchIsbn")))
+        );
+        assertTrue(exception.getMessage().contains("BatchIsbn"));
+        assertTrue(this.books.existingIsbns(List.of("BatchIsbn", "OtherIsbn")).isEmpty());
+    }
+
+    @Test
+    void rejectsIsbnOfStoredBook()
+    {
+        this.books.insert(List.of(this.book("StoredIsbn")));
+
+        var exception = assertThrows(
+            InvalidIsbnException.class,
+            () -> this.books.insert(List.of(this.book("NewIsbn"), this.book("StoredIsbn")))
+        );
+        assertTrue(exception.getMessage().contains("StoredIsbn"));
+        assertEquals(Set.of("StoredIsbn"), this.books.existingIsbns(List.of("StoredIsbn", "NewIsbn")));
+    }
+
+    @Test
+    void rejectsIsbnOfStoredBookForNewAuthor()
+    {
+        this.books.insert(List.of(this.book("AuthorBookIsbn")));
+
+        assertThrows(
+            InvalidIsbnException.class,
+            () -> this.authors.insert(List.of(new InsertAuthor(
+                "Other Author",
+                "About",
+                List.of(new InsertAuthor.InsertAuthorBook(
+                    "AuthorBookIsbn",
+                    "Title",
+                    "Description",
+                    1,
+                    Set.of("action"),
+                    LocalDate.of(2020, 1, 1)
+                ))
+            )))
+        );
+    }
+
+    @Test
+    void updateKeepsOwnIsbn()
+    {
+        var id = this.books.insert(List.of(this.book("KeptIsbn"))).get(0).id();
+
+        this.books.update(id, update("KeptIsbn", "New Title"));
+
+        var updated = this.books.getById(id);
+        assertEquals("KeptIsbn", updated.isbn());
+        assertEquals("New Title", updated.title());
+    }
+
+    @Test
+    void updateRejectsIsbnOfOtherBook()
+    {
+        var ids = this.books.insert(List.of(this.book("FirstIsbn"), this.book("SecondIsbn")));
+
+        assertThrows(
+            InvalidIsbnException.class,
+            () -> this.books.update(ids.get(1).id(), update("FirstIsbn", "Title"))
+        );
+        assertEquals("SecondIsbn", this.books.getById(ids.get(1).id()).isbn());
+    }
+
+    private InsertBook book(final String isbn)
+    {
+        return new InsertBook(
+            isbn,
+            "Title " + isbn,
+            "Description",
+            1,
+            Set.of("action"),
+            LocalDate.of(2020, 1, 1),
+            this.authorId
+        );
+    }
+
+    private static UpdateBook update(final String isbn, final String title)
+    {
+        return new UpdateBook(isbn, title, "Description", 1, Set.of("action"), LocalDate.of(2021, 1, 1));
+    }
+}
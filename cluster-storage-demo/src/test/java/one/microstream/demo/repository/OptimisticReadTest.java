@@ -0,0 +1,127 @@
+package one.microstream.demo.repository;
+
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import io.micronaut.test.support.TestPropertyProvider;
+import jakarta.inject.Inject;
+import one.microstream.demo.dto.InsertAuthor;
+import one.microstream.demo.dto.UpdateBook;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Reads books by ID with optimistic reads enabled while they are updated concurrently. Every read must return one
+ * complete version of the book, whether it was validated without the lock or retried under it.
+ */
+@MicronautTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class OptimisticReadTest implements TestPropertyProvider
+{
+    private static final int READERS = 4;
+    private static final int UPDATES = 500;
+
+    @TempDir
+    static Path eclipsestoreStorageMainStorageDirectory;
+
+    @Override
+    public @NonNull Map<String, String> getProperties()
+    {
+        return Map.of(
+            "eclipsestore.storage.main.storage-directory",
+            eclipsestoreStorageMainStorageDirectory.toString(),
+            "app.storage.optimistic-reads.enabled",
+            "true"
+        );
+    }
+
+    @Inject
+    GenreRepository genres;
+    @Inject
+    AuthorRepository authors;
+    @Inject
+    BookRepository books;
+
+    @Test
+    void readsConsistentVersionsDuringUpdates() throws Exception
+    {
+        this.genres.insert("action");
+        var author = this.authors.insert(List.of(new InsertAuthor(
+            "Author",
+            "About",
+            List.of(new InsertAuthor.InsertAuthorBook(
+                "OptimisticIsbn",
+                "Title 0",
+                "Description 0",
+                1,
+                Set.of("action"),
+                LocalDate.of(2020, 1, 1)
+            ))
+        ))).get(0);
+        var id = author.books().get(0).id();
+
+        var stop = new AtomicBoolean();
+        ExecutorService executor = Executors.newFixedThreadPool(READERS);
+        try
+        {
+            var readers = new ArrayList<Future<Integer>>();
+            for (int r = 0; r < READERS; r++)
+            {
+                readers.add(executor.submit(() ->
+                {
+                    int reads = 0;
+                    long lastVersion = 0;
+                    while (!stop.get())
+                    {
+                        var book = this.books.getById(id);
+                        var version = Long.parseLong(book.title().substring("Title ".length()));
+                        assertEquals("Description " + version, book.description());
+                        assertEquals(version, book.pages() - 1);
+                        // a read never returns an older version than a read before it
+                        assertTrue(version >= lastVersion);
+                        lastVersion = version;
+                        reads++;
+                    }
+                    return reads;
+                }));
+            }
+
+            for (int version = 1; version <= UPDATES; version++)
+            {
+                this.books.update(
+                    id,
+                    new UpdateBook(
+                        "OptimisticIsbn",
+                        "Title " + version,
+                        "Description " + version,
+                        version + 1,
+                        Set.of("action"),
+                        LocalDate.of(2020, 1, 1)
+                    )
+                );
+            }
+            stop.set(true);
+            for (var reader : readers)
+            {
+                assertTrue(reader.get() > 0);
+            }
+        }
+        finally
+        {
+            stop.set(true);
+            executor.shutdown();
+        }
+
+        assertEquals("Title " + UPDATES, this.books.getById(id).title());
+    }
+}
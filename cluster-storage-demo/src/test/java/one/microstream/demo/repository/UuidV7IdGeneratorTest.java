@@ -0,0 +1,68 @@
+package one.microstream.demo.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UuidV7IdGeneratorTest
+{
+    private static final long NOW = 1_760_000_000_000L;
+
+    @Test
+    void setsVersionAndVariant()
+    {
+        var generator = new UuidV7IdGenerator();
+        for (int i = 0; i < 10_000; i++)
+        {
+            var id = generator.next();
+            assertEquals(7, id.version());
+            assertEquals(2, id.variant());
+        }
+    }
+
+    @Test
+    void startsWithTheMillisecondTimestamp()
+    {
+        var id = new UuidV7IdGenerator().next(NOW);
+        assertEquals(NOW, id.getMostSignificantBits() >>> 16);
+    }
+
+    @Test
+    void isMonotonicWithinOneMillisecond()
+    {
+        var generator = new UuidV7IdGenerator();
+        var previous = generator.next(NOW);
+        // more IDs than the 12-bit sequence holds, the following milliseconds are borrowed
+        for (int i = 0; i < 10_000; i++)
+        {
+            var id = generator.next(NOW);
+            assertTrue(Long.compareUnsigned(previous.getMostSignificantBits(), id.getMostSignificantBits()) < 0);
+            assertEquals(7, id.version());
+            assertEquals(2, id.variant());
+            previous = id;
+        }
+        assertEquals(NOW + 10_000 / 4096, previous.getMostSignificantBits() >>> 16);
+    }
+
+    @Test
+    void isMonotonicWhenTheClockGoesBackwards()
+    {
+        var generator = new UuidV7IdGenerator();
+        var first = generator.next(NOW);
+        var second = generator.next(NOW - 1_000);
+        assertTrue(Long.compareUnsigned(first.getMostSignificantBits(), second.getMostSignificantBits()) < 0);
+    }
+
+    @Test
+    void isUniqueAcrossThreads()
+    {
+        var generator = new UuidV7IdGenerator();
+        var ids = ConcurrentHashMap.<UUID>newKeySet();
+        IntStream.range(0, 100_000).parallel().forEach(i -> ids.add(generator.next()));
+        assertEquals(100_000, ids.size());
+    }
+}
@@ -0,0 +1,226 @@
+package one.microstream.demo.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WriteStampTest
+{
+    private static final Set<Aggregate> BOOKS = Set.of(Aggregate.BOOKS);
+
+    @Test
+    void readsLockedIfDisabled()
+    {
+        var stamp = new WriteStamp(false);
+
+        assertEquals("locked", stamp.read(BOOKS, () -> fail("must not read unlocked"), () -> "locked"));
+    }
+
+    @Test
+    void returnsUnlockedReadWithoutWrite()
+    {
+        var stamp = new WriteStamp(true);
+
+        assertEquals("unlocked", stamp.read(BOOKS, () -> "unlocked", () -> fail("must not read locked")));
+    }
+
+    @Test
+    void readsLockedWhileWriting()
+    {
+        var stamp = new WriteStamp(true);
+        stamp.beginWrite(BOOKS);
+
+        assertEquals("locked", stamp.read(BOOKS, () -> fail("must not read unlocked"), () -> "locked"));
+
+        stamp.endWrite(BOOKS);
+        assertEquals("unlocked", stamp.read(BOOKS, () -> "unlocked", () -> "locked"));
+    }
+
+    @Test
+    void ignoresWritesOfOtherAggregates()
+    {
+        var stamp = new WriteStamp(true);
+
+        var result = stamp.read(
+            BOOKS,
+            () ->
+            {
+                stamp.beginWrite(Set.of(Aggregate.AUTHORS));
+                stamp.checkpoint(null);
+                return "unlocked";
+            },
+            () -> "locked"
+        );
+
+        assertEquals("unlocked", result);
+    }
+
+    @Test
+    void discardsReadOverlappingWrite()
+    {
+        var stamp = new WriteStamp(true);
+
+        var result = stamp.read(
+            BOOKS,
+            () ->
+            {
+                stamp.beginWrite(BOOKS);
+                stamp.endWrite(BOOKS);
+                return "unlocked";
+            },
+            () -> "locked"
+        );
+
+        assertEquals("locked", result);
+    }
+
+    @Test
+    void abandonsReadAtCheckpointAfterWriteStarted()
+    {
+        var stamp = new WriteStamp(true);
+        var afterCheckpoint = new AtomicBoolean();
+
+        var result = stamp.read(
+            BOOKS,
+            () ->
+            {
+                stamp.beginWrite(BOOKS);
+                stamp.checkpoint(null);
+                afterCheckpoint.set(true);
+                return "unlocked";
+            },
+            () -> "locked"
+        );
+
+        assertEquals("locked", result);
+        assertFalse(afterCheckpoint.get());
+    }
+
+    @Test
+    void retriesFailedReadLocked()
+    {
+        var stamp = new WriteStamp(true);
+
+        var result = stamp.read(
+            BOOKS,
+            () ->
+            {
+                throw new IllegalStateException("torn data");
+            },
+            () -> "locked"
+        );
+
+        assertEquals("locked", result);
+    }
+
+    @Test
+    void checkpointOutsideReadDoesNothing()
+    {
+        var stamp = new WriteStamp(true);
+        stamp.beginWrite(BOOKS);
+
+        assertDoesNotThrow(() -> stamp.checkpoint(null));
+    }
+
+    @Test
+    void concurrentReadsNeverSeeTornWrites() throws InterruptedException
+    {
+        var stamp = new WriteStamp(true);
+        var lock = new ReentrantReadWriteLock();
+        // a write updates both values, a consistent read sees them equal
+        var values = new long[2];
+        var stop = new AtomicBoolean();
+        var torn = new AtomicInteger();
+        var reads = new AtomicInteger();
+        var lockedReads = new AtomicInteger();
+
+        var writer = Thread.ofPlatform().start(() ->
+        {
+            for (long i = 1; !stop.get(); i++)
+            {
+                lock.writeLock().lock();
+                try
+                {
+                    stamp.beginWrite(BOOKS);
+                    values[0] = i;
+                    Thread.onSpinWait();
+                    values[1] = i;
+                    stamp.endWrite(BOOKS);
+                }
+                finally
+                {
+                    lock.writeLock().unlock();
+                }
+                if (i % 16 == 0)
+                {
+                    Thread.yield();
+                }
+            }
+        });
+
+        var readers = new ArrayList<Thread>();
+        var done = new CountDownLatch(4);
+        for (int r = 0; r < 4; r++)
+        {
+            readers.add(Thread.ofPlatform().start(() ->
+            {
+                try
+                {
+                    for (int i = 0; i < 100_000; i++)
+                    {
+                        long[] read = stamp.read(
+                            BOOKS,
+                            () ->
+                            {
+                                long first = values[0];
+                                stamp.checkpoint(null);
+                                return new long[]{first, values[1]};
+                            },
+                            () ->
+                            {
+                                lockedReads.incrementAndGet();
+                                lock.readLock().lock();
+                                try
+                                {
+                                    return new long[]{values[0], values[1]};
+                                }
+                                finally
+                                {
+                                    lock.readLock().unlock();
+                                }
+                            }
+                        );
+                        reads.incrementAndGet();
+                        if (read[0] != read[1])
+                        {
+                            torn.incrementAndGet();
+                        }
+                    }
+                }
+                finally
+                {
+                    done.countDown();
+                }
+            }));
+        }
+
+        done.await();
+        stop.set(true);
+        writer.join();
+        for (var reader : readers)
+        {
+            reader.join();
+        }
+
+        assertEquals(400_000, reads.get());
+        assertEquals(0, torn.get());
+        // not every read fell back to the lock
+        assertTrue(lockedReads.get() < reads.get());
+    }
+}
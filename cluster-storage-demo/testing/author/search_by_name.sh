@@ -2,9 +2,12 @@
 
 # Calls the search author by name endpoint.
 #
-# Usage: search_by_name.sh <search-term>
+# Usage: search_by_name.sh <search-term> [cursor]
 # Example: search_by_name.sh "Jo"
 #
+# The response headers are printed as well, to get the next page pass the value of the X-Next-Cursor header as the
+# second argument.
+#
 # To change the url set the environment variable CLUSTER_URL
 # Example: export CLUSTER_URL=https://my-url.com
 
@@ -14,4 +17,4 @@ if [ -z "$1" ]; then
 fi
 
 url=${CLUSTER_URL:=http://localhost:8080}
-curl "$url/author/name?search=$1"
+curl -i "$url/author/name?search=$1${2:+&cursor=$2}"
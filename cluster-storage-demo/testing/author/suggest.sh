@@ -0,0 +1,18 @@
+#!/bin/sh
+
+# Calls the author name suggestion endpoint.
+# The suggestions have to be enabled with app.suggestions.enabled=true, otherwise the endpoint responds with 503.
+#
+# Usage: suggest.sh <prefix> [size]
+# Example: suggest.sh "jo"
+#
+# To change the url set the environment variable CLUSTER_URL
+# Example: export CLUSTER_URL=https://my-url.com
+
+if [ -z "$1" ]; then
+  echo "Please specify a prefix. Example: $0 \"the\"" 2>&1
+  exit 1
+fi
+
+url=${CLUSTER_URL:=http://localhost:8080}
+curl "$url/author/suggest?prefix=$1${2:+&size=$2}"
@@ -0,0 +1,18 @@
+#!/bin/sh
+
+# Calls the multi-criteria book query endpoint. Every criterion is passed as a query parameter, available parameters
+# are title, genres, genreMatch (ALL or ANY), from, to, isbn and author.
+#
+# Usage: query.sh <parameters>
+# Example: query.sh "genres=horror,action&genreMatch=ANY&from=2020&title=night"
+#
+# To change the url set the environment variable CLUSTER_URL
+# Example: export CLUSTER_URL=https://my-url.com
+
+if [ -z "$1" ]; then
+  echo "Please specify the query parameters. Example: $0 \"genres=horror&from=2020\"" 2>&1
+  exit 1
+fi
+
+url=${CLUSTER_URL:=http://localhost:8080}
+curl -i "$url/book/query?$1"
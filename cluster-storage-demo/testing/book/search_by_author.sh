@@ -2,9 +2,12 @@
 
 # Calls the search book by author endpoint.
 #
-# Usage: search_by_author.sh <author-id>
+# Usage: search_by_author.sh <author-id> [cursor]
 # Example: search_by_author.sh 73d33fd3-e70d-4c46-bb31-1acbb3f2647f
 #
+# The response headers are printed as well, to get the next page pass the value of the X-Next-Cursor header, or the
+# nextBooksCursor of the author, as the second argument.
+#
 # To change the url set the environment variable CLUSTER_URL
 # Example: export CLUSTER_URL=https://my-url.com
 
@@ -14,4 +17,4 @@ if [ -z "$1" ]; then
 fi
 
 url=${CLUSTER_URL:=http://localhost:8080}
-curl "$url/book/author/$1"
+curl -i "$url/book/author/$1${2:+?cursor=$2}"
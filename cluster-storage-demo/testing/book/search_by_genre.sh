@@ -2,10 +2,13 @@
 
 # Calls the search book by genre endpoint.
 #
-# Usage: search_by_genre.sh <genre>[,genre,...]
+# Usage: search_by_genre.sh <genre>[,genre,...] [cursor]
 # Simple Example: search_by_genre.sh horror
 # Multi  Example: search_by_genre.sh horror,action
 #
+# The response headers are printed as well, to get the next page pass the value of the X-Next-Cursor header as the
+# second argument.
+#
 # To change the url set the environment variable CLUSTER_URL
 # Example: export CLUSTER_URL=https://my-url.com
 
@@ -15,4 +18,4 @@ if [ -z "$1" ]; then
 fi
 
 url=${CLUSTER_URL:=http://localhost:8080}
-curl "$url/book/genre?genres=$1"
+curl -i "$url/book/genre?genres=$1${2:+&cursor=$2}"
@@ -0,0 +1,19 @@
+#!/bin/sh
+
+# Calls the search book by publication date endpoint.
+#
+# Usage: search_by_publication.sh <from> <to> [genre,...]
+# Year  Example: search_by_publication.sh 2020 2021
+# Month Example: search_by_publication.sh 2020-05 2020-05
+# Genre Example: search_by_publication.sh 2020-05-01 2020-05-31 horror,action
+#
+# To change the url set the environment variable CLUSTER_URL
+# Example: export CLUSTER_URL=https://my-url.com
+
+if [ -z "$1" ] || [ -z "$2" ]; then
+  echo "Please specify a date range. Example: $0 2020 2021" 2>&1
+  exit 1
+fi
+
+url=${CLUSTER_URL:=http://localhost:8080}
+curl -i "$url/book/published?from=$1&to=$2${3:+&genres=$3}"
@@ -0,0 +1,18 @@
+#!/bin/sh
+
+# Calls the full-text search book endpoint. The query is searched in the titles and descriptions of the books.
+# The search index has to be enabled with app.lucene.index.book.enabled=true, otherwise the endpoint responds with 503.
+#
+# Usage: search_by_text.sh <query>
+# Example: search_by_text.sh "dragon"
+#
+# To change the url set the environment variable CLUSTER_URL
+# Example: export CLUSTER_URL=https://my-url.com
+
+if [ -z "$1" ]; then
+  echo "Please specify a search query. Example: $0 \"dragon\"" 2>&1
+  exit 1
+fi
+
+url=${CLUSTER_URL:=http://localhost:8080}
+curl -G "$url/book/search" --data-urlencode "query=$1"
@@ -0,0 +1,17 @@
+#!/bin/sh
+
+# Calls the stream book by title endpoint. Every found book is returned as one line of JSON.
+#
+# Usage: stream_by_title.sh <search-term>
+# Example: stream_by_title.sh "a"
+#
+# To change the url set the environment variable CLUSTER_URL
+# Example: export CLUSTER_URL=https://my-url.com
+
+if [ -z "$1" ]; then
+  echo "Please specify a search term. Example: $0 \"a\"" 2>&1
+  exit 1
+fi
+
+url=${CLUSTER_URL:=http://localhost:8080}
+curl -N -H "Accept: application/x-ndjson" "$url/book/stream/title?search=$1"
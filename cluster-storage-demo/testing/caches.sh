@@ -0,0 +1,9 @@
+#!/bin/sh
+
+# Calls the caches management endpoint, printing the hit ratio, size and evictions of the response caches.
+#
+# To change the url set the environment variable CLUSTER_URL
+# Example: export CLUSTER_URL=https://my-url.com
+
+url=${CLUSTER_URL:=http://localhost:8080}
+curl "$url/caches"
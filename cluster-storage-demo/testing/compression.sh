@@ -0,0 +1,9 @@
+#!/bin/sh
+
+# Calls the compression management endpoint, printing the compression ratio of the book descriptions.
+#
+# To change the url set the environment variable CLUSTER_URL
+# Example: export CLUSTER_URL=https://my-url.com
+
+url=${CLUSTER_URL:=http://localhost:8080}
+curl "$url/compression"
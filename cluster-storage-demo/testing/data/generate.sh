@@ -1,6 +1,7 @@
 #!/bin/sh
 
-# Calls the generate data endpoint.
+# Calls the generate data endpoint. The data is generated in the background, the response contains the ID of the
+# job to pass to job.sh or cancel_job.sh.
 #
 # Usage: generate.sh <config>
 # Example: generate.sh '{"genreConf":{"count":10},"authorConf":{"count":150},"bookConf":{"count":10000}}'
@@ -0,0 +1,9 @@
+#!/bin/sh
+
+# Calls the genre sets management endpoint, printing the amount of books and of the genre sets shared by them.
+#
+# To change the url set the environment variable CLUSTER_URL
+# Example: export CLUSTER_URL=https://my-url.com
+
+url=${CLUSTER_URL:=http://localhost:8080}
+curl "$url/genresets"
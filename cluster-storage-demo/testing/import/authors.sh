@@ -0,0 +1,22 @@
+#!/bin/sh
+
+# Calls the authors import endpoint with a file. Files ending with .csv are sent as CSV, all other files as NDJSON.
+#
+# Usage: authors.sh <file> [chunk-size]
+# Example: authors.sh authors.csv 5000
+#
+# To change the url set the environment variable CLUSTER_URL
+# Example: export CLUSTER_URL=https://my-url.com
+
+if [ -z "$1" ]; then
+  echo "Please specify a file. Example: $0 authors.csv" 2>&1
+  exit 1
+fi
+
+case "$1" in
+  *.csv) type="text/csv" ;;
+  *) type="application/x-ndjson" ;;
+esac
+
+url=${CLUSTER_URL:=http://localhost:8080}
+curl -H "Content-Type:$type" -T "$1" -X POST "$url/import/authors${2:+?chunkSize=$2}"
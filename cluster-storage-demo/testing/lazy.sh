@@ -0,0 +1,9 @@
+#!/bin/sh
+
+# Calls the lazy references management endpoint, printing the loaded and unloaded book maps of the authors.
+#
+# To change the url set the environment variable CLUSTER_URL
+# Example: export CLUSTER_URL=https://my-url.com
+
+url=${CLUSTER_URL:=http://localhost:8080}
+curl "$url/lazy"